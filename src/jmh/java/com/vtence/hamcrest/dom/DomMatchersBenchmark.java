@@ -0,0 +1,322 @@
+package com.vtence.hamcrest.dom;
+
+import com.vtence.hamcrest.dom.GeneratedDocument.Shape;
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+/**
+ * Measures each of the {@link DomMatchers} factories.
+ * <p>
+ * Selector matchers are evaluated once against the whole document. Matchers on a single element are evaluated
+ * against every element of the document in turn, and matchers on a list of elements against the children of the
+ * document element. Matchers are created during setup, so only their evaluation is measured.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DomMatchersBenchmark {
+
+    static final int ITEMS_IN_ANY_ORDER = 2000;
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    @Param({"WIDE", "DEEP"})
+    Shape shape;
+
+    Element root;
+    List<Element> elements;
+    List<Element> children;
+
+    Matcher<Element> hasSelector;
+    Matcher<Element> hasSelectorWithSubjects;
+    Matcher<Element> hasSelectorWithFirstSubjects;
+    Matcher<Element> hasSelectorWithFilteredSubjects;
+    Matcher<Element> hasSelectorWithCount;
+    Matcher<Element> hasSelectorCount;
+    Matcher<Element> hasSelectorCountAtLeast;
+    Matcher<Element> hasUniqueSelector;
+    Matcher<Element> hasUniqueSelectorWithSubject;
+    Matcher<Element> hasNoSelector;
+
+    Matcher<Iterable<Element>> contains;
+    Matcher<Iterable<Element>> containsInAnyOrder;
+    Matcher<Iterable<Element>> includes;
+    List<Element> items;
+    Matcher<Iterable<Element>> containsItemsInAnyOrder;
+    Matcher<Iterable<Element>> everyElement;
+    Matcher<Iterable<Element>> everyElementInParallel;
+    List<Element> frozenElements;
+
+    Matcher<Element> hasTag = DomMatchers.hasTag("li");
+    Matcher<Element> hasText = DomMatchers.hasText("item 0 ");
+    Matcher<Element> hasTextMatching = DomMatchers.hasText(containsString("item 7"));
+    Matcher<Element> hasTextStartingWith = DomMatchers.hasTextStartingWith("item 7");
+    Matcher<Element> hasTextContaining = DomMatchers.hasTextContaining("7 item");
+    Matcher<Element> hasTextCompressingWhiteSpace = DomMatchers.hasTextCompressingWhiteSpace("item 0");
+    Matcher<Element> hasBlankText = DomMatchers.hasBlankText();
+    Matcher<Element> hasAttribute = DomMatchers.hasAttribute("name");
+    Matcher<Element> hasAttributeValue = DomMatchers.hasAttribute("name", "item-7");
+    Matcher<Element> hasAttributeMatching = DomMatchers.hasAttribute("name", startsWith("item-7"));
+    Matcher<Element> hasName = DomMatchers.hasName("item-7");
+    Matcher<Element> hasId = DomMatchers.hasId("item-7");
+    Matcher<Element> hasClassName = DomMatchers.hasClassName("even");
+    Matcher<Element> hasClassNames = DomMatchers.hasClassNames("even", "item");
+    Matcher<Element> hasChildren = DomMatchers.hasChildren(DomMatchers.hasSize(1));
+    Matcher<Element> hasChild = DomMatchers.hasChild(DomMatchers.hasClassName("odd"));
+    Matcher<Element> anElement = DomMatchers.anElement(DomMatchers.hasTag("li"), DomMatchers.hasClassName("odd"));
+
+    @Setup
+    public void generateDocument() {
+        GeneratedDocument document = GeneratedDocument.generate(shape, size);
+        root = document.root();
+        elements = document.elements();
+        children = childrenOf(root);
+
+        hasSelector = DomMatchers.hasSelector("ul li.odd");
+        hasSelectorWithSubjects = DomMatchers.hasSelector("#" + document.middleItemId(), DomMatchers.hasTag("li"));
+        hasSelectorWithFirstSubjects = DomMatchers.hasSelector("li", DomMatchers.hasClassName("odd"), DomMatchers.hasClassName("even"));
+        hasSelectorWithFilteredSubjects = DomMatchers.hasSelector("ul li", DomMatchers.hasId(document.middleItemId()));
+        hasSelectorWithCount = DomMatchers.hasSelector("li.even", DomMatchers.hasSize((document.itemCount() + 1) / 2));
+        hasSelectorCount = DomMatchers.hasSelectorCount("li.even", equalTo((document.itemCount() + 1) / 2));
+        hasSelectorCountAtLeast = DomMatchers.hasSelectorCount("li.even", DomMatchers.atLeast(document.itemCount() / 4));
+        hasUniqueSelector = DomMatchers.hasUniqueSelector("#" + document.middleItemId());
+        hasUniqueSelectorWithSubject = DomMatchers.hasUniqueSelector("#" + document.middleItemId(), DomMatchers.hasClassName("item"));
+        hasNoSelector = DomMatchers.hasNoSelector("li[name$='x']");
+
+        List<Matcher<? super Element>> childMatchers = new ArrayList<>();
+        for (Element child : children) childMatchers.add(DomMatchers.anElement(DomMatchers.hasTag(child.getTagName()), DomMatchers.hasAttribute("class", child.getAttribute("class"))));
+        contains = DomMatchers.contains(childMatchers);
+        List<Matcher<? super Element>> reversed = new ArrayList<>(childMatchers);
+        Collections.reverse(reversed);
+        containsInAnyOrder = DomMatchers.containsInAnyOrder(reversed);
+        includes = includesLast(childMatchers);
+
+        items = new ArrayList<>();
+        List<Matcher<? super Element>> itemMatchers = new ArrayList<>();
+        for (Element item : Selector.from(root).selectLazily("li")) {
+            if (items.size() == ITEMS_IN_ANY_ORDER) break;
+            items.add(item);
+            itemMatchers.add(0, DomMatchers.anElement(DomMatchers.hasTag("li"), DomMatchers.hasId(item.getAttribute("id"))));
+        }
+        containsItemsInAnyOrder = DomMatchers.containsInAnyOrder(itemMatchers);
+
+        // Parallel matching needs a document that supports concurrent reads
+        frozenElements = new ArrayList<>();
+        for (Element element : Selector.from(DomSnapshot.freeze(root)).selectLazily("*")) frozenElements.add(element);
+        everyElement = DomMatchers.everyElement(not(DomMatchers.hasClassName("missing")));
+        everyElementInParallel = DomMatchers.everyElementInParallel(not(DomMatchers.hasClassName("missing")));
+    }
+
+    @Benchmark
+    public boolean hasSelector() {
+        return hasSelector.matches(root);
+    }
+
+    @Benchmark
+    public boolean hasSelectorWithSubjects() {
+        return hasSelectorWithSubjects.matches(root);
+    }
+
+    @Benchmark
+    public boolean hasSelectorWithFirstSubjects() {
+        return hasSelectorWithFirstSubjects.matches(root);
+    }
+
+    @Benchmark
+    public boolean hasSelectorWithFilteredSubjects() {
+        return hasSelectorWithFilteredSubjects.matches(root);
+    }
+
+    @Benchmark
+    public boolean hasSelectorWithCount() {
+        return hasSelectorWithCount.matches(root);
+    }
+
+    @Benchmark
+    public boolean hasSelectorCount() {
+        return hasSelectorCount.matches(root);
+    }
+
+    @Benchmark
+    public boolean hasSelectorCountAtLeast() {
+        return hasSelectorCountAtLeast.matches(root);
+    }
+
+    @Benchmark
+    public boolean hasUniqueSelector() {
+        return hasUniqueSelector.matches(root);
+    }
+
+    @Benchmark
+    public boolean hasUniqueSelectorWithSubject() {
+        return hasUniqueSelectorWithSubject.matches(root);
+    }
+
+    @Benchmark
+    public boolean hasNoSelector() {
+        return hasNoSelector.matches(root);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return contains.matches(children);
+    }
+
+    @Benchmark
+    public boolean containsInAnyOrder() {
+        return containsInAnyOrder.matches(children);
+    }
+
+    @Benchmark
+    public boolean everyElement() {
+        return everyElement.matches(frozenElements);
+    }
+
+    @Benchmark
+    public boolean everyElementInParallel() {
+        return everyElementInParallel.matches(frozenElements);
+    }
+
+    @Benchmark
+    public boolean containsItemsInAnyOrder() {
+        return containsItemsInAnyOrder.matches(items);
+    }
+
+    @Benchmark
+    public boolean includes() {
+        return includes.matches(children);
+    }
+
+    @Benchmark
+    public int hasTag() {
+        return countMatches(hasTag);
+    }
+
+    @Benchmark
+    public int hasText() {
+        return countMatches(hasText);
+    }
+
+    @Benchmark
+    public int hasTextMatching() {
+        return countMatches(hasTextMatching);
+    }
+
+    @Benchmark
+    public int hasTextStartingWith() {
+        return countMatches(hasTextStartingWith);
+    }
+
+    @Benchmark
+    public int hasTextContaining() {
+        return countMatches(hasTextContaining);
+    }
+
+    @Benchmark
+    public int hasTextCompressingWhiteSpace() {
+        return countMatches(hasTextCompressingWhiteSpace);
+    }
+
+    @Benchmark
+    public int hasBlankText() {
+        return countMatches(hasBlankText);
+    }
+
+    @Benchmark
+    public int hasAttribute() {
+        return countMatches(hasAttribute);
+    }
+
+    @Benchmark
+    public int hasAttributeValue() {
+        return countMatches(hasAttributeValue);
+    }
+
+    @Benchmark
+    public int hasAttributeMatching() {
+        return countMatches(hasAttributeMatching);
+    }
+
+    @Benchmark
+    public int hasName() {
+        return countMatches(hasName);
+    }
+
+    @Benchmark
+    public int hasId() {
+        return countMatches(hasId);
+    }
+
+    @Benchmark
+    public int hasClassName() {
+        return countMatches(hasClassName);
+    }
+
+    @Benchmark
+    public int hasClassNames() {
+        return countMatches(hasClassNames);
+    }
+
+    @Benchmark
+    public int hasChildren() {
+        return countMatches(hasChildren);
+    }
+
+    @Benchmark
+    public int hasChild() {
+        return countMatches(hasChild);
+    }
+
+    @Benchmark
+    public int anElement() {
+        return countMatches(anElement);
+    }
+
+    private int countMatches(Matcher<Element> matcher) {
+        int count = 0;
+        for (Element element : elements) {
+            if (matcher.matches(element)) count++;
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Matcher<Iterable<Element>> includesLast(List<Matcher<? super Element>> matchers) {
+        return DomMatchers.includes(matchers.get(matchers.size() - 1));
+    }
+
+    private static List<Element> childrenOf(Element parent) {
+        List<Element> children = new ArrayList<>();
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) children.add((Element) child);
+        }
+        return children;
+    }
+}
@@ -0,0 +1,105 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A synthetic list of items, generated in one of two shapes.
+ * <p>
+ * Each item is an <code>li</code> element with an id, a name, classes and some text. In a wide document, items are
+ * grouped a thousand at a time under <code>ul</code> elements, so the document is only three levels deep. In a deep
+ * document, items are nested in chains of {@link #CHAIN_LENGTH}, each item being the parent of the next one.
+ * </p>
+ */
+public class GeneratedDocument {
+
+    public static final int GROUP_SIZE = 1000;
+    public static final int CHAIN_LENGTH = 250;
+
+    public enum Shape {WIDE, DEEP}
+
+    private final Document document;
+    private final List<Element> elements = new ArrayList<>();
+    private int items;
+
+    private GeneratedDocument(Document document) {
+        this.document = document;
+    }
+
+    /**
+     * Generates a document of approximately the specified number of elements.
+     */
+    public static GeneratedDocument generate(Shape shape, int size) {
+        GeneratedDocument generated = new GeneratedDocument(newDocument());
+        generated.fill(shape, size);
+        return generated;
+    }
+
+    public Element root() {
+        return document.getDocumentElement();
+    }
+
+    /**
+     * The elements of the document, in document order.
+     */
+    public List<Element> elements() {
+        return elements;
+    }
+
+    /**
+     * The id of the item in the middle of the document.
+     */
+    public String middleItemId() {
+        return "item-" + (items / 2);
+    }
+
+    public int itemCount() {
+        return items;
+    }
+
+    private void fill(Shape shape, int size) {
+        Element root = list("list");
+        document.appendChild(root);
+
+        Element parent = null;
+        while (elements.size() < size) {
+            if (shape == Shape.WIDE) {
+                if (items % GROUP_SIZE == 0) parent = (Element) root.appendChild(list("group"));
+                parent.appendChild(item(items++));
+            } else {
+                if (items % CHAIN_LENGTH == 0) parent = root;
+                parent = (Element) parent.appendChild(item(items++));
+            }
+        }
+    }
+
+    private Element list(String className) {
+        Element list = document.createElement("ul");
+        list.setAttribute("class", className);
+        elements.add(list);
+        return list;
+    }
+
+    private Element item(int number) {
+        Element item = document.createElement("li");
+        item.setAttribute("id", "item-" + number);
+        item.setAttribute("name", "item-" + number);
+        item.setAttribute("class", number % 2 == 0 ? "item even" : "item odd");
+        item.appendChild(document.createTextNode("item " + number + " "));
+        elements.add(item);
+        return item;
+    }
+
+    private static Document newDocument() {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.vtence.hamcrest.dom;
+
+import com.vtence.hamcrest.dom.GeneratedDocument.Shape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Node;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures selecting nodes with CSS3 selectors, which all selector matchers rely on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SelectorBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    @Param({"WIDE", "DEEP"})
+    Shape shape;
+
+    @Param({"false", "true"})
+    boolean frozen;
+
+    Selector selector;
+    CompiledSelector byClass;
+    CompiledSelector byStructure;
+    CompiledSelector byAttribute;
+    CompiledSelector byId;
+    CompiledSelector byDescendants;
+    CompiledSelector bySharedPrefix;
+    CompiledSelector byNextSiblings;
+    CompiledSelector byLaterSiblings;
+
+    @Setup
+    public void generateDocument() {
+        GeneratedDocument document = GeneratedDocument.generate(shape, size);
+        selector = Selector.from(frozen ? DomSnapshot.freeze(document.root()) : document.root());
+        byClass = Selector.compile("li.even");
+        byStructure = Selector.compile("ul > li:first-child");
+        byAttribute = Selector.compile("li[name$='7']");
+        byId = Selector.compile("#" + document.middleItemId());
+        byDescendants = Selector.compile("ul.list li.odd li:not(.odd) li[name$='1']");
+        bySharedPrefix = Selector.compile("ul.list li.odd li[name$='1'], ul.list li.odd li[name$='3'], ul.list li.odd li[name$='5']");
+        byNextSiblings = Selector.compile("li[name$='7'] + li.even");
+        byLaterSiblings = Selector.compile("li:first-child ~ li[name$='7']");
+    }
+
+    @Benchmark
+    public List<Node> selectAllByClass() {
+        return selector.selectAll(byClass);
+    }
+
+    @Benchmark
+    public List<Node> selectAllByStructure() {
+        return selector.selectAll(byStructure);
+    }
+
+    @Benchmark
+    public List<Node> selectAllByAttribute() {
+        return selector.selectAll(byAttribute);
+    }
+
+    @Benchmark
+    public List<Node> selectAllByDescendants() {
+        return selector.selectAll(byDescendants);
+    }
+
+    @Benchmark
+    public List<Node> selectAllBySharedPrefix() {
+        return selector.selectAll(bySharedPrefix);
+    }
+
+    @Benchmark
+    public List<Node> selectAllByNextSiblings() {
+        return selector.selectAll(byNextSiblings);
+    }
+
+    @Benchmark
+    public List<Node> selectAllByLaterSiblings() {
+        return selector.selectAll(byLaterSiblings);
+    }
+
+    @Benchmark
+    public Node selectFirstById() {
+        return selector.selectFirst(byId);
+    }
+
+    @Benchmark
+    public List<Node> selectAllUncompiled() {
+        return selector.selectAll("li.even");
+    }
+}
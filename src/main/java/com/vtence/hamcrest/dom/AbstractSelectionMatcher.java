@@ -0,0 +1,85 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+
+/**
+ * Base class for matchers that make their assertion on the elements represented by a selector.
+ * Elements are selected lazily, as the matcher looks at them.
+ * <p>
+ * When matching fails, the selection and the outcomes of subject matchers are kept in a {@link MatchMemo}, so that
+ * describing the mismatch right after, as <code>assertThat</code> does, neither selects elements nor
+ * matches subjects again. Only the next mismatch description of the same element uses the memo:
+ * matching always starts afresh. Each thread keeps its own memo until its next match or mismatch description, so
+ * a matcher holds on to at most one selection per thread.
+ * </p>
+ * <p>
+ * A matcher can have the selection filtered as elements are selected, so elements that cannot change its outcome
+ * are never kept.
+ * </p>
+ * <p>
+ * When {@link DomMetrics} are enabled, each match is recorded under both the selector and the type of matcher.
+ * </p>
+ */
+abstract class AbstractSelectionMatcher<E> extends TypeSafeDiagnosingMatcher<E> implements SelectionMatcher<E> {
+    protected final NodeModel<E> model;
+    protected final CompiledSelector selector;
+    private final ThreadLocal<MatchMemo<E>> lastMismatch = new ThreadLocal<>();
+
+    protected AbstractSelectionMatcher(NodeModel<E> model, CompiledSelector selector) {
+        super(model.elementType());
+        this.model = model;
+        this.selector = selector;
+    }
+
+    public NodeModel<E> model() {
+        return model;
+    }
+
+    public CompiledSelector selector() {
+        return selector;
+    }
+
+    @Override
+    protected final boolean matchesSafely(E actual, Description mismatchDescription) {
+        MatchMemo<E> memo = lastMismatch.get();
+        if (memo != null) lastMismatch.remove();
+        boolean describing = !(mismatchDescription instanceof Description.NullDescription);
+        boolean timed = !describing && DomMetrics.enabled();
+        long start = timed ? System.nanoTime() : 0L;
+        // A mismatch is described from the whole selection, never from a filtered one
+        Matcher<? super E> filter = describing ? null : filter();
+        if (filter != null || !describing || memo == null || !memo.isAbout(actual)) {
+            memo = new MatchMemo<>(actual, NodeSelector.from(model, actual).selectLazily(selector, filter));
+        }
+
+        MatchMemo<?> outer = memo.enter();
+        try {
+            boolean matches = matchesSelection(memo.selected(), mismatchDescription);
+            if (!matches && !describing && filter == null) lastMismatch.set(memo);
+            if (timed) record(memo.selected(), System.nanoTime() - start);
+            return matches;
+        } finally {
+            MatchMemo.restore(outer);
+        }
+    }
+
+    /**
+     * Returns a cheap matcher without side effects that rejects selected elements which cannot change the outcome
+     * of the match, or <code>null</code> if all selected elements matter. Rejected elements are skipped as elements
+     * are selected, but only to decide whether the selection matches: a mismatch is always described from the
+     * whole selection.
+     */
+    protected Matcher<? super E> filter() {
+        return null;
+    }
+
+    private void record(Iterable<E> selected, long nanos) {
+        LazySelection<?> selection = selected instanceof LazySelection ? (LazySelection<?>) selected : null;
+        int visited = selection != null ? selection.visited() : 0;
+        int size = selection != null ? selection.size() : 0;
+        DomMetrics.recordSelector(selector, nanos, visited, size);
+        DomMetrics.recordMatcher(getClass(), nanos, visited, size);
+    }
+}
@@ -0,0 +1,36 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.core.AllOf;
+import org.w3c.dom.Element;
+
+import java.util.List;
+
+/**
+ * Combines a group of matchers for matching an {@link Element}, just like <code>allOf</code> does.
+ * The combination has the key of any of its matchers, preferably an attribute value, which is more selective
+ * than a tag name.
+ */
+class AnElement extends AllOf<Element> {
+    private final ElementKey key;
+
+    AnElement(List<Matcher<? super Element>> elementMatchers) {
+        super(elementMatchers);
+        this.key = keyOf(elementMatchers);
+    }
+
+    ElementKey key() {
+        return key;
+    }
+
+    private static ElementKey keyOf(List<Matcher<? super Element>> matchers) {
+        ElementKey key = null;
+        for (Matcher<?> matcher : matchers) {
+            ElementKey candidate = ElementKey.of(matcher);
+            if (candidate == null) continue;
+            if (!candidate.isTag()) return candidate;
+            if (key == null) key = candidate;
+        }
+        return key;
+    }
+}
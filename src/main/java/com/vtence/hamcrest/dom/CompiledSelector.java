@@ -0,0 +1,67 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.Element;
+import se.fishtank.css.selectors.selector.Selector;
+
+import java.util.List;
+
+/**
+ * A parsed CSS3 selector expression, ready to be matched against DOM elements or the elements of any {@link NodeModel}.
+ * <p>
+ * Compiled selectors are immutable and can safely be kept in constants and shared between threads.
+ * Use {@link com.vtence.hamcrest.dom.Selector#compile(String)} to obtain one.
+ * </p>
+ */
+public final class CompiledSelector {
+    private final String text;
+    private final List<Selector> group;
+    private final SelectorEngine engine;
+
+    CompiledSelector(String text, List<Selector> group) {
+        this.text = text;
+        this.group = group;
+        this.engine = SelectorEngine.compile(group);
+    }
+
+    /**
+     * Returns the CSS3 selector expression this selector was compiled from.
+     */
+    public String text() {
+        return text;
+    }
+
+    List<Selector> group() {
+        return group;
+    }
+
+    /**
+     * Tells whether the element is represented by this selector.
+     */
+    boolean matches(Element element) {
+        return engine.matches(element);
+    }
+
+    /**
+     * Tells whether the element of a tree of the specified model is represented by this selector.
+     */
+    <E> boolean matches(NodeModel<E> model, E element) {
+        return engine.matches(model, element);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return text.equals(((CompiledSelector) o).text);
+    }
+
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,165 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+import org.w3c.dom.Element;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that a collection contains {@link Element}s that are matched in any order by the specified matchers, with
+ * the same outcome and descriptions as hamcrest's <code>containsInAnyOrder</code>.
+ * <p>
+ * Like hamcrest, each element is taken by the first remaining matcher that matches it. Matchers that can only match
+ * elements with a given tag name or attribute value are bucketed by that key though, and an element is only tried
+ * against the buckets of its own keys and against matchers without a key. With keyed matchers, most elements are tried
+ * against one or two matchers, rather than against all remaining matchers. Buckets are only used with enough matchers
+ * spread over enough keys, otherwise elements are tried against all remaining matchers, in order.
+ * </p>
+ */
+public class ContainsInAnyOrder extends TypeSafeDiagnosingMatcher<Iterable<? extends Element>> {
+    // Bucketing pays off only with enough matchers, spread over enough keys
+    private static final int BUCKETING_THRESHOLD = 16;
+    private static final int MAX_AVERAGE_BUCKET_SIZE = 4;
+
+    private final List<Matcher<? super Element>> matchers;
+    // Positions of the matchers in each bucket, in order. The first bucket holds the matchers without a key.
+    private final int[][] buckets;
+    private final Map<String, Integer> bucketsByTag = new HashMap<>();
+    private final Map<String, Map<String, Integer>> bucketsByAttribute = new HashMap<>();
+    private final boolean bucketing;
+
+    public ContainsInAnyOrder(List<Matcher<? super Element>> matchers) {
+        this.matchers = new ArrayList<>(matchers);
+
+        List<List<Integer>> positions = new ArrayList<>();
+        positions.add(new ArrayList<>());
+        for (int position = 0; position < this.matchers.size(); position++) {
+            ElementKey key = ElementKey.of(this.matchers.get(position));
+            Map<String, Integer> byValue = key == null ? null : key.isTag() ? bucketsByTag : attributeBuckets(key.attribute);
+            Integer bucket = key != null ? byValue.get(key.value) : Integer.valueOf(0);
+            if (bucket == null) {
+                bucket = positions.size();
+                byValue.put(key.value, bucket);
+                positions.add(new ArrayList<>());
+            }
+            positions.get(bucket).add(position);
+        }
+        this.buckets = new int[positions.size()][];
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            buckets[bucket] = positions.get(bucket).stream().mapToInt(Integer::intValue).toArray();
+        }
+        this.bucketing = this.matchers.size() >= BUCKETING_THRESHOLD
+                && (buckets.length - 1) * MAX_AVERAGE_BUCKET_SIZE >= this.matchers.size();
+    }
+
+    private Map<String, Integer> attributeBuckets(String attribute) {
+        Map<String, Integer> byValue = bucketsByAttribute.get(attribute);
+        if (byValue == null) {
+            byValue = new HashMap<>();
+            bucketsByAttribute.put(attribute, byValue);
+        }
+        return byValue;
+    }
+
+    @Override
+    protected boolean matchesSafely(Iterable<? extends Element> items, Description mismatchDescription) {
+        Matching matching = new Matching(mismatchDescription);
+        for (Element item : items) {
+            if (!matching.matches(item)) return false;
+        }
+        return matching.isFinished(items);
+    }
+
+    public void describeTo(Description description) {
+        description.appendText("iterable with items ")
+                   .appendList("[", ", ", "]", matchers)
+                   .appendText(" in any order");
+    }
+
+    public static Matcher<Iterable<? extends Element>> containsInAnyOrder(List<Matcher<? super Element>> matchers) {
+        return new ContainsInAnyOrder(matchers);
+    }
+
+    private class Matching {
+        private final Description mismatchDescription;
+        private final boolean[] taken = new boolean[matchers.size()];
+        // Where to start looking for the first matcher left in each bucket
+        private final int[] heads = new int[buckets.length];
+        private int head;
+        private int remaining = matchers.size();
+
+        Matching(Description mismatchDescription) {
+            this.mismatchDescription = mismatchDescription;
+        }
+
+        boolean matches(Element item) {
+            if (remaining == 0) {
+                mismatchDescription.appendText("no match for: ").appendValue(item);
+                return false;
+            }
+            int first = firstMatcherOf(item);
+            if (first == matchers.size()) {
+                mismatchDescription.appendText("not matched: ").appendValue(item);
+                return false;
+            }
+            taken[first] = true;
+            remaining--;
+            return true;
+        }
+
+        boolean isFinished(Iterable<? extends Element> items) {
+            if (remaining == 0) return true;
+            List<Matcher<? super Element>> left = new ArrayList<>();
+            for (int position = 0; position < matchers.size(); position++) {
+                if (!taken[position]) left.add(matchers.get(position));
+            }
+            mismatchDescription.appendText("no item matches: ").appendList("", ", ", "", left)
+                               .appendText(" in ").appendValueList("[", ", ", "]", items);
+            return false;
+        }
+
+        // Returns the position of the first matcher left that matches the element, or the number of matchers if none does
+        private int firstMatcherOf(Element item) {
+            if (!bucketing) return firstMatcherAmongAll(item);
+            if (item == null) return firstMatcherIn(0, item, matchers.size());
+
+            int first = firstMatcherIn(0, item, matchers.size());
+            if (!bucketsByTag.isEmpty()) first = firstMatcherIn(tagBucketOf(item), item, first);
+            for (Map.Entry<String, Map<String, Integer>> attribute : bucketsByAttribute.entrySet()) {
+                first = firstMatcherIn(attribute.getValue().get(item.getAttribute(attribute.getKey())), item, first);
+            }
+            return first;
+        }
+
+        private int firstMatcherAmongAll(Element item) {
+            while (head < matchers.size() && taken[head]) head++;
+            for (int position = head; position < matchers.size(); position++) {
+                if (!taken[position] && matchers.get(position).matches(item)) return position;
+            }
+            return matchers.size();
+        }
+
+        private Integer tagBucketOf(Element item) {
+            String tagName = item.getTagName();
+            // Keys are folded already, so a tag name found as is needs no folding
+            Integer bucket = bucketsByTag.get(tagName);
+            return bucket != null ? bucket : bucketsByTag.get(ElementIndex.tagKey(tagName));
+        }
+
+        private int firstMatcherIn(Integer bucket, Element item, int before) {
+            if (bucket == null) return before;
+            int[] positions = buckets[bucket];
+            while (heads[bucket] < positions.length && taken[positions[heads[bucket]]]) heads[bucket]++;
+            for (int i = heads[bucket]; i < positions.length && positions[i] < before; i++) {
+                int position = positions[i];
+                if (!taken[position] && matchers.get(position).matches(item)) return position;
+            }
+            return before;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates a group of matchers against an {@link org.w3c.dom.Element} in one go.
+ * <p>
+ * The nodes represented by the selectors of all selector matchers
+ * (<code>hasSelector</code>, <code>hasUniqueSelector</code> and <code>hasNoSelector</code>) are selected
+ * together, in a single traversal of the element, and matchers using the same selector share its selection.
+ * Other matchers are evaluated as usual. Each matcher gives the same result and mismatch description
+ * it would give on its own.
+ * </p>
+ * <p>
+ * Unlike <code>allOf</code>, the mismatch description reports every failed matcher, not only the first one.
+ * </p>
+ * <p>
+ * A group never changes once created, so it can be kept as a constant and shared between threads:
+ * {@link #and(Matcher)} creates a new group.
+ * </p>
+ */
+public class DomAssertions extends TypeSafeDiagnosingMatcher<Element> {
+    private final List<Matcher<? super Element>> matchers;
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public DomAssertions(Matcher<? super Element>... matchers) {
+        this(Arrays.asList(matchers));
+    }
+
+    public DomAssertions(List<Matcher<? super Element>> matchers) {
+        this.matchers = Collections.unmodifiableList(new ArrayList<>(matchers));
+    }
+
+    /**
+     * Returns a new group with the matchers of this group, followed by the specified matcher.
+     */
+    public DomAssertions and(Matcher<? super Element> matcher) {
+        List<Matcher<? super Element>> matchers = new ArrayList<>(this.matchers);
+        matchers.add(matcher);
+        return new DomAssertions(matchers);
+    }
+
+    /**
+     * Checks that the element is matched by all matchers of the group.
+     *
+     * @throws AssertionError describing all failed matchers
+     */
+    public void verify(Element actual) {
+        verify("", actual);
+    }
+
+    public void verify(String reason, Element actual) {
+        Description mismatch = new StringDescription();
+        if (actual == null) mismatch.appendText("was null");
+        else if (matchesSafely(actual, mismatch)) return;
+
+        Description description = new StringDescription();
+        description.appendText(reason)
+                   .appendText("\nExpected: ")
+                   .appendDescriptionOf(this)
+                   .appendText("\n     but: ")
+                   .appendText(mismatch.toString());
+        throw new AssertionError(description.toString());
+    }
+
+    @Override
+    protected boolean matchesSafely(Element actual, Description mismatchDescription) {
+        Map<CompiledSelector, List<Node>> selection = selectAll(actual);
+
+        boolean matches = true;
+        for (Matcher<? super Element> matcher : matchers) {
+            Description mismatch = new StringDescription();
+            if (matches(matcher, actual, selection, mismatch)) continue;
+
+            if (!matches) mismatchDescription.appendText("\n          ");
+            mismatchDescription.appendDescriptionOf(matcher).appendText(" ").appendText(mismatch.toString());
+            matches = false;
+        }
+        return matches;
+    }
+
+    private Map<CompiledSelector, List<Node>> selectAll(Element actual) {
+        Map<CompiledSelector, Integer> limits = new HashMap<>();
+        for (Matcher<? super Element> matcher : matchers) {
+            SelectionMatcher<Element> selection = selectionMatcher(matcher);
+            if (selection == null) continue;
+            Integer limit = limits.get(selection.selector());
+            if (limit == null || limit < selection.limit()) limits.put(selection.selector(), selection.limit());
+        }
+        return Selector.from(actual).selectEach(limits);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean matches(Matcher<? super Element> matcher, Element actual,
+                                   Map<CompiledSelector, List<Node>> selection, Description mismatch) {
+        SelectionMatcher<Element> selectionMatcher = selectionMatcher(matcher);
+        if (selectionMatcher != null) {
+            // Selected nodes are all elements
+            List<Element> selected = (List<Element>) (List<?>) selection.get(selectionMatcher.selector());
+            return selectionMatcher.matchesSelection(
+                    selected.subList(0, Math.min(selected.size(), selectionMatcher.limit())), mismatch);
+        }
+
+        if (matcher.matches(actual)) return true;
+        matcher.describeMismatch(actual, mismatch);
+        return false;
+    }
+
+    // Only selections of DOM elements are shared
+    @SuppressWarnings("unchecked")
+    private static SelectionMatcher<Element> selectionMatcher(Matcher<?> matcher) {
+        if (!(matcher instanceof SelectionMatcher)) return null;
+        SelectionMatcher<?> selection = (SelectionMatcher<?>) matcher;
+        return selection.model() == W3cNodeModel.w3c() ? (SelectionMatcher<Element>) selection : null;
+    }
+
+    public void describeTo(Description description) {
+        description.appendList("(", " and ", ")", matchers);
+    }
+
+    @SafeVarargs
+    public static DomAssertions allAssertions(Matcher<? super Element>... matchers) {
+        return new DomAssertions(matchers);
+    }
+}
@@ -2,19 +2,22 @@ package com.vtence.hamcrest.dom;
 
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
-import org.hamcrest.collection.IsIterableContainingInAnyOrder;
 import org.hamcrest.collection.IsIterableContainingInOrder;
 import org.hamcrest.core.Every;
 import org.w3c.dom.Element;
 
 import java.util.Arrays;
 import java.util.List;
-
-import static org.hamcrest.Matchers.allOf;
+import java.util.concurrent.Executor;
 
 /**
  * A collection of hamcrest matchers to make assertions on DOM elements
  * (objects of type {@link org.w3c.dom.Element}).
+ * <p>
+ * Matchers are immutable and safe to share between threads, so a matcher can be kept in a constant and used by
+ * tests running in parallel. DOM documents are a different matter: most DOM implementations do not support
+ * concurrent reads of a live document. Use {@link DomSnapshot#freeze(Element)} to share a document between threads.
+ * </p>
  */
 public class DomMatchers {
 
@@ -42,6 +45,82 @@ public class DomMatchers {
         return HasSelector.hasSelector(selector, subjectsMatcher);
     }
 
+    /**
+     * Checks that an {@link org.w3c.dom.Element} matches a compiled CSS3 selector with the specified matchers matching
+     * the subjects of the selector in any order.
+     *
+     * @see DomMatchers#hasSelector(String, org.hamcrest.Matcher[])
+     * @param selector the compiled CSS3 selector to match against the element
+     * @param subjectsMatchers matchers to match the elements represented by the selector
+     */
+    @SafeVarargs
+    public static Matcher<Element> hasSelector(CompiledSelector selector, Matcher<? super Element>... subjectsMatchers) {
+        return HasSelector.hasSelector(selector, subjectsMatchers);
+    }
+
+    /**
+     * Checks that an {@link org.w3c.dom.Element} matches a compiled CSS3 selector with the specified matchers matching
+     * the subjects of the selector.
+     *
+     * @param selector the compiled CSS3 selector to match against the element
+     * @param subjectsMatcher matchers to match the elements represented by the selector
+     */
+    public static Matcher<Element> hasSelector(CompiledSelector selector, Matcher<Iterable<Element>> subjectsMatcher) {
+        return HasSelector.hasSelector(selector, subjectsMatcher);
+    }
+
+    /**
+     * Checks that the number of elements represented by a CSS3 selector matches the specified matcher. Elements are
+     * counted as they are selected, without being kept.
+     * When the count matcher is {@link #atLeast(int)}, {@link #atMost(int)} or {@link #between(int, int)},
+     * counting stops as soon as the outcome is known.
+     *
+     * @param selector the CSS3 selector expression to match against the element
+     * @param countMatcher the matcher to match the number of selected elements
+     */
+    public static Matcher<Element> hasSelectorCount(String selector, Matcher<? super Integer> countMatcher) {
+        return HasSelectorCount.hasSelectorCount(selector, countMatcher);
+    }
+
+    /**
+     * Checks that the number of elements represented by a compiled CSS3 selector matches the specified matcher.
+     *
+     * @param selector the compiled CSS3 selector to match against the element
+     * @param countMatcher the matcher to match the number of selected elements
+     * @see DomMatchers#hasSelectorCount(String, org.hamcrest.Matcher)
+     */
+    public static Matcher<Element> hasSelectorCount(CompiledSelector selector, Matcher<? super Integer> countMatcher) {
+        return HasSelectorCount.hasSelectorCount(selector, countMatcher);
+    }
+
+    /**
+     * Checks that a count is at least the specified minimum.
+     *
+     * @param min the minimum count, included
+     */
+    public static Matcher<Integer> atLeast(int min) {
+        return HasSelectorCount.atLeast(min);
+    }
+
+    /**
+     * Checks that a count is at most the specified maximum.
+     *
+     * @param max the maximum count, included
+     */
+    public static Matcher<Integer> atMost(int max) {
+        return HasSelectorCount.atMost(max);
+    }
+
+    /**
+     * Checks that a count is between the specified bounds.
+     *
+     * @param min the minimum count, included
+     * @param max the maximum count, included
+     */
+    public static Matcher<Integer> between(int min, int max) {
+        return HasSelectorCount.between(min, max);
+    }
+
     /**
      * Checks that a collection of {@link org.w3c.dom.Element}a is of a specified size.
      *
@@ -85,6 +164,39 @@ public class DomMatchers {
         return HasUniqueSelector.hasUniqueSelector(selector, subjectMatchers);
     }
 
+    /**
+     * Checks that an {@link org.w3c.dom.Element} matches a compiled CSS3 selector and that the selector represents
+     * a single child element.
+     *
+     * @param selector the compiled CSS3 selector to match against the element
+     */
+    public static Matcher<Element> hasUniqueSelector(CompiledSelector selector) {
+        return HasUniqueSelector.hasUniqueSelector(selector);
+    }
+
+    /**
+     * Checks that an {@link org.w3c.dom.Element} matches a compiled CSS3 selector with the specified matcher matching
+     * the only subject of the selector.
+     *
+     * @param selector the compiled CSS3 selector to match against the element
+     * @param subjectMatcher the matcher to match the single element represented by the selector
+     */
+    public static Matcher<Element> hasUniqueSelector(CompiledSelector selector, Matcher<? super Element> subjectMatcher) {
+        return HasUniqueSelector.hasUniqueSelector(selector, subjectMatcher);
+    }
+
+    /**
+     * Checks that an {@link org.w3c.dom.Element} matches a compiled CSS3 selector and that the single element
+     * represented by the selector is matched by all specified matchers.
+     *
+     * @param selector the compiled CSS3 selector to match against the element
+     * @param subjectMatchers the matchers to match the single element represented by the selector
+     */
+    @SafeVarargs
+    public static Matcher<Element> hasUniqueSelector(CompiledSelector selector, Matcher<? super Element>... subjectMatchers) {
+        return HasUniqueSelector.hasUniqueSelector(selector, subjectMatchers);
+    }
+
     /**
      * Checks that an {@link org.w3c.dom.Element} is not matched by the specified CSS3 selector expression.
      * @param selector the CSS3 selector expression
@@ -93,6 +205,14 @@ public class DomMatchers {
     	return HasNoSelector.hasNoSelector(selector);
     }
 
+    /**
+     * Checks that an {@link org.w3c.dom.Element} is not matched by the specified compiled CSS3 selector.
+     * @param selector the compiled CSS3 selector
+     */
+    public static Matcher<Element> hasNoSelector(CompiledSelector selector) {
+        return HasNoSelector.hasNoSelector(selector);
+    }
+
     /**
      * Checks that a collection contains {@link org.w3c.dom.Element}s that are matched in order by the specified matchers.
      * <p>
@@ -157,6 +277,11 @@ public class DomMatchers {
      * Matching can occur in any order.
      * </p>
      * <p>
+     * Elements are only tried against the matchers that could match them when matchers expect an exact tag name
+     * or attribute value, as do {@link #hasTag(String)}, {@link #hasAttribute(String, String)}, {@link #hasId(String)}
+     * and {@link #hasName(String)}, alone or combined with {@link #anElement(Matcher[])}.
+     * </p>
+     * <p>
      * Note: As of hamcrest 1.3, the <code>hasItems</code> family of matchers return <code>Matcher&lt;Iterable&lt;? extends T&gt;&gt;</code>
      * whereas the <code>contains</code> family of matchers return <code>Iterable&lt;Matcher&lt;T&gt;&gt;</code>.
      * Unfortunately, this makes them impossible to combine as arguments to
@@ -168,7 +293,7 @@ public class DomMatchers {
     @SuppressWarnings("unchecked")
     public static Matcher<Iterable<Element>> containsInAnyOrder(List<Matcher<? super Element>> elementsMatcher) {
         // Let's force Matcher<Iterable<Element>>, since Element is an interface
-        return new IsIterableContainingInAnyOrder(elementsMatcher);
+        return (Matcher) new ContainsInAnyOrder(elementsMatcher);
     }
 
     /**
@@ -193,6 +318,48 @@ public class DomMatchers {
         return new Every(elementMatcher);
     }
 
+    /**
+     * Checks that every element in a given collection of {@link org.w3c.dom.Element}s matches the
+     * specified matcher, splitting large collections across the common fork join pool.
+     * <p>
+     * The first failing element in document order is reported. Only elements of a {@link DomSnapshot} are matched
+     * from several threads at once: live documents are not safe to read concurrently, so their elements are matched
+     * one after the other, in the calling thread.
+     * </p>
+     *
+     * @param elementMatcher matcher to match every {@link org.w3c.dom.Element}s in the collection
+     */
+    public static Matcher<Iterable<Element>> everyElementInParallel(Matcher<? super Element> elementMatcher) {
+        return EveryElement.everyElement(elementMatcher);
+    }
+
+    /**
+     * Checks that every document in a collection, given by its document element, is matched by the specified matcher.
+     * Documents are matched in parallel, on virtual threads if available, otherwise on the common fork join pool.
+     * <p>
+     * Only a bounded number of documents are matched at once, so the collection can be read lazily.
+     * To match a stream of documents, pass <code>stream::iterator</code> as the collection.
+     * Mismatches are reported in the order of the collection.
+     * </p>
+     *
+     * @param documentMatcher matcher to match every document in the collection
+     */
+    public static Matcher<Iterable<Element>> forAllDocuments(Matcher<? super Element> documentMatcher) {
+        return ForAllDocuments.forAllDocuments(documentMatcher);
+    }
+
+    /**
+     * Checks that every document in a collection, given by its document element, is matched by the specified matcher.
+     * Documents are matched in parallel using the specified executor.
+     *
+     * @see DomMatchers#forAllDocuments(Matcher)
+     * @param documentMatcher matcher to match every document in the collection
+     * @param executor the executor to match documents with
+     */
+    public static Matcher<Iterable<Element>> forAllDocuments(Matcher<? super Element> documentMatcher, Executor executor) {
+        return ForAllDocuments.forAllDocuments(documentMatcher, executor);
+    }
+
     /**
      * Checks that an {@link org.w3c.dom.Element} has the specified tag.
      */
@@ -214,6 +381,28 @@ public class DomMatchers {
         return HasContentText.hasContent(contentMatcher);
     }
 
+    /**
+     * Checks that an {@link org.w3c.dom.Element} content starts with the specified text.
+     */
+    public static Matcher<Element> hasTextStartingWith(String prefix) {
+        return HasContentText.hasContentStartingWith(prefix);
+    }
+
+    /**
+     * Checks that an {@link org.w3c.dom.Element} content contains the specified text.
+     */
+    public static Matcher<Element> hasTextContaining(String substring) {
+        return HasContentText.hasContentContaining(substring);
+    }
+
+    /**
+     * Checks that an {@link org.w3c.dom.Element} content is equal to the specified text, ignoring differences
+     * in white space: leading and trailing white space is ignored and runs of white space compare as a single space.
+     */
+    public static Matcher<Element> hasTextCompressingWhiteSpace(String contentText) {
+        return HasContentText.hasContentCompressingWhiteSpace(contentText);
+    }
+
     /**
      * Checks that an {@link org.w3c.dom.Element} content contains only blank characters.
      */
@@ -275,7 +464,17 @@ public class DomMatchers {
      * @param className the expected class the element
      */
     public static Matcher<Element> hasClassName(String className) {
-        return HasAttributeValue.hasClassName(className);
+        return HasClassName.hasClassName(className);
+    }
+
+    /**
+     * Checks that an {@link org.w3c.dom.Element} has all the specified CSS classes, in any order.
+     * Note that the element can have other classes as well.
+     *
+     * @param classNames the expected classes of the element
+     */
+    public static Matcher<Element> hasClassNames(String... classNames) {
+        return HasClassName.hasClassNames(classNames);
     }
 
     /**
@@ -316,7 +515,8 @@ public class DomMatchers {
      * Combines a group of matchers for matching an {@link org.w3c.dom.Element}.
      */
     @SafeVarargs
+    @SuppressWarnings("varargs")
     public static Matcher<Element> anElement(final Matcher<? super Element>... elementMatchers) {
-        return allOf(elementMatchers);
+        return new AnElement(Arrays.asList(elementMatchers));
     }
 }
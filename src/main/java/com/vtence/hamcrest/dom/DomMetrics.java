@@ -0,0 +1,286 @@
+package com.vtence.hamcrest.dom;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in metrics of selectors and matchers: how many times they were evaluated, how long evaluations took,
+ * how many elements they visited and how many elements they selected.
+ * <p>
+ * Metrics are recorded per selector text and per matcher type. A matcher that makes its assertion on a selector is
+ * recorded under both. Times include the time spent in nested matchers: matchers of a single element, such as
+ * <code>hasTag</code>, are too cheap to time on their own and are only timed as part of their selection.
+ * Selectors evaluated together in a single traversal share its time evenly.
+ * </p>
+ * <p>
+ * Metrics are disabled by default, and cost a single read of a flag per evaluation while disabled. Enable them
+ * with {@link #enable()}, or by setting the <code>hamcrest.dom.metrics</code> system property to <code>true</code>.
+ * Setting the <code>hamcrest.dom.metrics.file</code> system property to a path also enables metrics, and writes
+ * them to that file as JSON when the JVM exits.
+ * </p>
+ */
+public final class DomMetrics {
+
+    public static final String ENABLED_PROPERTY = "hamcrest.dom.metrics";
+    public static final String FILE_PROPERTY = "hamcrest.dom.metrics.file";
+
+    // Times are bucketed by their three most significant bits: four buckets for each power of two
+    private static final int BUCKETS = 248;
+
+    private static final ConcurrentMap<String, Recorder> selectors = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Recorder> matchers = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    static {
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file != null) {
+            enabled = true;
+            dumpAtExit(Paths.get(file));
+        }
+    }
+
+    private DomMetrics() {}
+
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Forgets all metrics recorded so far.
+     */
+    public static void reset() {
+        selectors.clear();
+        matchers.clear();
+    }
+
+    /**
+     * Returns the metrics recorded so far for each selector, by selector text.
+     */
+    public static SortedMap<String, Metric> selectors() {
+        return snapshot(selectors);
+    }
+
+    /**
+     * Returns the metrics recorded so far for each type of matcher, by class name without the package.
+     */
+    public static SortedMap<String, Metric> matchers() {
+        return snapshot(matchers);
+    }
+
+    /**
+     * Writes the metrics recorded so far as a JSON object, with a <code>selectors</code> and a <code>matchers</code> member.
+     */
+    public static String toJson() {
+        StringBuilder json = new StringBuilder("{\n");
+        appendJson(json, "selectors", selectors());
+        json.append(",\n");
+        appendJson(json, "matchers", matchers());
+        return json.append("\n}\n").toString();
+    }
+
+    /**
+     * Writes the metrics to the specified file, as JSON, when the JVM exits.
+     */
+    public static void dumpAtExit(Path file) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                Files.write(file, toJson().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, "hamcrest-dom-metrics"));
+    }
+
+    static void recordSelector(CompiledSelector selector, long nanos, int visited, int selected) {
+        recorder(selectors, selector.text()).record(nanos, visited, selected);
+    }
+
+    static void recordMatcher(Class<?> type, long nanos, int visited, int selected) {
+        recorder(matchers, nameOf(type)).record(nanos, visited, selected);
+    }
+
+    private static Recorder recorder(ConcurrentMap<String, Recorder> recorders, String name) {
+        Recorder recorder = recorders.get(name);
+        return recorder != null ? recorder : recorders.computeIfAbsent(name, key -> new Recorder());
+    }
+
+    private static String nameOf(Class<?> type) {
+        String name = type.getName();
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    private static SortedMap<String, Metric> snapshot(Map<String, Recorder> recorders) {
+        SortedMap<String, Metric> metrics = new TreeMap<>();
+        for (Map.Entry<String, Recorder> recorder : recorders.entrySet()) {
+            metrics.put(recorder.getKey(), recorder.getValue().snapshot());
+        }
+        return metrics;
+    }
+
+    private static void appendJson(StringBuilder json, String name, Map<String, Metric> metrics) {
+        json.append("  ").append(quote(name)).append(": {");
+        String separator = "\n";
+        for (Map.Entry<String, Metric> metric : metrics.entrySet()) {
+            json.append(separator).append("    ").append(quote(metric.getKey())).append(": ");
+            metric.getValue().appendJson(json);
+            separator = ",\n";
+        }
+        json.append(metrics.isEmpty() ? "}" : "\n  }");
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') quoted.append('\\').append(c);
+            else if (c < 0x20) quoted.append(String.format("\\u%04x", (int) c));
+            else quoted.append(c);
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * The metrics of a selector or of a type of matcher, as recorded at some point.
+     * Percentiles are estimated from a histogram of evaluation times, to within 25%.
+     */
+    public static final class Metric {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] histogram;
+        private final long visited;
+        private final long selected;
+
+        Metric(long count, long totalNanos, long maxNanos, long[] histogram, long visited, long selected) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.histogram = histogram;
+            this.visited = visited;
+            this.selected = selected;
+        }
+
+        /**
+         * The number of evaluations.
+         */
+        public long count() {
+            return count;
+        }
+
+        public long totalNanos() {
+            return totalNanos;
+        }
+
+        public long maxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Estimates the time under which the specified percentage of evaluations completed.
+         *
+         * @param percentile the percentage of evaluations, between 0 and 100
+         */
+        public long percentileNanos(double percentile) {
+            long total = 0;
+            for (long each : histogram) total += each;
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+            long seen = 0;
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                seen += histogram[bucket];
+                if (seen >= rank) return Math.min(maxNanos, upperBoundOf(bucket));
+            }
+            return maxNanos;
+        }
+
+        /**
+         * The total number of elements visited.
+         */
+        public long nodesVisited() {
+            return visited;
+        }
+
+        /**
+         * The total number of elements selected.
+         */
+        public long selected() {
+            return selected;
+        }
+
+        void appendJson(StringBuilder json) {
+            json.append("{\"count\": ").append(count)
+                .append(", \"totalNanos\": ").append(totalNanos)
+                .append(", \"p50Nanos\": ").append(percentileNanos(50))
+                .append(", \"p90Nanos\": ").append(percentileNanos(90))
+                .append(", \"p99Nanos\": ").append(percentileNanos(99))
+                .append(", \"maxNanos\": ").append(maxNanos)
+                .append(", \"nodesVisited\": ").append(visited)
+                .append(", \"selected\": ").append(selected)
+                .append("}");
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder json = new StringBuilder();
+            appendJson(json);
+            return json.toString();
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < 4) return (int) Math.max(0, nanos);
+        int log = 63 - Long.numberOfLeadingZeros(nanos);
+        return (log - 1) * 4 + (int) ((nanos >>> (log - 2)) & 3);
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < 4) return bucket;
+        int log = bucket / 4 + 1;
+        long lower = (4L + bucket % 4) << (log - 2);
+        return lower + (1L << (log - 2)) - 1;
+    }
+
+    private static class Recorder {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        private final LongAdder visited = new LongAdder();
+        private final LongAdder selected = new LongAdder();
+
+        void record(long nanos, int visited, int selected) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            histogram.incrementAndGet(bucketOf(nanos));
+            this.visited.add(visited);
+            this.selected.add(selected);
+        }
+
+        Metric snapshot() {
+            long[] counts = new long[BUCKETS];
+            for (int bucket = 0; bucket < BUCKETS; bucket++) counts[bucket] = histogram.get(bucket);
+            return new Metric(count.sum(), totalNanos.sum(), maxNanos.get(), counts, visited.sum(), selected.sum());
+        }
+    }
+}
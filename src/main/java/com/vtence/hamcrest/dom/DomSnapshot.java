@@ -0,0 +1,493 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A compact, read-only copy of a DOM document, for matching the same page many times.
+ * <p>
+ * Nodes are numbered in document order and their structure is kept in parallel arrays of parent, child and
+ * sibling numbers. Names and attribute values are interned once per snapshot, and the text of all text nodes is
+ * stored in a single character buffer, so the text content of any element is a contiguous slice of that buffer.
+ * </p>
+ * <p>
+ * A snapshot presents itself as a regular, read-only <code>org.w3c.dom</code> tree, so every DOM matcher works
+ * with it. Any attempt to modify the tree throws a <code>NO_MODIFICATION_ALLOWED_ERR</code> {@link org.w3c.dom.DOMException}.
+ * All read operations are supported, including node equality and namespace lookups, except for cloning nodes,
+ * comparing the positions of attributes, and getting the DOM configuration of the document, which throw a <code>NOT_SUPPORTED_ERR</code> {@link org.w3c.dom.DOMException}. To get a modifiable copy of a snapshot,
+ * import its nodes into a regular document.
+ * Since a snapshot never changes, its selector index is built once and kept for its whole life. Snapshots are
+ * safe to share between threads.
+ * </p>
+ * <p>
+ * Comments and processing instructions are kept; document types are dropped, and entity references and
+ * document fragments are replaced with their content.
+ * </p>
+ */
+public final class DomSnapshot {
+
+    static final int NONE = -1;
+    private static final int DOCUMENT = 0;
+
+    // Structure, by node number
+    byte[] types = new byte[64];
+    int[] parents = new int[64];
+    int[] firstChildren = new int[64];
+    int[] lastChildren = new int[64];
+    int[] nextSiblings = new int[64];
+    int[] previousSiblings = new int[64];
+    int[] lastDescendants = new int[64];
+
+    // Names and values, as indexes into the string table
+    int[] names = new int[64];
+    int[] namespaces = new int[64];
+    int[] localNames = new int[64];
+    int[] values = new int[64];
+
+    // Text, as slices of the text buffer, which for an element cover the text of all its descendants
+    int[] textStarts = new int[64];
+    int[] textEnds = new int[64];
+    char[] text = new char[1024];
+
+    // Attributes, as ranges of the attribute arrays
+    int[] attributeStarts = new int[64];
+    int[] attributeEnds = new int[64];
+    int[] attributeOwners = new int[64];
+    int[] attributeNames = new int[64];
+    int[] attributeNamespaces = new int[64];
+    int[] attributeLocalNames = new int[64];
+    int[] attributeValues = new int[64];
+    final BitSet idAttributes = new BitSet();
+
+    String[] strings;
+    String xmlVersion;
+    String xmlEncoding;
+    String inputEncoding;
+    boolean xmlStandalone;
+    String documentURI;
+
+    private int size;
+    private int attributeCount;
+    private int textLength;
+    private Map<String, Integer> stringTable = new HashMap<>();
+
+    private AtomicReferenceArray<SnapshotNode> nodes;
+    private AtomicReferenceArray<SnapshotAttr> attributes;
+    private volatile ElementIndex index;
+
+    private DomSnapshot() {}
+
+    /**
+     * Takes a snapshot of the document that owns the specified element, and returns the copy of that element.
+     * The whole document is copied, so the copy keeps its ancestors and siblings.
+     */
+    public static Element freeze(Element element) {
+        Node top = element;
+        while (top.getParentNode() != null) top = top.getParentNode();
+        DomSnapshot snapshot = new DomSnapshot();
+        return (Element) snapshot.node(snapshot.copy(top, element));
+    }
+
+    /**
+     * Takes a snapshot of the specified document.
+     */
+    public static Document freeze(Document document) {
+        DomSnapshot snapshot = new DomSnapshot();
+        snapshot.copy(document, document);
+        return snapshot.document();
+    }
+
+    /**
+     * Tells whether the node belongs to a snapshot.
+     */
+    public static boolean isFrozen(Node node) {
+        return node instanceof SnapshotNode || node instanceof SnapshotAttr;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Document document() {
+        return (Document) node(DOCUMENT);
+    }
+
+    SnapshotNode node(int number) {
+        if (number == NONE) return null;
+        SnapshotNode node = nodes.get(number);
+        if (node != null) return node;
+        nodes.compareAndSet(number, null, createNode(number));
+        return nodes.get(number);
+    }
+
+    SnapshotAttr attribute(int number) {
+        SnapshotAttr attribute = attributes.get(number);
+        if (attribute != null) return attribute;
+        attributes.compareAndSet(number, null, new SnapshotAttr(this, number));
+        return attributes.get(number);
+    }
+
+    String string(int index) {
+        return index == NONE ? null : strings[index];
+    }
+
+    /**
+     * Finds the attribute of an element with the specified qualified name.
+     */
+    int attributeNamed(int element, String name) {
+        for (int attribute = attributeStarts[element]; attribute < attributeEnds[element]; attribute++) {
+            if (strings[attributeNames[attribute]].equals(name)) return attribute;
+        }
+        return NONE;
+    }
+
+    int ownerOf(int attribute) {
+        return attributeOwners[attribute];
+    }
+
+    boolean isElement(int node) {
+        return node != NONE && types[node] == Node.ELEMENT_NODE;
+    }
+
+    /**
+     * Finds the namespace bound to a prefix, or the default namespace for a <code>null</code> prefix,
+     * in scope of an element. Follows the lookup algorithm of DOM Level 3.
+     */
+    String lookupNamespaceURI(int element, String prefix) {
+        for (int node = element; isElement(node); node = parents[node]) {
+            String namespace = string(namespaces[node]);
+            if (namespace != null && equal(prefix, prefixOf(node))) return namespace;
+            for (int attribute = attributeStarts[node]; attribute < attributeEnds[node]; attribute++) {
+                String declared = declaredPrefix(attribute);
+                if (declared != null && declared.equals(prefix != null ? prefix : "")) {
+                    return declaredNamespace(attribute);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds a prefix bound to a namespace in scope of an element. Follows the lookup algorithm of DOM Level 3.
+     */
+    String lookupPrefix(int element, String namespaceURI) {
+        if (namespaceURI == null) return null;
+        for (int node = element; isElement(node); node = parents[node]) {
+            String prefix = prefixOf(node);
+            if (prefix != null && namespaceURI.equals(string(namespaces[node]))
+                    && namespaceURI.equals(lookupNamespaceURI(element, prefix))) {
+                return prefix;
+            }
+            for (int attribute = attributeStarts[node]; attribute < attributeEnds[node]; attribute++) {
+                String declared = declaredPrefix(attribute);
+                if (declared != null && !declared.isEmpty() && namespaceURI.equals(declaredNamespace(attribute))
+                        && namespaceURI.equals(lookupNamespaceURI(element, declared))) {
+                    return declared;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tells whether a namespace is the default namespace in scope of an element. Follows the lookup algorithm
+     * of DOM Level 3.
+     */
+    boolean isDefaultNamespace(int element, String namespaceURI) {
+        for (int node = element; isElement(node); node = parents[node]) {
+            if (prefixOf(node) == null) return equal(namespaceURI, string(namespaces[node]));
+            for (int attribute = attributeStarts[node]; attribute < attributeEnds[node]; attribute++) {
+                if ("".equals(declaredPrefix(attribute))) return equal(namespaceURI, declaredNamespace(attribute));
+            }
+        }
+        return false;
+    }
+
+    private String prefixOf(int element) {
+        return SnapshotElement.prefixOf(strings[names[element]], string(localNames[element]));
+    }
+
+    // The prefix a namespace declaration binds, empty for the default namespace, or null if it declares none
+    private String declaredPrefix(int attribute) {
+        String name = strings[attributeNames[attribute]];
+        if (name.equals("xmlns")) return "";
+        return name.startsWith("xmlns:") ? name.substring("xmlns:".length()) : null;
+    }
+
+    private String declaredNamespace(int attribute) {
+        String namespace = strings[attributeValues[attribute]];
+        return namespace.isEmpty() ? null : namespace;
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    CharSequence textOf(int node) {
+        return CharBuffer.wrap(text, textStarts[node], textEnds[node] - textStarts[node]);
+    }
+
+    String textContentOf(int node) {
+        return new String(text, textStarts[node], textEnds[node] - textStarts[node]);
+    }
+
+    ElementIndex index() {
+        ElementIndex index = this.index;
+        if (index != null) return index;
+        synchronized (this) {
+            if (this.index == null) this.index = ElementIndex.build(this);
+            return this.index;
+        }
+    }
+
+    private SnapshotNode createNode(int number) {
+        switch (types[number]) {
+            case Node.DOCUMENT_NODE:
+                return new SnapshotDocument(this, number);
+            case Node.ELEMENT_NODE:
+                return new SnapshotElement(this, number);
+            case Node.TEXT_NODE:
+                return new SnapshotCharacterData.Text(this, number);
+            case Node.CDATA_SECTION_NODE:
+                return new SnapshotCharacterData.CDATASection(this, number);
+            case Node.COMMENT_NODE:
+                return new SnapshotCharacterData.Comment(this, number);
+            default:
+                return new SnapshotProcessingInstruction(this, number);
+        }
+    }
+
+    /**
+     * Copies the tree under the specified top node, and returns the number of the copy of the wanted node.
+     */
+    private int copy(Node top, Node wanted) {
+        add(Node.DOCUMENT_NODE, NONE);
+        int found = top == wanted ? DOCUMENT : NONE;
+
+        Node first;
+        int topParent;
+        if (top instanceof Document) {
+            copyProperties((Document) top);
+            first = top.getFirstChild();
+            topParent = DOCUMENT;
+        } else {
+            // A detached tree is not part of the document
+            first = top;
+            topParent = NONE;
+        }
+
+        Node[] openNodes = new Node[16];
+        int[] openNumbers = new int[16];
+        int depth = 0;
+        Node node = first;
+        while (node != null) {
+            int parent = depth == 0 ? topParent : openNumbers[depth - 1];
+            int number = copyNode(node, parent);
+            if (node == wanted) found = number;
+
+            boolean container = node.getNodeType() == Node.ELEMENT_NODE
+                    || node.getNodeType() == Node.ENTITY_REFERENCE_NODE || node.getNodeType() == Node.DOCUMENT_FRAGMENT_NODE;
+            if (container && node.getFirstChild() != null) {
+                if (depth == openNodes.length) {
+                    openNodes = Arrays.copyOf(openNodes, 2 * depth);
+                    openNumbers = Arrays.copyOf(openNumbers, 2 * depth);
+                }
+                openNodes[depth] = node;
+                // Content of entity references and fragments goes straight into the parent
+                openNumbers[depth++] = number != NONE ? number : parent;
+                node = node.getFirstChild();
+                continue;
+            }
+            if (node.getNodeType() == Node.ELEMENT_NODE) close(number);
+
+            while (node.getNextSibling() == null && depth > 0) {
+                node = openNodes[--depth];
+                if (node.getNodeType() == Node.ELEMENT_NODE) close(openNumbers[depth]);
+            }
+            node = node.getNextSibling();
+        }
+        close(DOCUMENT);
+        trim();
+        return found;
+    }
+
+    private int copyNode(Node node, int parent) {
+        switch (node.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                return copyElement((Element) node, parent);
+            case Node.TEXT_NODE:
+            case Node.CDATA_SECTION_NODE:
+                int text = add(node.getNodeType(), parent);
+                append(node.getNodeValue());
+                textEnds[text] = textLength;
+                return text;
+            case Node.COMMENT_NODE:
+                int comment = add(Node.COMMENT_NODE, parent);
+                values[comment] = intern(node.getNodeValue());
+                return comment;
+            case Node.PROCESSING_INSTRUCTION_NODE:
+                int instruction = add(Node.PROCESSING_INSTRUCTION_NODE, parent);
+                names[instruction] = intern(node.getNodeName());
+                values[instruction] = intern(node.getNodeValue());
+                return instruction;
+            default:
+                return NONE;
+        }
+    }
+
+    private int copyElement(Element element, int parent) {
+        int number = add(Node.ELEMENT_NODE, parent);
+        names[number] = intern(element.getNodeName());
+        namespaces[number] = intern(element.getNamespaceURI());
+        localNames[number] = intern(element.getLocalName());
+
+        NamedNodeMap attributes = element.getAttributes();
+        attributeStarts[number] = attributeCount;
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attribute = (Attr) attributes.item(i);
+            if (attributeCount == attributeNames.length) growAttributes();
+            attributeOwners[attributeCount] = number;
+            attributeNames[attributeCount] = intern(attribute.getName());
+            attributeNamespaces[attributeCount] = intern(attribute.getNamespaceURI());
+            attributeLocalNames[attributeCount] = intern(attribute.getLocalName());
+            attributeValues[attributeCount] = intern(attribute.getValue());
+            if (attribute.isId()) idAttributes.set(attributeCount);
+            attributeCount++;
+        }
+        attributeEnds[number] = attributeCount;
+        return number;
+    }
+
+    private void copyProperties(Document document) {
+        xmlVersion = document.getXmlVersion();
+        xmlEncoding = document.getXmlEncoding();
+        inputEncoding = document.getInputEncoding();
+        xmlStandalone = document.getXmlStandalone();
+        documentURI = document.getDocumentURI();
+    }
+
+    private int add(short type, int parent) {
+        if (size == types.length) growNodes();
+        int number = size++;
+        types[number] = (byte) type;
+        parents[number] = parent;
+        firstChildren[number] = NONE;
+        lastChildren[number] = NONE;
+        nextSiblings[number] = NONE;
+        previousSiblings[number] = NONE;
+        lastDescendants[number] = number;
+        names[number] = NONE;
+        namespaces[number] = NONE;
+        localNames[number] = NONE;
+        values[number] = NONE;
+        textStarts[number] = textLength;
+        textEnds[number] = textLength;
+        attributeStarts[number] = attributeCount;
+        attributeEnds[number] = attributeCount;
+
+        if (parent != NONE) {
+            int previous = lastChildren[parent];
+            if (previous == NONE) {
+                firstChildren[parent] = number;
+            } else {
+                nextSiblings[previous] = number;
+                previousSiblings[number] = previous;
+            }
+            lastChildren[parent] = number;
+        }
+        return number;
+    }
+
+    private void close(int number) {
+        lastDescendants[number] = size - 1;
+        textEnds[number] = textLength;
+    }
+
+    private void append(String data) {
+        if (textLength + data.length() > text.length) {
+            text = Arrays.copyOf(text, Math.max(textLength + data.length(), 2 * text.length));
+        }
+        data.getChars(0, data.length(), text, textLength);
+        textLength += data.length();
+    }
+
+    private int intern(String value) {
+        if (value == null) return NONE;
+        Integer index = stringTable.get(value);
+        if (index == null) {
+            index = stringTable.size();
+            stringTable.put(value, index);
+        }
+        return index;
+    }
+
+    private void growNodes() {
+        int capacity = 2 * types.length;
+        types = Arrays.copyOf(types, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        lastChildren = Arrays.copyOf(lastChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        previousSiblings = Arrays.copyOf(previousSiblings, capacity);
+        lastDescendants = Arrays.copyOf(lastDescendants, capacity);
+        names = Arrays.copyOf(names, capacity);
+        namespaces = Arrays.copyOf(namespaces, capacity);
+        localNames = Arrays.copyOf(localNames, capacity);
+        values = Arrays.copyOf(values, capacity);
+        textStarts = Arrays.copyOf(textStarts, capacity);
+        textEnds = Arrays.copyOf(textEnds, capacity);
+        attributeStarts = Arrays.copyOf(attributeStarts, capacity);
+        attributeEnds = Arrays.copyOf(attributeEnds, capacity);
+    }
+
+    private void growAttributes() {
+        int capacity = 2 * attributeNames.length;
+        attributeOwners = Arrays.copyOf(attributeOwners, capacity);
+        attributeNames = Arrays.copyOf(attributeNames, capacity);
+        attributeNamespaces = Arrays.copyOf(attributeNamespaces, capacity);
+        attributeLocalNames = Arrays.copyOf(attributeLocalNames, capacity);
+        attributeValues = Arrays.copyOf(attributeValues, capacity);
+    }
+
+    private void trim() {
+        types = Arrays.copyOf(types, size);
+        parents = Arrays.copyOf(parents, size);
+        firstChildren = Arrays.copyOf(firstChildren, size);
+        lastChildren = Arrays.copyOf(lastChildren, size);
+        nextSiblings = Arrays.copyOf(nextSiblings, size);
+        previousSiblings = Arrays.copyOf(previousSiblings, size);
+        lastDescendants = Arrays.copyOf(lastDescendants, size);
+        names = Arrays.copyOf(names, size);
+        namespaces = Arrays.copyOf(namespaces, size);
+        localNames = Arrays.copyOf(localNames, size);
+        values = Arrays.copyOf(values, size);
+        textStarts = Arrays.copyOf(textStarts, size);
+        textEnds = Arrays.copyOf(textEnds, size);
+        attributeStarts = Arrays.copyOf(attributeStarts, size);
+        attributeEnds = Arrays.copyOf(attributeEnds, size);
+
+        attributeOwners = Arrays.copyOf(attributeOwners, attributeCount);
+        attributeNames = Arrays.copyOf(attributeNames, attributeCount);
+        attributeNamespaces = Arrays.copyOf(attributeNamespaces, attributeCount);
+        attributeLocalNames = Arrays.copyOf(attributeLocalNames, attributeCount);
+        attributeValues = Arrays.copyOf(attributeValues, attributeCount);
+        text = Arrays.copyOf(text, textLength);
+
+        strings = new String[stringTable.size()];
+        for (Map.Entry<String, Integer> entry : stringTable.entrySet()) strings[entry.getValue()] = entry.getKey();
+        stringTable = null;
+
+        nodes = new AtomicReferenceArray<>(size);
+        attributes = new AtomicReferenceArray<>(attributeCount);
+    }
+}
@@ -0,0 +1,41 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+
+/**
+ * Matches a feature of the elements of a {@link NodeModel}, describing itself and its mismatches
+ * the way a {@link org.hamcrest.FeatureMatcher} does. Only objects of the element type of the model are matched.
+ */
+abstract class ElementFeatureMatcher<E, U> extends TypeSafeDiagnosingMatcher<E> {
+    protected final NodeModel<E> model;
+    private final Matcher<? super U> subMatcher;
+    private final String featureDescription;
+    private final String featureName;
+
+    protected ElementFeatureMatcher(NodeModel<E> model, Matcher<? super U> subMatcher, String featureDescription, String featureName) {
+        super(model.elementType());
+        this.model = model;
+        this.subMatcher = subMatcher;
+        this.featureDescription = featureDescription;
+        this.featureName = featureName;
+    }
+
+    protected abstract U featureValueOf(E actual);
+
+    @Override
+    protected boolean matchesSafely(E actual, Description mismatchDescription) {
+        U featureValue = featureValueOf(actual);
+        if (!subMatcher.matches(featureValue)) {
+            mismatchDescription.appendText(featureName).appendText(" ");
+            subMatcher.describeMismatch(featureValue, mismatchDescription);
+            return false;
+        }
+        return true;
+    }
+
+    public void describeTo(Description description) {
+        description.appendText(featureDescription).appendText(" ").appendDescriptionOf(subMatcher);
+    }
+}
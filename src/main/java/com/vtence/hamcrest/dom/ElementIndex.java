@@ -0,0 +1,458 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import se.fishtank.css.selectors.selector.AttributeSelector;
+import se.fishtank.css.selectors.selector.AttributeSelector.Match;
+import se.fishtank.css.selectors.selector.LocalNameSelector;
+import se.fishtank.css.selectors.selector.Selector;
+import se.fishtank.css.selectors.selector.SimpleSelector;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.regex.Pattern;
+
+/**
+ * Lookup tables of the elements of a document by id, class and tag name, in document order.
+ * <p>
+ * Elements are numbered in document order as the index is built. Lookup tables, along with the parent and the last
+ * descendant of each element, are kept as sorted arrays of these ordinals, so narrowing down candidates to a subtree,
+ * intersecting them and merging them work on primitive arrays, without hashing elements.
+ * </p>
+ * <p>
+ * The nodes of a {@link DomSnapshot} are already numbered in document order, so the ordinals of its elements are
+ * their node numbers. Its index is built straight from the snapshot arrays and shares their parent and last
+ * descendant numbers, without creating a view of each element. Other nodes, such as text, get ordinals of their own,
+ * which are never candidates.
+ * </p>
+ * <p>
+ * {@link DomSnapshot}s cannot change, so they are always indexed: their index is built lazily the first time it is
+ * requested, and kept for the whole life of the snapshot. An index does not follow changes to a live document, so
+ * live documents are only indexed when asked to, with {@link Selector#index(org.w3c.dom.Document)}. Their index
+ * is kept as user data of the document, so it lives exactly as long as the document does, until it is discarded
+ * with {@link Selector#unindex(org.w3c.dom.Document)}. Indexing never registers mutation listeners, which would
+ * slow down every change to the document and, in the JDK's DOM, count listeners in global state.
+ * </p>
+ * <p>
+ * An index never changes once built, so it can be read from any number of threads. Building or discarding
+ * the index of a live document, or looking it up, locks that document only, as DOM user data is not thread-safe.
+ * </p>
+ */
+class ElementIndex {
+
+    static final int NONE = -1;
+
+    private static final String KEY = ElementIndex.class.getName();
+    private static final Pattern WHITESPACE = Pattern.compile("[ \\t\\r\\n\\f]+");
+    private static final Ordinals NO_ELEMENTS = new Ordinals();
+
+    // The elements of a live document, by ordinal, or the snapshot that numbers them
+    private final List<Element> elements;
+    private final Map<Element, Integer> ordinals;
+    private final DomSnapshot snapshot;
+    private int[] parents = new int[16];
+    private int[] lastDescendants = new int[16];
+    private final Map<String, Ordinals> ids = new HashMap<>();
+    private final Map<String, Ordinals> classes = new HashMap<>();
+    private final Map<String, Ordinals> tags = new HashMap<>();
+
+    private ElementIndex(List<Element> elements, Map<Element, Integer> ordinals, DomSnapshot snapshot) {
+        this.elements = elements;
+        this.ordinals = ordinals;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Returns the index of the specified document, building it if needed for a snapshot,
+     * or <code>null</code> if the document is not indexed.
+     */
+    public static ElementIndex of(Document document) {
+        if (document instanceof SnapshotDocument) return ((SnapshotDocument) document).snapshot.index();
+        synchronized (document) {
+            return (ElementIndex) document.getUserData(KEY);
+        }
+    }
+
+    /**
+     * Indexes a live document, unless it is already indexed. The document must not change while it is indexed.
+     */
+    public static void keep(Document document) {
+        if (document instanceof SnapshotDocument) return;
+        synchronized (document) {
+            if (document.getUserData(KEY) == null) document.setUserData(KEY, build(document), null);
+        }
+    }
+
+    /**
+     * Discards the index of a live document, if any.
+     */
+    public static void discard(Document document) {
+        if (document instanceof SnapshotDocument) return;
+        synchronized (document) {
+            document.setUserData(KEY, null, null);
+        }
+    }
+
+    /**
+     * Builds an index of a document that never changes.
+     */
+    static ElementIndex build(Document document) {
+        ElementIndex index = new ElementIndex(new ArrayList<>(), new IdentityHashMap<>(), null);
+        index.build(document.getDocumentElement());
+        return index;
+    }
+
+    /**
+     * Builds the index of a snapshot, numbering its elements with their node numbers.
+     */
+    static ElementIndex build(DomSnapshot snapshot) {
+        ElementIndex index = new ElementIndex(null, null, snapshot);
+        index.build();
+        return index;
+    }
+
+    /**
+     * Returns the elements, in document order, that are candidates for the subjects of a selector within the subtree
+     * of the specified root element, or <code>null</code> if the index cannot narrow down the candidates.
+     * <p>
+     * Candidates are seeded from the most selective id, class or tag name found in the compound selector that
+     * represents the subjects of each selector in the group. They still have to be matched against the selector.
+     * </p>
+     */
+    public List<Element> candidates(Element root, CompiledSelector selector) {
+        int rootOrdinal = ordinalOf(root);
+        if (rootOrdinal == NONE) return null;
+
+        List<Ordinals> seeds = new ArrayList<>();
+        for (Selector each : selector.group()) {
+            Ordinals seed = seed(each.compoundSelector.simpleSelectors);
+            if (seed == null) return null;
+            seeds.add(seed);
+        }
+        return seeds.size() == 1 ? within(rootOrdinal, seeds.get(0)) : merge(rootOrdinal, seeds);
+    }
+
+    /**
+     * Returns the elements, in document order, that have the specified key within the subtree of the specified root
+     * element, or <code>null</code> if the index cannot look up elements by that key.
+     * Only keys of tag names and ids can be looked up.
+     */
+    public List<Element> candidates(Element root, ElementKey key) {
+        int rootOrdinal = ordinalOf(root);
+        if (rootOrdinal == NONE) return null;
+        if (key.isTag()) return within(rootOrdinal, lookup(tags, tagKey(key.value)));
+        if (key.attribute.equals("id")) return within(rootOrdinal, lookup(ids, key.value));
+        return null;
+    }
+
+    /**
+     * Returns the ordinals, in document order, of the elements that have the most selective id, class or tag name
+     * found in a compound selector, or <code>null</code> if the compound selector has none.
+     * <p>
+     * Those ordinals are intersected with the ordinals of keys that have many more elements, which is cheap.
+     * Keys with about as many elements would cost more to intersect than matching the few elements they remove.
+     * </p>
+     */
+    Ordinals seed(List<SimpleSelector> compound) {
+        List<Ordinals> keys = new ArrayList<>();
+        for (SimpleSelector simple : compound) {
+            if (simple instanceof AttributeSelector) {
+                AttributeSelector attribute = (AttributeSelector) simple;
+                if (attribute.match == Match.EQUALS && attribute.name.equals("id")) {
+                    keys.add(lookup(ids, attribute.value));
+                } else if (attribute.match == Match.INCLUDES && attribute.name.equals("class") && !attribute.value.isEmpty()) {
+                    keys.add(lookup(classes, attribute.value));
+                }
+            } else if (simple instanceof LocalNameSelector) {
+                String tagName = ((LocalNameSelector) simple).name;
+                if (!tagName.equals("*")) keys.add(lookup(tags, tagKey(tagName)));
+            }
+        }
+        if (keys.isEmpty()) return null;
+
+        Ordinals seed = keys.get(0);
+        for (Ordinals key : keys) {
+            if (key.size < seed.size) seed = key;
+        }
+        Ordinals smallest = seed;
+        for (Ordinals key : keys) {
+            if (key.size > 8 * smallest.size) seed = seed.intersect(key);
+        }
+        return seed;
+    }
+
+    private List<Element> within(int rootOrdinal, Ordinals seed) {
+        int from = seed.firstAtOrAfter(rootOrdinal, 0);
+        int to = seed.firstAtOrAfter(lastDescendants[rootOrdinal] + 1, from);
+        return new Elements(seed.values, from, to);
+    }
+
+    // The union of the seeds, in document order and without duplicates, marking ordinals of the subtree in a bitset
+    private List<Element> merge(int rootOrdinal, List<Ordinals> seeds) {
+        int last = lastDescendants[rootOrdinal];
+        BitSet merged = new BitSet(last - rootOrdinal + 1);
+        for (Ordinals seed : seeds) {
+            for (int i = seed.firstAtOrAfter(rootOrdinal, 0); i < seed.size && seed.values[i] <= last; i++) {
+                merged.set(seed.values[i] - rootOrdinal);
+            }
+        }
+
+        int[] candidates = new int[merged.cardinality()];
+        int count = 0;
+        for (int bit = merged.nextSetBit(0); bit >= 0; bit = merged.nextSetBit(bit + 1)) {
+            candidates[count++] = rootOrdinal + bit;
+        }
+        return new Elements(candidates, 0, count);
+    }
+
+    public List<Element> withId(String id) {
+        return all(lookup(ids, id));
+    }
+
+    public List<Element> withClass(String className) {
+        return all(lookup(classes, className));
+    }
+
+    public List<Element> withTag(String tagName) {
+        return all(lookup(tags, tagKey(tagName)));
+    }
+
+    private List<Element> all(Ordinals entry) {
+        return new Elements(entry.values, 0, entry.size);
+    }
+
+    /**
+     * Returns the number of ordinals in the subtree of the specified root element, or <code>-1</code> if the
+     * root element is not indexed. In a snapshot, nodes other than elements have ordinals too.
+     */
+    public int size(Element root) {
+        int rootOrdinal = ordinalOf(root);
+        return rootOrdinal != NONE ? lastDescendants[rootOrdinal] - rootOrdinal + 1 : -1;
+    }
+
+    /**
+     * Returns the position of an element in document order, or {@link #NONE} if the element is not indexed.
+     * Elements of live documents are looked up in an identity map, which is only meant for root elements,
+     * once per selection.
+     */
+    int ordinalOf(Element element) {
+        if (snapshot != null) return isPartOfSnapshot(element) ? ((SnapshotElement) element).number : NONE;
+        Integer ordinal = ordinals.get(element);
+        return ordinal != null ? ordinal : NONE;
+    }
+
+    private boolean isPartOfSnapshot(Element element) {
+        return element instanceof SnapshotElement && ((SnapshotElement) element).snapshot == snapshot;
+    }
+
+    /**
+     * Tells whether the node at an ordinal is an element. Only snapshots give ordinals to other nodes.
+     */
+    boolean isElement(int ordinal) {
+        return snapshot == null || snapshot.types[ordinal] == Node.ELEMENT_NODE;
+    }
+
+    Element element(int ordinal) {
+        return snapshot != null ? (Element) snapshot.node(ordinal) : elements.get(ordinal);
+    }
+
+    /**
+     * Returns the ordinal of the parent node, or {@link #NONE} for the document element and the other nodes
+     * of the document.
+     */
+    int parent(int ordinal) {
+        int parent = parents[ordinal];
+        return parent != NONE && isElement(parent) ? parent : NONE;
+    }
+
+    /**
+     * Returns the ordinal of the last element in the subtree of an element, which is the element itself if it has
+     * no child element. The elements of the subtree are numbered from the element to its last descendant.
+     */
+    int lastDescendant(int ordinal) {
+        return lastDescendants[ordinal];
+    }
+
+    // The ordinals of the elements on the path to the current node are kept on a stack, so that finding the parent
+    // or closing an element never looks up the identity map, which only serves to find root elements
+    private void build(Element root) {
+        int[] path = new int[16];
+        int depth = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                if (depth == path.length) path = Arrays.copyOf(path, 2 * depth);
+                path[depth] = add((Element) node, depth > 0 ? path[depth - 1] : NONE);
+                depth++;
+            }
+            if (node.getFirstChild() != null) {
+                node = node.getFirstChild();
+                continue;
+            }
+            while (node != null) {
+                if (node.getNodeType() == Node.ELEMENT_NODE) lastDescendants[path[--depth]] = elements.size() - 1;
+                if (node == root) {
+                    node = null;
+                } else if (node.getNextSibling() != null) {
+                    node = node.getNextSibling();
+                    break;
+                } else {
+                    node = node.getParentNode();
+                }
+            }
+        }
+    }
+
+    private int add(Element element, int parent) {
+        int ordinal = elements.size();
+        elements.add(element);
+        ordinals.put(element, ordinal);
+        if (ordinal == parents.length) {
+            parents = Arrays.copyOf(parents, 2 * ordinal);
+            lastDescendants = Arrays.copyOf(lastDescendants, 2 * ordinal);
+        }
+        parents[ordinal] = parent;
+
+        if (element.hasAttribute("id")) entry(ids, element.getAttribute("id")).add(ordinal);
+        addClasses(ordinal, WHITESPACE.split(element.getAttribute("class")));
+        entry(tags, tagKey(element.getNodeName())).add(ordinal);
+        return ordinal;
+    }
+
+    // Snapshots intern their strings, so each distinct class list is split, and each tag name keyed, once
+    private void build() {
+        parents = snapshot.parents;
+        lastDescendants = snapshot.lastDescendants;
+        String[][] classNames = new String[snapshot.strings.length][];
+        String[] tagKeys = new String[snapshot.strings.length];
+        for (int number = 0; number < snapshot.size(); number++) {
+            if (snapshot.types[number] != Node.ELEMENT_NODE) continue;
+            int id = snapshot.attributeNamed(number, "id");
+            if (id != NONE) entry(ids, snapshot.strings[snapshot.attributeValues[id]]).add(number);
+            int classList = snapshot.attributeNamed(number, "class");
+            if (classList != NONE) {
+                int value = snapshot.attributeValues[classList];
+                if (classNames[value] == null) classNames[value] = WHITESPACE.split(snapshot.strings[value]);
+                addClasses(number, classNames[value]);
+            }
+            int name = snapshot.names[number];
+            if (tagKeys[name] == null) tagKeys[name] = tagKey(snapshot.strings[name]);
+            entry(tags, tagKeys[name]).add(number);
+        }
+    }
+
+    private void addClasses(int ordinal, String[] classNames) {
+        for (String className : classNames) {
+            if (className.isEmpty()) continue;
+            Ordinals entry = entry(classes, className);
+            // Guard against classes repeated on the same element
+            if (entry.size == 0 || entry.values[entry.size - 1] != ordinal) entry.add(ordinal);
+        }
+    }
+
+    private static Ordinals entry(Map<String, Ordinals> table, String key) {
+        Ordinals entry = table.get(key);
+        if (entry == null) {
+            entry = new Ordinals();
+            table.put(key, entry);
+        }
+        return entry;
+    }
+
+    private static Ordinals lookup(Map<String, Ordinals> table, String key) {
+        Ordinals entry = table.get(key);
+        return entry != null ? entry : NO_ELEMENTS;
+    }
+
+    // Tag names are compared ignoring case, the same way String#equalsIgnoreCase does
+    static String tagKey(String tagName) {
+        char[] key = new char[tagName.length()];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = Character.toLowerCase(Character.toUpperCase(tagName.charAt(i)));
+        }
+        return new String(key);
+    }
+
+    /**
+     * A growable array of element ordinals, in increasing order.
+     */
+    static final class Ordinals {
+        int[] values;
+        int size;
+
+        Ordinals() {
+            this(new int[4], 0);
+        }
+
+        private Ordinals(int[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        void add(int ordinal) {
+            if (size == values.length) values = Arrays.copyOf(values, 2 * size);
+            values[size++] = ordinal;
+        }
+
+        /**
+         * Returns the position of the first ordinal at or after the specified one, searching from a position on.
+         */
+        int firstAtOrAfter(int ordinal, int from) {
+            int low = from;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle] < ordinal) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+
+        /**
+         * Returns the ordinals found in both arrays. The larger array is searched from the last ordinal found on,
+         * so intersecting with a much larger array costs little more than the size of this one.
+         */
+        Ordinals intersect(Ordinals other) {
+            int[] common = new int[size];
+            int count = 0;
+            int position = 0;
+            for (int i = 0; i < size && position < other.size; i++) {
+                position = other.firstAtOrAfter(values[i], position);
+                if (position < other.size && other.values[position] == values[i]) common[count++] = values[i];
+            }
+            return new Ordinals(common, count);
+        }
+    }
+
+    /**
+     * The elements at a range of ordinals, read without copying them.
+     */
+    private class Elements extends AbstractList<Element> implements RandomAccess {
+        private final int[] numbers;
+        private final int from;
+        private final int to;
+
+        Elements(int[] numbers, int from, int to) {
+            this.numbers = numbers;
+            this.from = from;
+            this.to = to;
+        }
+
+        public Element get(int index) {
+            if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            return element(numbers[from + index]);
+        }
+
+        public int size() {
+            return to - from;
+        }
+    }
+}
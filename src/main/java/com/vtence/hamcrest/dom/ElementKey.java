@@ -0,0 +1,43 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+
+/**
+ * What an element must have to be matched by some matcher: either a tag name, compared ignoring case,
+ * or the exact value of an attribute.
+ * <p>
+ * Matchers of element collections use keys to try each element against the few matchers it could match,
+ * instead of against all of them.
+ * </p>
+ */
+final class ElementKey {
+    public final String attribute;
+    public final String value;
+
+    private ElementKey(String attribute, String value) {
+        this.attribute = attribute;
+        this.value = value;
+    }
+
+    public static ElementKey tag(String tagName) {
+        return new ElementKey(null, ElementIndex.tagKey(tagName));
+    }
+
+    public static ElementKey attribute(String name, String value) {
+        return new ElementKey(name, value);
+    }
+
+    /**
+     * Returns the key of the elements the specified matcher can match, or <code>null</code> if it could match any element.
+     */
+    public static ElementKey of(Matcher<?> matcher) {
+        if (matcher instanceof HasTag) return ((HasTag<?>) matcher).key();
+        if (matcher instanceof HasAttributeValue) return ((HasAttributeValue<?>) matcher).key();
+        if (matcher instanceof AnElement) return ((AnElement) matcher).key();
+        return null;
+    }
+
+    public boolean isTag() {
+        return attribute == null;
+    }
+}
@@ -0,0 +1,120 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+import org.w3c.dom.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that every element of a collection is matched by a matcher, like hamcrest's <code>Every</code>, but splitting
+ * large collections across the common fork join pool.
+ * <p>
+ * Only nodes of a {@link DomSnapshot} are matched in parallel, since live documents, such as Xerces documents, update
+ * internal caches as they are read. Collections holding any other element, collections smaller than the threshold,
+ * and all collections when the pool has a single worker, are matched in the calling thread. Larger collections of
+ * snapshot nodes are split into ranges matched in parallel. Ranges past a failing element are skipped, and the first
+ * failing element in the order of the collection is reported, whatever the order in which ranges are matched.
+ * </p>
+ */
+public class EveryElement<T> extends TypeSafeDiagnosingMatcher<Iterable<T>> {
+
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    private final Matcher<? super T> elementMatcher;
+    private final int threshold;
+
+    public EveryElement(Matcher<? super T> elementMatcher, int threshold) {
+        super(Iterable.class);
+        if (threshold < 1) throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        this.elementMatcher = elementMatcher;
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected boolean matchesSafely(Iterable<T> collection, Description mismatchDescription) {
+        List<T> elements = new ArrayList<>();
+        for (T element : collection) elements.add(element);
+
+        int failing = firstFailing(elements);
+        if (failing == elements.size()) return true;
+        mismatchDescription.appendText("an item ");
+        elementMatcher.describeMismatch(elements.get(failing), mismatchDescription);
+        return false;
+    }
+
+    public void describeTo(Description description) {
+        description.appendText("every item is ").appendDescriptionOf(elementMatcher);
+    }
+
+    // Returns the position of the first element that fails to match, or the size of the list if all match
+    private int firstFailing(List<T> elements) {
+        AtomicInteger failing = new AtomicInteger(elements.size());
+        if (elements.size() < threshold || ForkJoinPool.getCommonPoolParallelism() < 2 || !frozen(elements)) {
+            new Range<>(elementMatcher, elements, 0, elements.size(), 0, failing).compute();
+        } else {
+            int grain = Math.max(threshold / 4, elements.size() / (4 * ForkJoinPool.getCommonPoolParallelism()));
+            ForkJoinPool.commonPool().invoke(new Range<>(elementMatcher, elements, 0, elements.size(), grain, failing));
+        }
+        return failing.get();
+    }
+
+    private static boolean frozen(List<?> elements) {
+        for (Object element : elements) {
+            if (!(element instanceof Node) || !DomSnapshot.isFrozen((Node) element)) return false;
+        }
+        return true;
+    }
+
+    public static <T> Matcher<Iterable<T>> everyElement(Matcher<? super T> elementMatcher) {
+        return everyElement(elementMatcher, DEFAULT_THRESHOLD);
+    }
+
+    public static <T> Matcher<Iterable<T>> everyElement(Matcher<? super T> elementMatcher, int threshold) {
+        return new EveryElement<>(elementMatcher, threshold);
+    }
+
+    /**
+     * Matches a range of elements, splitting it further while it is larger than the grain.
+     */
+    private static class Range<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Matcher<? super T> elementMatcher;
+        private final List<T> elements;
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final AtomicInteger failing;
+
+        Range(Matcher<? super T> elementMatcher, List<T> elements, int from, int to, int grain, AtomicInteger failing) {
+            this.elementMatcher = elementMatcher;
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.failing = failing;
+        }
+
+        protected void compute() {
+            if (to - from > grain && grain > 0) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Range<>(elementMatcher, elements, from, middle, grain, failing),
+                        new Range<>(elementMatcher, elements, middle, to, grain, failing));
+                return;
+            }
+            // Stop as soon as an earlier element is known to fail
+            for (int i = from; i < to && i < failing.get(); i++) {
+                if (!elementMatcher.matches(elements.get(i))) {
+                    failing.accumulateAndGet(i, Math::min);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.w3c.dom.Element;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks that every document of a collection, given by its document element, is matched by a matcher,
+ * evaluating documents in parallel.
+ * <p>
+ * Documents are read from the collection in the calling thread, and only a bounded window of documents is being
+ * matched at any time, so the collection can be a lazy sequence of pages, e.g. read from a crawl. Unless an executor
+ * is specified, documents are matched on virtual threads when the JVM supports them, otherwise on the common
+ * fork join pool.
+ * </p>
+ * <p>
+ * Mismatches are reported in the order of the collection, whatever the order in which documents are matched. Only the
+ * first mismatches are described, the others are counted. The collection is read once: the mismatch found while matching
+ * is remembered, in the current thread, to describe the mismatch afterwards.
+ * </p>
+ */
+public class ForAllDocuments extends BaseMatcher<Iterable<Element>> {
+
+    public static final int REPORTED_MISMATCHES = 20;
+
+    private static final Method newVirtualThreadPerTaskExecutor = virtualThreads();
+
+    private final Matcher<? super Element> documentMatcher;
+    private final Executor executor;
+    private final int window;
+    private final ThreadLocal<Mismatch> lastMismatch = new ThreadLocal<>();
+
+    public ForAllDocuments(Matcher<? super Element> documentMatcher, Executor executor, int window) {
+        if (window < 1) throw new IllegalArgumentException("window must be positive: " + window);
+        this.documentMatcher = documentMatcher;
+        this.executor = executor;
+        this.window = window;
+    }
+
+    public boolean matches(Object actual) {
+        if (!(actual instanceof Iterable)) return false;
+        Report report = evaluate((Iterable<?>) actual);
+        if (report.matched()) {
+            lastMismatch.remove();
+            return true;
+        }
+        lastMismatch.set(new Mismatch(actual, report));
+        return false;
+    }
+
+    @Override
+    public void describeMismatch(Object actual, Description mismatchDescription) {
+        if (!(actual instanceof Iterable)) {
+            super.describeMismatch(actual, mismatchDescription);
+            return;
+        }
+        Mismatch mismatch = lastMismatch.get();
+        Report report;
+        if (mismatch != null && mismatch.of(actual)) {
+            lastMismatch.remove();
+            report = mismatch.report;
+        } else {
+            report = evaluate((Iterable<?>) actual);
+        }
+        report.describeTo(mismatchDescription);
+    }
+
+    public void describeTo(Description description) {
+        description.appendText("every document ").appendDescriptionOf(documentMatcher);
+    }
+
+    private Report evaluate(Iterable<?> documents) {
+        ExecutorService virtualThreads = executor == null ? newVirtualThreadExecutor() : null;
+        Executor workers = executor != null ? executor : virtualThreads != null ? virtualThreads : ForkJoinPool.commonPool();
+        Deque<CompletableFuture<String>> pending = new ArrayDeque<>();
+        try {
+            Report report = new Report();
+            for (Object document : documents) {
+                // Wait for the oldest document before reading a new one, to keep the window bounded and in order
+                if (pending.size() == window) report.add(await(pending.removeFirst()));
+                pending.addLast(CompletableFuture.supplyAsync(() -> mismatchOf(document), workers));
+            }
+            while (!pending.isEmpty()) report.add(await(pending.removeFirst()));
+            return report;
+        } finally {
+            for (CompletableFuture<String> abandoned : pending) abandoned.cancel(false);
+            if (virtualThreads != null) virtualThreads.shutdown();
+        }
+    }
+
+    private String mismatchOf(Object document) {
+        if (documentMatcher.matches(document)) return null;
+        Description mismatch = new StringDescription();
+        documentMatcher.describeMismatch(document, mismatch);
+        return mismatch.toString();
+    }
+
+    private static String await(CompletableFuture<String> evaluation) {
+        try {
+            return evaluation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    private static Method virtualThreads() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        if (newVirtualThreadPerTaskExecutor == null) return null;
+        try {
+            return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks that every document in the collection is matched by the specified matcher, matching documents in parallel
+     * on virtual threads if available, otherwise on the common fork join pool.
+     */
+    public static Matcher<Iterable<Element>> forAllDocuments(Matcher<? super Element> documentMatcher) {
+        return forAllDocuments(documentMatcher, null);
+    }
+
+    /**
+     * Checks that every document in the collection is matched by the specified matcher, matching documents in parallel
+     * using the specified executor.
+     */
+    public static Matcher<Iterable<Element>> forAllDocuments(Matcher<? super Element> documentMatcher, Executor executor) {
+        return new ForAllDocuments(documentMatcher, executor, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    private static class Report {
+        private final List<String> mismatches = new ArrayList<>();
+        private int documents;
+        private int mismatched;
+
+        void add(String mismatch) {
+            if (mismatch != null) {
+                mismatched++;
+                if (mismatches.size() < REPORTED_MISMATCHES) mismatches.add("document " + documents + ": " + mismatch);
+            }
+            documents++;
+        }
+
+        boolean matched() {
+            return mismatched == 0;
+        }
+
+        void describeTo(Description description) {
+            description.appendText(mismatched + " of " + documents + " document(s) did not match");
+            for (String mismatch : mismatches) description.appendText("\n  " + mismatch);
+            if (mismatched > mismatches.size()) {
+                description.appendText("\n  and " + (mismatched - mismatches.size()) + " more");
+            }
+        }
+    }
+
+    private static class Mismatch {
+        private final WeakReference<Object> actual;
+        private final Report report;
+
+        Mismatch(Object actual, Report report) {
+            this.actual = new WeakReference<>(actual);
+            this.report = report;
+        }
+
+        boolean of(Object actual) {
+            return this.actual.get() == actual;
+        }
+    }
+}
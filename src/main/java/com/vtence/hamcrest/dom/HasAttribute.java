@@ -5,16 +5,21 @@ import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
 import org.w3c.dom.Element;
 
-public class HasAttribute extends TypeSafeDiagnosingMatcher<Element> {
+import static com.vtence.hamcrest.dom.W3cNodeModel.w3c;
+
+public class HasAttribute<E> extends TypeSafeDiagnosingMatcher<E> {
+    private final NodeModel<E> model;
     private final String attributeName;
 
-    public HasAttribute(String attributeName) {
+    public HasAttribute(NodeModel<E> model, String attributeName) {
+        super(model.elementType());
+        this.model = model;
         this.attributeName = attributeName;
     }
 
     @Override
-    protected boolean matchesSafely(Element actual, Description mismatchDescription) {
-        boolean match = actual.hasAttribute(attributeName);
+    protected boolean matchesSafely(E actual, Description mismatchDescription) {
+        boolean match = model.attribute(actual, attributeName) != null;
         if (!match) {
             mismatchDescription.appendText("no attribute ").appendValue(attributeName);
         }
@@ -43,6 +48,19 @@ public class HasAttribute extends TypeSafeDiagnosingMatcher<Element> {
     }
 
     public static Matcher<Element> hasAttribute(String name) {
-        return new HasAttribute(name);
+        return hasAttribute(w3c(), name);
+    }
+
+    public static <E> Matcher<E> hasAttribute(NodeModel<E> model, String name) {
+        return new HasAttribute<>(model, name);
+    }
+
+    /**
+     * Matches the attributes of <code>org.w3c.dom</code> elements.
+     */
+    public static class W3c extends HasAttribute<Element> {
+        public W3c(String attributeName) {
+            super(w3c(), attributeName);
+        }
     }
-}
\ No newline at end of file
+}
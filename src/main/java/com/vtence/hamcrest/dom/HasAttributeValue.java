@@ -1,50 +1,75 @@
 package com.vtence.hamcrest.dom;
 
-import org.hamcrest.FeatureMatcher;
 import org.hamcrest.Matcher;
 import org.w3c.dom.Element;
 
-import static org.hamcrest.Matchers.containsString;
-import static org.hamcrest.Matchers.endsWith;
+import static com.vtence.hamcrest.dom.W3cNodeModel.w3c;
 import static org.hamcrest.Matchers.equalTo;
-import static org.hamcrest.Matchers.startsWith;
-import static org.hamcrest.core.AnyOf.anyOf;
 
-public class HasAttributeValue extends FeatureMatcher<Element, String> {
+public class HasAttributeValue<E> extends ElementFeatureMatcher<E, String> {
     private final String attributeName;
+    private final String value;
 
-    public HasAttributeValue(String attributeName, Matcher<? super String> valueMatcher) {
-        super(valueMatcher, "has attribute \"" + attributeName + "\" with value", "\"" + attributeName + "\" value");
+    public HasAttributeValue(NodeModel<E> model, String attributeName, Matcher<? super String> valueMatcher) {
+        this(model, attributeName, valueMatcher, null);
+    }
+
+    private HasAttributeValue(NodeModel<E> model, String attributeName, Matcher<? super String> valueMatcher, String value) {
+        super(model, valueMatcher, "has attribute \"" + attributeName + "\" with value", "\"" + attributeName + "\" value");
         this.attributeName = attributeName;
+        this.value = value;
+    }
+
+    /**
+     * Tells whether the matcher compares to a literal value, which is cheap and has no side effects.
+     */
+    boolean isLiteral() {
+        return value != null;
+    }
+
+    ElementKey key() {
+        // An empty value also matches a missing attribute, which leaves no key to find the element by
+        if (value == null || value.isEmpty() || model != w3c()) return null;
+        return ElementKey.attribute(attributeName, value);
     }
 
     @Override
-    protected String featureValueOf(Element actual) {
-        return actual.getAttribute(attributeName);
+    protected String featureValueOf(E actual) {
+        // A missing attribute reads as an empty value, like it does in the DOM
+        String value = model.attribute(actual, attributeName);
+        return value != null ? value : "";
     }
 
     public static Matcher<Element> hasAttribute(String name, String value) {
-        return hasAttribute(name, equalTo(value));
+        return new HasAttributeValue<>(w3c(), name, equalTo(value), value);
     }
 
     public static Matcher<Element> hasId(String id) {
-        return hasAttribute("id", equalTo(id));
+        return hasAttribute("id", id);
     }
 
     public static Matcher<Element> hasName(String name) {
-        return hasAttribute("name", equalTo(name));
+        return hasAttribute("name", name);
     }
 
     public static Matcher<Element> hasClassName(String className) {
-        return hasAttribute("class", anyOf(
-                equalTo(className),
-                startsWith(className + " "),
-                endsWith(" " + className),
-                containsString(" " + className + " ")
-        ));
+        return HasClassName.hasClassName(className);
     }
 
     public static Matcher<Element> hasAttribute(String name, Matcher<? super String> valueMatcher) {
-        return new HasAttributeValue(name, valueMatcher);
+        return hasAttribute(w3c(), name, valueMatcher);
+    }
+
+    public static <E> Matcher<E> hasAttribute(NodeModel<E> model, String name, Matcher<? super String> valueMatcher) {
+        return new HasAttributeValue<>(model, name, valueMatcher);
+    }
+
+    /**
+     * Matches the attribute values of <code>org.w3c.dom</code> elements.
+     */
+    public static class W3c extends HasAttributeValue<Element> {
+        public W3c(String attributeName, Matcher<? super String> valueMatcher) {
+            super(w3c(), attributeName, valueMatcher);
+        }
     }
 }
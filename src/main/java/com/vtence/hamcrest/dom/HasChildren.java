@@ -1,48 +1,113 @@
 package com.vtence.hamcrest.dom;
 
-import org.hamcrest.FeatureMatcher;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
+import org.hamcrest.collection.IsIterableContainingInOrder;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
-public class HasChildren extends FeatureMatcher<Element, Iterable<Element>> {
+import static com.vtence.hamcrest.dom.W3cNodeModel.w3c;
 
-    public HasChildren(Matcher<Iterable<Element>> childrenMatcher) {
-        super(childrenMatcher, "has children", "children");
+public class HasChildren<E> extends ElementFeatureMatcher<E, Iterable<E>> {
+
+    public HasChildren(NodeModel<E> model, Matcher<? super Iterable<E>> childrenMatcher) {
+        super(model, childrenMatcher, "has children", "children");
     }
 
-    protected Iterable<Element> featureValueOf(Element actual) {
-        return Elements.listChildrenOf(actual);
+    protected Iterable<E> featureValueOf(E actual) {
+        return Elements.listChildrenOf(model, actual);
     }
 
-    @SuppressWarnings("unchecked")
     public static Matcher<Element> hasChild(Matcher<? super Element> childMatcher) {
-        return hasChildren(Matchers.hasItems(childMatcher));
+        return hasChild(w3c(), childMatcher);
     }
 
     @SafeVarargs
+    @SuppressWarnings("varargs")
     public static Matcher<Element> hasChildren(Matcher<? super Element>... childrenMatchers) {
-        return hasChildren(DomMatchers.contains(childrenMatchers));
+        return hasChildren(w3c(), childrenMatchers);
     }
 
     public static Matcher<Element> hasChildren(Matcher<Iterable<Element>> childrenMatcher) {
-        return new HasChildren(childrenMatcher);
+        return hasChildren(w3c(), childrenMatcher);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> Matcher<E> hasChild(NodeModel<E> model, Matcher<? super E> childMatcher) {
+        return hasChildren(model, Matchers.hasItems(childMatcher));
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <E> Matcher<E> hasChildren(NodeModel<E> model, Matcher<? super E>... childrenMatchers) {
+        return new HasChildren<>(model, new IsIterableContainingInOrder<E>(Arrays.asList(childrenMatchers)));
+    }
+
+    public static <E> Matcher<E> hasChildren(NodeModel<E> model, Matcher<Iterable<E>> childrenMatcher) {
+        return new HasChildren<>(model, childrenMatcher);
+    }
+
+    /**
+     * Matches the children of <code>org.w3c.dom</code> elements.
+     */
+    public static class W3c extends HasChildren<Element> {
+        public W3c(Matcher<Iterable<Element>> childrenMatcher) {
+            super(w3c(), childrenMatcher);
+        }
     }
 
-    private static class Elements {
-        public static List<Element> listChildrenOf(Element element) {
-            List<Element> children = new ArrayList<>();
-            NodeList descendantNodes = element.getChildNodes();
-            for (int i = 0; i < descendantNodes.getLength(); i++) {
-                Node childNode = descendantNodes.item(i);
-                if (childNode.getNodeType() == Node.ELEMENT_NODE) children.add((Element) childNode);
+    /**
+     * A live view of the children elements of an element. Children are walked as they are iterated,
+     * so matchers that stop early never look at the remaining children.
+     */
+    private static class Elements<E> extends AbstractCollection<E> {
+        private final NodeModel<E> model;
+        private final E parent;
+
+        private Elements(NodeModel<E> model, E parent) {
+            this.model = model;
+            this.parent = parent;
+        }
+
+        public static Elements<Element> listChildrenOf(Element element) {
+            return listChildrenOf(w3c(), element);
+        }
+
+        public static <E> Elements<E> listChildrenOf(NodeModel<E> model, E element) {
+            return new Elements<>(model, element);
+        }
+
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private E next = model.firstChild(parent);
+
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                public E next() {
+                    if (next == null) throw new NoSuchElementException();
+                    E current = next;
+                    next = model.nextSibling(current);
+                    return current;
+                }
+
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        public int size() {
+            int size = 0;
+            for (E child = model.firstChild(parent); child != null; child = model.nextSibling(child)) {
+                size++;
             }
-            return children;
+            return size;
         }
     }
 }
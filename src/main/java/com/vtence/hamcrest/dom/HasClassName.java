@@ -0,0 +1,80 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+import org.w3c.dom.Element;
+
+import java.util.Arrays;
+
+import static com.vtence.hamcrest.dom.W3cNodeModel.w3c;
+
+public class HasClassName<E> extends TypeSafeDiagnosingMatcher<E> {
+    private final NodeModel<E> model;
+    private final String[] classNames;
+
+    public HasClassName(NodeModel<E> model, String... classNames) {
+        super(model.elementType());
+        this.model = model;
+        this.classNames = classNames.clone();
+    }
+
+    @Override
+    protected boolean matchesSafely(E actual, Description mismatchDescription) {
+        String value = model.attribute(actual, "class");
+        String classes = value != null ? value : "";
+        for (String className : classNames) {
+            if (!containsToken(classes, className)) {
+                mismatchDescription.appendText("\"class\" value was ").appendValue(classes);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Walks the whitespace separated tokens in place, without splitting the attribute value
+    private static boolean containsToken(String classes, String className) {
+        int length = classes.length();
+        int start = 0;
+        while (start < length) {
+            while (start < length && isWhitespace(classes.charAt(start))) start++;
+            int end = start;
+            while (end < length && !isWhitespace(classes.charAt(end))) end++;
+            if (end - start == className.length() && classes.regionMatches(start, className, 0, className.length())) {
+                return true;
+            }
+            start = end;
+        }
+        return false;
+    }
+
+    // The ASCII whitespace characters of HTML
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r';
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        if (classNames.length == 1) {
+            description.appendText("has class name ").appendValue(classNames[0]);
+        } else {
+            description.appendText("has class names ").appendValueList("[", ", ", "]", Arrays.asList(classNames));
+        }
+    }
+
+    public static Matcher<Element> hasClassName(String className) {
+        return hasClassNames(w3c(), className);
+    }
+
+    public static Matcher<Element> hasClassNames(String... classNames) {
+        return hasClassNames(w3c(), classNames);
+    }
+
+    public static <E> Matcher<E> hasClassName(NodeModel<E> model, String className) {
+        return hasClassNames(model, className);
+    }
+
+    public static <E> Matcher<E> hasClassNames(NodeModel<E> model, String... classNames) {
+        return new HasClassName<>(model, classNames);
+    }
+}
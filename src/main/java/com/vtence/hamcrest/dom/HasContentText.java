@@ -1,33 +1,55 @@
 package com.vtence.hamcrest.dom;
 
-import org.hamcrest.FeatureMatcher;
 import org.hamcrest.Matcher;
 import org.w3c.dom.Element;
 
-import static org.hamcrest.Matchers.blankString;
-import static org.hamcrest.Matchers.equalTo;
+import static com.vtence.hamcrest.dom.W3cNodeModel.w3c;
 
-public class HasContentText extends FeatureMatcher<Element, String> {
+public class HasContentText<E> extends ElementFeatureMatcher<E, String> {
 
-    public HasContentText(Matcher<? super String> contentMatcher) {
-        super(contentMatcher, "has content text", "text");
+    public HasContentText(NodeModel<E> model, Matcher<? super String> contentMatcher) {
+        super(model, contentMatcher, "has content text", "text");
     }
 
     @Override
-    protected String featureValueOf(Element actual) {
-        return actual.getTextContent();
+    protected String featureValueOf(E actual) {
+        return model.text(actual).toString();
     }
 
     public static Matcher<Element> hasBlankContent() {
-        return hasContent(blankString());
+        return HasStreamedContentText.hasBlankContent();
     }
 
     public static Matcher<Element> hasContent(String contentText) {
-        return hasContent(equalTo(contentText));
+        return HasStreamedContentText.hasContent(contentText);
+    }
+
+    public static Matcher<Element> hasContentStartingWith(String prefix) {
+        return HasStreamedContentText.hasContentStartingWith(prefix);
+    }
+
+    public static Matcher<Element> hasContentContaining(String substring) {
+        return HasStreamedContentText.hasContentContaining(substring);
+    }
+
+    public static Matcher<Element> hasContentCompressingWhiteSpace(String contentText) {
+        return HasStreamedContentText.hasContentCompressingWhiteSpace(contentText);
     }
 
     public static Matcher<Element> hasContent(Matcher<? super String> contentMatcher) {
-        return new HasContentText(contentMatcher);
+        return hasContent(w3c(), contentMatcher);
+    }
+
+    public static <E> Matcher<E> hasContent(NodeModel<E> model, Matcher<? super String> contentMatcher) {
+        return new HasContentText<>(model, contentMatcher);
     }
 
+    /**
+     * Matches the content text of <code>org.w3c.dom</code> elements.
+     */
+    public static class W3c extends HasContentText<Element> {
+        public W3c(Matcher<? super String> contentMatcher) {
+            super(w3c(), contentMatcher);
+        }
+    }
 }
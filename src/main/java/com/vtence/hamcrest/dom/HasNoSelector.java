@@ -2,26 +2,27 @@ package com.vtence.hamcrest.dom;
 
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
-import org.hamcrest.TypeSafeDiagnosingMatcher;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
 
-import java.util.List;
+import java.util.Iterator;
 
-public class HasNoSelector extends TypeSafeDiagnosingMatcher<Element> {
+import static com.vtence.hamcrest.dom.W3cNodeModel.w3c;
 
-    private String selector;
+public class HasNoSelector<E> extends AbstractSelectionMatcher<E> {
 
-    public HasNoSelector(String selector) {
-        this.selector = selector;
+    public HasNoSelector(NodeModel<E> model, CompiledSelector selector) {
+        super(model, selector);
     }
 
-    @Override
-    protected boolean matchesSafely(Element element, Description mismatchDescription) {
-        List<Node> selected = Selector.from(element).selectAll(selector);
-        if (!selected.isEmpty()) {
-            Node match = selected.iterator().next();
-            mismatchDescription.appendText("found element \"" + match.getNodeName() + "\"");
+    public int limit() {
+        return 1;
+    }
+
+    public boolean matchesSelection(Iterable<E> selected, Description mismatchDescription) {
+        Iterator<E> elements = selected.iterator();
+        if (elements.hasNext()) {
+            E match = elements.next();
+            mismatchDescription.appendText("found element \"" + model.tagName(match) + "\"");
             return false;
         }
         return true;
@@ -32,6 +33,23 @@ public class HasNoSelector extends TypeSafeDiagnosingMatcher<Element> {
     }
 
     public static Matcher<Element> hasNoSelector(String selector) {
-        return new HasNoSelector(selector);
+        return hasNoSelector(Selector.compile(selector));
+    }
+
+    public static Matcher<Element> hasNoSelector(CompiledSelector selector) {
+        return hasNoSelector(w3c(), selector);
+    }
+
+    public static <E> Matcher<E> hasNoSelector(NodeModel<E> model, CompiledSelector selector) {
+        return new HasNoSelector<>(model, selector);
+    }
+
+    /**
+     * Matches <code>org.w3c.dom</code> elements.
+     */
+    public static class W3c extends HasNoSelector<Element> {
+        public W3c(String selector) {
+            super(w3c(), Selector.compile(selector));
+        }
     }
 }
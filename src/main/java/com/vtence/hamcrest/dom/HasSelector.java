@@ -3,29 +3,43 @@ package com.vtence.hamcrest.dom;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
-import org.hamcrest.TypeSafeDiagnosingMatcher;
+import org.hamcrest.core.AnyOf;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
 
-import java.util.List;
+import java.util.Arrays;
 
-public class HasSelector extends TypeSafeDiagnosingMatcher<Element> {
-    private final String selector;
-    private final Matcher<Iterable<Element>> subjectsMatcher;
+import static com.vtence.hamcrest.dom.W3cNodeModel.w3c;
 
-    public HasSelector(String selector) {
-        this(selector, null);
+public class HasSelector<E> extends AbstractSelectionMatcher<E> {
+    private final Matcher<Iterable<E>> subjectsMatcher;
+    private final Matcher<? super E> filter;
+
+    public HasSelector(NodeModel<E> model, CompiledSelector selector) {
+        this(model, selector, null);
+    }
+
+    public HasSelector(NodeModel<E> model, CompiledSelector selector, Matcher<Iterable<E>> subjectsMatchers) {
+        this(model, selector, subjectsMatchers, null);
+    }
+
+    private HasSelector(NodeModel<E> model, CompiledSelector selector, Matcher<Iterable<E>> subjectsMatchers, Matcher<? super E> filter) {
+        super(model, selector);
+        this.subjectsMatcher = subjectsMatchers != null ? MatchMemo.remember(subjectsMatchers) : null;
+        this.filter = filter;
     }
 
-    public HasSelector(String selector, Matcher<Iterable<Element>> subjectsMatchers) {
-        this.selector = selector;
-        this.subjectsMatcher = subjectsMatchers;
+    public int limit() {
+        // Without subjects to match, we only need to know if there's at least one
+        return subjectsMatcher == null ? 1 : Integer.MAX_VALUE;
     }
 
     @Override
-    protected boolean matchesSafely(Element element, Description mismatchDescription) {
-        List<Node> selected = Selector.from(element).selectAll(selector);
-        if (selected.isEmpty()) {
+    protected Matcher<? super E> filter() {
+        return filter;
+    }
+
+    public boolean matchesSelection(Iterable<E> selected, Description mismatchDescription) {
+        if (!selected.iterator().hasNext()) {
             mismatchDescription.appendText("no selector ");
             mismatchDescription.appendText("\"" + selector + "\"");
             return false;
@@ -42,7 +56,7 @@ public class HasSelector extends TypeSafeDiagnosingMatcher<Element> {
 
     public void describeTo(Description description) {
         description.appendText("has selector \"");
-        description.appendText(selector);
+        description.appendText(selector.text());
         description.appendText("\"");
         if (subjectsMatcher != null) {
             description.appendText(" ");
@@ -51,17 +65,76 @@ public class HasSelector extends TypeSafeDiagnosingMatcher<Element> {
     }
 
     public static Matcher<Element> hasSelector(String selector) {
-        return new HasSelector(selector);
+        return hasSelector(Selector.compile(selector));
     }
 
     @SafeVarargs
     public static Matcher<Element> hasSelector(String selector, Matcher<? super Element>... subjectsMatchers) {
-        return hasSelector(selector, Matchers.hasItems(subjectsMatchers));
+        return hasSelector(Selector.compile(selector), subjectsMatchers);
     }
 
     public static Matcher<Element> hasSelector(String selector, Matcher<Iterable<Element>> subjectsMatcher) {
-        return new HasSelector(selector, subjectsMatcher);
+        return hasSelector(Selector.compile(selector), subjectsMatcher);
     }
 
-}
+    public static Matcher<Element> hasSelector(CompiledSelector selector) {
+        return hasSelector(w3c(), selector);
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static Matcher<Element> hasSelector(CompiledSelector selector, Matcher<? super Element>... subjectsMatchers) {
+        return hasSelector(w3c(), selector, subjectsMatchers);
+    }
+
+    public static Matcher<Element> hasSelector(CompiledSelector selector, Matcher<Iterable<Element>> subjectsMatcher) {
+        return hasSelector(w3c(), selector, subjectsMatcher);
+    }
+
+    public static <E> Matcher<E> hasSelector(NodeModel<E> model, CompiledSelector selector) {
+        return new HasSelector<>(model, selector);
+    }
 
+    /**
+     * When the subjects matchers are all cheap and without side effects, e.g. they check the tag name or the value
+     * of an attribute, elements none of them matches are filtered out as elements are selected. Each matcher still
+     * has to match one of the remaining elements, which is all that matters to the outcome.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <E> Matcher<E> hasSelector(NodeModel<E> model, CompiledSelector selector, Matcher<? super E>... subjectsMatchers) {
+        return new HasSelector<>(model, selector, Matchers.hasItems(MatchMemo.rememberAll(subjectsMatchers)), filterOf(subjectsMatchers));
+    }
+
+    public static <E> Matcher<E> hasSelector(NodeModel<E> model, CompiledSelector selector, Matcher<Iterable<E>> subjectsMatcher) {
+        return new HasSelector<>(model, selector, subjectsMatcher);
+    }
+
+    // Elements matched by any of the matchers, if they can all be checked as elements are selected
+    private static <E> Matcher<? super E> filterOf(Matcher<? super E>[] subjectsMatchers) {
+        if (subjectsMatchers.length == 0) return null;
+        for (Matcher<?> matcher : subjectsMatchers) {
+            if (!isFilter(matcher)) return null;
+        }
+        return subjectsMatchers.length == 1 ? subjectsMatchers[0] : new AnyOf<E>(Arrays.asList(subjectsMatchers));
+    }
+
+    private static boolean isFilter(Matcher<?> matcher) {
+        if (matcher instanceof HasTag) return ((HasTag<?>) matcher).isLiteral();
+        if (matcher instanceof HasAttributeValue) return ((HasAttributeValue<?>) matcher).isLiteral();
+        return matcher instanceof HasAttribute || matcher instanceof HasClassName;
+    }
+
+    /**
+     * Matches <code>org.w3c.dom</code> elements.
+     */
+    public static class W3c extends HasSelector<Element> {
+        public W3c(String selector) {
+            this(selector, null);
+        }
+
+        public W3c(String selector, Matcher<Iterable<Element>> subjectsMatcher) {
+            super(w3c(), Selector.compile(selector), subjectsMatcher);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.w3c.dom.Element;
+
+import java.util.Iterator;
+
+import static com.vtence.hamcrest.dom.W3cNodeModel.w3c;
+
+/**
+ * Checks the number of elements represented by a selector, counting them as they are selected, without keeping them.
+ * <p>
+ * When the count is checked against a range, given by {@link #atLeast(int)}, {@link #atMost(int)} or
+ * {@link #between(int, int)}, counting stops as soon as the lower bound is met, if there's no upper bound,
+ * or as soon as the upper bound is exceeded. Describing a mismatch counts all elements, to report the actual count.
+ * </p>
+ */
+public class HasSelectorCount<E> extends AbstractSelectionMatcher<E> {
+    private final Matcher<? super Integer> countMatcher;
+    // The count from which counting further cannot change the outcome
+    private final int enough;
+    private final boolean bounded;
+
+    public HasSelectorCount(NodeModel<E> model, CompiledSelector selector, Matcher<? super Integer> countMatcher) {
+        super(model, selector);
+        this.countMatcher = countMatcher;
+        this.enough = enough(countMatcher);
+        this.bounded = !(countMatcher instanceof Range) || ((Range) countMatcher).max < Integer.MAX_VALUE;
+    }
+
+    public int limit() {
+        // An excess is described with the actual count, so a shared selection must hold every element
+        return bounded ? Integer.MAX_VALUE : enough;
+    }
+
+    public boolean matchesSelection(Iterable<E> selected, Description mismatchDescription) {
+        boolean describing = !(mismatchDescription instanceof Description.NullDescription);
+        int count = count(selected, describing ? Integer.MAX_VALUE : enough);
+        if (countMatcher.matches(count)) return true;
+        mismatchDescription.appendText(count + " selector(s) \"" + selector + "\"");
+        return false;
+    }
+
+    public void describeTo(Description description) {
+        description.appendText("has selector \"" + selector + "\" with count ");
+        countMatcher.describeTo(description);
+    }
+
+    /**
+     * Returns the count from which counting further cannot change the outcome of the count matcher: the lower bound
+     * of a range without upper bound, one more than the upper bound of other ranges, and no limit for other matchers.
+     */
+    static int enough(Matcher<? super Integer> countMatcher) {
+        return countMatcher instanceof Range ? ((Range) countMatcher).enough() : Integer.MAX_VALUE;
+    }
+
+    private static int count(Iterable<?> selected, int limit) {
+        if (selected instanceof LazySelection) return ((LazySelection<?>) selected).count(limit);
+        int count = 0;
+        for (Iterator<?> elements = selected.iterator(); count < limit && elements.hasNext(); elements.next()) count++;
+        return count;
+    }
+
+    public static Matcher<Element> hasSelectorCount(String selector, Matcher<? super Integer> countMatcher) {
+        return hasSelectorCount(Selector.compile(selector), countMatcher);
+    }
+
+    public static Matcher<Element> hasSelectorCount(CompiledSelector selector, Matcher<? super Integer> countMatcher) {
+        return hasSelectorCount(w3c(), selector, countMatcher);
+    }
+
+    public static <E> Matcher<E> hasSelectorCount(NodeModel<E> model, CompiledSelector selector, Matcher<? super Integer> countMatcher) {
+        return new HasSelectorCount<>(model, selector, countMatcher);
+    }
+
+    public static Matcher<Integer> atLeast(int min) {
+        return new Range(min, Integer.MAX_VALUE);
+    }
+
+    public static Matcher<Integer> atMost(int max) {
+        return new Range(0, max);
+    }
+
+    public static Matcher<Integer> between(int min, int max) {
+        return new Range(min, max);
+    }
+
+    /**
+     * A range of counts, bounds included.
+     */
+    private static class Range extends TypeSafeMatcher<Integer> {
+        private final int min;
+        private final int max;
+
+        Range(int min, int max) {
+            if (min < 0) throw new IllegalArgumentException("min must not be negative: " + min);
+            if (max < min) throw new IllegalArgumentException("max must not be less than min: " + max + " < " + min);
+            this.min = min;
+            this.max = max;
+        }
+
+        int enough() {
+            return max == Integer.MAX_VALUE ? min : max + 1;
+        }
+
+        @Override
+        protected boolean matchesSafely(Integer count) {
+            return min <= count && count <= max;
+        }
+
+        public void describeTo(Description description) {
+            if (max == Integer.MAX_VALUE) description.appendText("at least " + min);
+            else if (min == 0) description.appendText("at most " + max);
+            else description.appendText("between " + min + " and " + max);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.w3c.dom.Element;
+
+import static com.vtence.hamcrest.dom.W3cNodeModel.w3c;
+import static org.hamcrest.Matchers.blankString;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.equalToCompressingWhiteSpace;
+import static org.hamcrest.Matchers.startsWith;
+
+/**
+ * Base class for matchers that read the content text of an element character by character and stop as soon as
+ * the outcome is known. The whole text is only built to describe a mismatch.
+ * <p>
+ * Each matcher describes itself and its mismatches exactly like the equivalent string matcher
+ * would when given to {@link HasContentText}.
+ * </p>
+ */
+public abstract class HasStreamedContentText<E> extends TypeSafeMatcher<E> {
+    private final NodeModel<E> model;
+    private final Matcher<String> equivalentMatcher;
+
+    protected HasStreamedContentText(NodeModel<E> model, Matcher<String> equivalentMatcher) {
+        super(model.elementType());
+        this.model = model;
+        this.equivalentMatcher = equivalentMatcher;
+    }
+
+    @Override
+    protected boolean matchesSafely(E actual) {
+        return matchesText(TextContent.of(model, actual));
+    }
+
+    @Override
+    protected void describeMismatchSafely(E actual, Description mismatchDescription) {
+        mismatchDescription.appendText("text ");
+        equivalentMatcher.describeMismatch(model.text(actual).toString(), mismatchDescription);
+    }
+
+    protected abstract boolean matchesText(TextContent text);
+
+    public void describeTo(Description description) {
+        description.appendText("has content text ").appendDescriptionOf(equivalentMatcher);
+    }
+
+    public static Matcher<Element> hasContent(String contentText) {
+        return hasContent(w3c(), contentText);
+    }
+
+    public static Matcher<Element> hasContentStartingWith(String prefix) {
+        return hasContentStartingWith(w3c(), prefix);
+    }
+
+    public static Matcher<Element> hasContentContaining(String substring) {
+        return hasContentContaining(w3c(), substring);
+    }
+
+    public static Matcher<Element> hasBlankContent() {
+        return hasBlankContent(w3c());
+    }
+
+    public static Matcher<Element> hasContentCompressingWhiteSpace(String contentText) {
+        return hasContentCompressingWhiteSpace(w3c(), contentText);
+    }
+
+    public static <E> Matcher<E> hasContent(NodeModel<E> model, String contentText) {
+        return new EqualTo<>(model, contentText);
+    }
+
+    public static <E> Matcher<E> hasContentStartingWith(NodeModel<E> model, String prefix) {
+        return new StartingWith<>(model, prefix);
+    }
+
+    public static <E> Matcher<E> hasContentContaining(NodeModel<E> model, String substring) {
+        return new Containing<>(model, substring);
+    }
+
+    public static <E> Matcher<E> hasBlankContent(NodeModel<E> model) {
+        return new Blank<>(model);
+    }
+
+    public static <E> Matcher<E> hasContentCompressingWhiteSpace(NodeModel<E> model, String contentText) {
+        return new EqualToCompressingWhiteSpace<>(model, contentText);
+    }
+
+    // The white space characters of regular expressions
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static class EqualTo<E> extends HasStreamedContentText<E> {
+        private final String expected;
+
+        EqualTo(NodeModel<E> model, String expected) {
+            super(model, equalTo(expected));
+            this.expected = expected;
+        }
+
+        protected boolean matchesText(TextContent text) {
+            for (int i = 0; i < expected.length(); i++) {
+                if (text.read() != expected.charAt(i)) return false;
+            }
+            return text.read() == TextContent.END;
+        }
+    }
+
+    private static class StartingWith<E> extends HasStreamedContentText<E> {
+        private final String prefix;
+
+        StartingWith(NodeModel<E> model, String prefix) {
+            super(model, startsWith(prefix));
+            this.prefix = prefix;
+        }
+
+        protected boolean matchesText(TextContent text) {
+            for (int i = 0; i < prefix.length(); i++) {
+                if (text.read() != prefix.charAt(i)) return false;
+            }
+            return true;
+        }
+    }
+
+    private static class Containing<E> extends HasStreamedContentText<E> {
+        private final String substring;
+        private final int[] fallbacks;
+
+        Containing(NodeModel<E> model, String substring) {
+            super(model, containsString(substring));
+            this.substring = substring;
+            this.fallbacks = fallbacksOf(substring);
+        }
+
+        // Knuth-Morris-Pratt search, which never needs to read a character twice
+        protected boolean matchesText(TextContent text) {
+            int matched = 0;
+            while (matched < substring.length()) {
+                int c = text.read();
+                if (c == TextContent.END) return false;
+                while (matched > 0 && c != substring.charAt(matched)) matched = fallbacks[matched - 1];
+                if (c == substring.charAt(matched)) matched++;
+            }
+            return true;
+        }
+
+        // For each prefix of the pattern, the length of its longest proper prefix that is also a suffix
+        private static int[] fallbacksOf(String pattern) {
+            int[] fallbacks = new int[pattern.length()];
+            int length = 0;
+            for (int i = 1; i < pattern.length(); i++) {
+                while (length > 0 && pattern.charAt(i) != pattern.charAt(length)) length = fallbacks[length - 1];
+                if (pattern.charAt(i) == pattern.charAt(length)) length++;
+                fallbacks[i] = length;
+            }
+            return fallbacks;
+        }
+    }
+
+    private static class Blank<E> extends HasStreamedContentText<E> {
+        Blank(NodeModel<E> model) {
+            super(model, blankString());
+        }
+
+        protected boolean matchesText(TextContent text) {
+            for (int c = text.read(); c != TextContent.END; c = text.read()) {
+                if (!isWhitespace(c)) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Compares texts after replacing runs of white space with a single space and trimming both ends,
+     * the way hamcrest does.
+     */
+    private static class EqualToCompressingWhiteSpace<E> extends HasStreamedContentText<E> {
+        private final String expected;
+
+        EqualToCompressingWhiteSpace(NodeModel<E> model, String expected) {
+            super(model, equalToCompressingWhiteSpace(expected));
+            this.expected = expected.replaceAll("\\s+", " ").trim();
+        }
+
+        protected boolean matchesText(TextContent text) {
+            Compressed compressed = new Compressed(text);
+            for (int i = 0; i < expected.length(); i++) {
+                if (compressed.read() != expected.charAt(i)) return false;
+            }
+            return compressed.read() == TextContent.END;
+        }
+    }
+
+    /**
+     * Reads text with runs of white space replaced by a single space, then trimmed like String#trim does.
+     */
+    private static class Compressed {
+        private static final int NONE = -2;
+
+        private final TextContent text;
+        // Characters that are dropped if only such characters follow them
+        private final StringBuilder trimmable = new StringBuilder();
+        private int pending;
+        private int held = NONE;
+        private int lookahead = NONE;
+        private boolean started;
+
+        Compressed(TextContent text) {
+            this.text = text;
+        }
+
+        int read() {
+            if (pending < trimmable.length()) return trimmable.charAt(pending++);
+            if (held != NONE) {
+                int c = held;
+                held = NONE;
+                return c;
+            }
+            trimmable.setLength(0);
+            pending = 0;
+
+            int c = collapsed();
+            while (c != TextContent.END && c <= ' ') {
+                if (started) trimmable.append((char) c);
+                c = collapsed();
+            }
+            if (c == TextContent.END) return TextContent.END;
+            started = true;
+            if (trimmable.length() == 0) return c;
+            held = c;
+            return trimmable.charAt(pending++);
+        }
+
+        private int collapsed() {
+            int c = lookahead != NONE ? lookahead : text.read();
+            lookahead = NONE;
+            if (!isWhitespace(c)) return c;
+            do {
+                c = text.read();
+            } while (isWhitespace(c));
+            lookahead = c;
+            return ' ';
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.vtence.hamcrest.dom;
+
+import com.vtence.hamcrest.dom.StreamingSelector.Selection;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+
+/**
+ * Base class for matchers that evaluate a selector over an XML {@link java.io.InputStream}.
+ * <p>
+ * A stream can only be read once, so the mismatch found while matching is remembered, in the current thread,
+ * to describe the mismatch afterwards.
+ * </p>
+ */
+public abstract class HasStreamedSelector extends BaseMatcher<InputStream> {
+    protected final CompiledSelector selector;
+    private final StreamingSelector streamingSelector;
+    protected final int limit;
+    private final ThreadLocal<Mismatch> lastMismatch = new ThreadLocal<>();
+
+    protected HasStreamedSelector(CompiledSelector selector, int limit) {
+        this.selector = selector;
+        this.streamingSelector = StreamingSelector.compile(selector);
+        this.limit = limit;
+    }
+
+    public boolean matches(Object actual) {
+        if (!(actual instanceof InputStream)) return false;
+        Description mismatch = new StringDescription();
+        boolean matches = matchesStream((InputStream) actual, mismatch, DomMetrics.enabled());
+        if (matches) lastMismatch.remove();
+        else lastMismatch.set(new Mismatch(actual, mismatch.toString()));
+        return matches;
+    }
+
+    @Override
+    public void describeMismatch(Object actual, Description mismatchDescription) {
+        if (!(actual instanceof InputStream)) {
+            super.describeMismatch(actual, mismatchDescription);
+            return;
+        }
+        Mismatch mismatch = lastMismatch.get();
+        if (mismatch != null && mismatch.of(actual)) {
+            lastMismatch.remove();
+            mismatchDescription.appendText(mismatch.description);
+        } else {
+            matchesStream((InputStream) actual, mismatchDescription, false);
+        }
+    }
+
+    private boolean matchesStream(InputStream xml, Description mismatchDescription, boolean timed) {
+        long start = timed ? System.nanoTime() : 0L;
+        Selection selection;
+        try {
+            selection = streamingSelector.select(xml, limit);
+        } catch (XMLStreamException e) {
+            mismatchDescription.appendText("could not read XML: " + e.getMessage());
+            return false;
+        }
+        boolean matches = matchesSelection(selection, mismatchDescription);
+        if (timed) {
+            long nanos = System.nanoTime() - start;
+            DomMetrics.recordSelector(selector, nanos, selection.visited(), selection.count());
+            DomMetrics.recordMatcher(getClass(), nanos, selection.visited(), selection.count());
+        }
+        return matches;
+    }
+
+    protected abstract boolean matchesSelection(Selection selection, Description mismatchDescription);
+
+    public static Matcher<InputStream> hasSelector(String selector) {
+        return hasSelector(Selector.compile(selector));
+    }
+
+    public static Matcher<InputStream> hasSelector(CompiledSelector selector) {
+        return new Exists(selector);
+    }
+
+    public static Matcher<InputStream> hasNoSelector(String selector) {
+        return hasNoSelector(Selector.compile(selector));
+    }
+
+    public static Matcher<InputStream> hasNoSelector(CompiledSelector selector) {
+        return new Absent(selector);
+    }
+
+    public static Matcher<InputStream> hasSelectorCount(String selector, Matcher<? super Integer> countMatcher) {
+        return hasSelectorCount(Selector.compile(selector), countMatcher);
+    }
+
+    public static Matcher<InputStream> hasSelectorCount(CompiledSelector selector, Matcher<? super Integer> countMatcher) {
+        return new Count(selector, countMatcher);
+    }
+
+    private static class Mismatch {
+        private final WeakReference<Object> actual;
+        private final String description;
+
+        Mismatch(Object actual, String description) {
+            this.actual = new WeakReference<>(actual);
+            this.description = description;
+        }
+
+        boolean of(Object actual) {
+            return this.actual.get() == actual;
+        }
+    }
+
+    private static class Exists extends HasStreamedSelector {
+        Exists(CompiledSelector selector) {
+            super(selector, 1);
+        }
+
+        protected boolean matchesSelection(Selection selection, Description mismatchDescription) {
+            if (selection.count() > 0) return true;
+            mismatchDescription.appendText("no selector \"" + selector + "\"");
+            return false;
+        }
+
+        public void describeTo(Description description) {
+            description.appendText("has selector \"" + selector + "\"");
+        }
+    }
+
+    private static class Absent extends HasStreamedSelector {
+        Absent(CompiledSelector selector) {
+            super(selector, 1);
+        }
+
+        protected boolean matchesSelection(Selection selection, Description mismatchDescription) {
+            if (selection.count() == 0) return true;
+            mismatchDescription.appendText("found element \"" + selection.first() + "\"");
+            return false;
+        }
+
+        public void describeTo(Description description) {
+            description.appendText("has no selector \"" + selector + "\"");
+        }
+    }
+
+    private static class Count extends HasStreamedSelector {
+        private final Matcher<? super Integer> countMatcher;
+
+        Count(CompiledSelector selector, Matcher<? super Integer> countMatcher) {
+            super(selector, HasSelectorCount.enough(countMatcher));
+            this.countMatcher = countMatcher;
+        }
+
+        protected boolean matchesSelection(Selection selection, Description mismatchDescription) {
+            if (countMatcher.matches(selection.count())) return true;
+            // Reading stops once the count exceeds the range, so the stream may hold even more
+            String excess = selection.count() == limit ? " or more" : "";
+            mismatchDescription.appendText(selection.count() + excess + " selector(s) \"" + selector + "\"");
+            return false;
+        }
+
+        public void describeTo(Description description) {
+            description.appendText("has selector \"" + selector + "\" with count ");
+            countMatcher.describeTo(description);
+        }
+    }
+}
@@ -1,27 +1,61 @@
 package com.vtence.hamcrest.dom;
 
-import org.hamcrest.FeatureMatcher;
 import org.hamcrest.Matcher;
 import org.w3c.dom.Element;
 
+import static com.vtence.hamcrest.dom.W3cNodeModel.w3c;
 import static org.hamcrest.Matchers.equalToIgnoringCase;
 
-public class HasTag extends FeatureMatcher<Element, String> {
+public class HasTag<E> extends ElementFeatureMatcher<E, String> {
+    private final String tagName;
 
-    public HasTag(Matcher<? super String> valueMatcher) {
-        super(valueMatcher, "has tag", "tag");
+    public HasTag(NodeModel<E> model, Matcher<? super String> valueMatcher) {
+        this(model, valueMatcher, null);
+    }
+
+    private HasTag(NodeModel<E> model, Matcher<? super String> valueMatcher, String tagName) {
+        super(model, valueMatcher, "has tag", "tag");
+        this.tagName = tagName;
+    }
+
+    /**
+     * Tells whether the matcher compares to a literal value, which is cheap and has no side effects.
+     */
+    boolean isLiteral() {
+        return tagName != null;
+    }
+
+    ElementKey key() {
+        return tagName != null && model == w3c() ? ElementKey.tag(tagName) : null;
     }
 
     @Override
-    protected String featureValueOf(Element actual) {
-        return actual.getTagName();
+    protected String featureValueOf(E actual) {
+        return model.tagName(actual);
     }
 
     public static Matcher<Element> hasTag(String tagName) {
-        return hasTag(equalToIgnoringCase(tagName));
+        return hasTag(w3c(), tagName);
     }
 
     public static Matcher<Element> hasTag(Matcher<? super String> valueMatcher) {
-        return new HasTag(valueMatcher);
+        return hasTag(w3c(), valueMatcher);
+    }
+
+    public static <E> Matcher<E> hasTag(NodeModel<E> model, String tagName) {
+        return new HasTag<>(model, equalToIgnoringCase(tagName), tagName);
+    }
+
+    public static <E> Matcher<E> hasTag(NodeModel<E> model, Matcher<? super String> valueMatcher) {
+        return new HasTag<>(model, valueMatcher);
+    }
+
+    /**
+     * Matches the tag of <code>org.w3c.dom</code> elements.
+     */
+    public static class W3c extends HasTag<Element> {
+        public W3c(Matcher<? super String> valueMatcher) {
+            super(w3c(), valueMatcher);
+        }
     }
 }
@@ -2,35 +2,36 @@ package com.vtence.hamcrest.dom;
 
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
-import org.hamcrest.TypeSafeDiagnosingMatcher;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
 
-import java.util.List;
+import java.util.Iterator;
 
-import static com.vtence.hamcrest.dom.DomMatchers.anElement;
-import static java.lang.String.valueOf;
+import static com.vtence.hamcrest.dom.W3cNodeModel.w3c;
+import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.anything;
 
-public class HasUniqueSelector extends TypeSafeDiagnosingMatcher<Element> {
-    private final String selector;
-    private final Matcher<? super Element> subjectMatcher;
+public class HasUniqueSelector<E> extends AbstractSelectionMatcher<E> {
+    private final Matcher<? super E> subjectMatcher;
 
-    public HasUniqueSelector(String selector, Matcher<? super Element> subjectMatcher) {
-        this.selector = selector;
-        this.subjectMatcher = subjectMatcher;
+    public HasUniqueSelector(NodeModel<E> model, CompiledSelector selector, Matcher<? super E> subjectMatcher) {
+        super(model, selector);
+        this.subjectMatcher = MatchMemo.remember(subjectMatcher);
     }
 
-    @Override
-    protected boolean matchesSafely(Element doc, Description mismatchDescription) {
-        List<Node> selected = Selector.from(doc).selectAll(selector);
-        if (selected.size() != 1) {
-            mismatchDescription.appendText(valueOf(selected.size()));
+    public int limit() {
+        // No need to look further than a second match to know the selector is not unique
+        return 2;
+    }
+
+    public boolean matchesSelection(Iterable<E> selected, Description mismatchDescription) {
+        Iterator<E> elements = selected.iterator();
+        E element = elements.hasNext() ? elements.next() : null;
+        if (element == null || elements.hasNext()) {
+            mismatchDescription.appendText(element == null ? "0" : "2 or more");
             mismatchDescription.appendText(" selector(s) ");
             mismatchDescription.appendText("\"" + selector + "\"");
             return false;
         }
-        Node element = selected.iterator().next();
         boolean valueMatches = subjectMatcher.matches(element);
         if (!valueMatches) {
             mismatchDescription.appendText(selector + " ");
@@ -41,21 +42,58 @@ public class HasUniqueSelector extends TypeSafeDiagnosingMatcher<Element> {
 
     public void describeTo(Description description) {
         description.appendText("has unique selector \"");
-        description.appendText(selector);
+        description.appendText(selector.text());
         description.appendText("\" ");
         subjectMatcher.describeTo(description);
     }
 
     public static Matcher<Element> hasUniqueSelector(String selector) {
-        return new HasUniqueSelector(selector, anything());
+        return hasUniqueSelector(Selector.compile(selector));
     }
 
     @SafeVarargs
     public static Matcher<Element> hasUniqueSelector(String selector, Matcher<? super Element>... subjectMatchers) {
-        return hasUniqueSelector(selector, anElement(subjectMatchers));
+        return hasUniqueSelector(Selector.compile(selector), subjectMatchers);
     }
 
     public static Matcher<Element> hasUniqueSelector(String selector, Matcher<? super Element> subjectMatcher) {
-        return new HasUniqueSelector(selector, subjectMatcher);
+        return hasUniqueSelector(Selector.compile(selector), subjectMatcher);
+    }
+
+    public static Matcher<Element> hasUniqueSelector(CompiledSelector selector) {
+        return hasUniqueSelector(w3c(), selector);
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static Matcher<Element> hasUniqueSelector(CompiledSelector selector, Matcher<? super Element>... subjectMatchers) {
+        return hasUniqueSelector(w3c(), selector, subjectMatchers);
+    }
+
+    public static Matcher<Element> hasUniqueSelector(CompiledSelector selector, Matcher<? super Element> subjectMatcher) {
+        return hasUniqueSelector(w3c(), selector, subjectMatcher);
+    }
+
+    public static <E> Matcher<E> hasUniqueSelector(NodeModel<E> model, CompiledSelector selector) {
+        return new HasUniqueSelector<>(model, selector, anything());
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <E> Matcher<E> hasUniqueSelector(NodeModel<E> model, CompiledSelector selector, Matcher<? super E>... subjectMatchers) {
+        return hasUniqueSelector(model, selector, allOf(MatchMemo.rememberAll(subjectMatchers)));
+    }
+
+    public static <E> Matcher<E> hasUniqueSelector(NodeModel<E> model, CompiledSelector selector, Matcher<? super E> subjectMatcher) {
+        return new HasUniqueSelector<>(model, selector, subjectMatcher);
+    }
+
+    /**
+     * Matches <code>org.w3c.dom</code> elements.
+     */
+    public static class W3c extends HasUniqueSelector<Element> {
+        public W3c(String selector, Matcher<? super Element> subjectMatcher) {
+            super(w3c(), Selector.compile(selector), subjectMatcher);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,216 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The elements represented by a selector, in document order, selected as they are iterated.
+ * <p>
+ * The tree is only walked as far as needed to produce the elements asked for, so a matcher that is satisfied
+ * by the first elements never causes the rest of the tree to be visited. Elements already selected are kept,
+ * so iterating again, e.g. to describe a mismatch, replays them before resuming the traversal.
+ * </p>
+ * <p>
+ * A selection is not thread-safe and should not outlive changes to the tree.
+ * </p>
+ */
+final class LazySelection<E> implements Iterable<E> {
+    private final Matching<E> source;
+    private final List<E> selected = new ArrayList<>();
+    // Elements selected by counting, without being kept
+    private int counted;
+
+    private LazySelection(Matching<E> source) {
+        this.source = source;
+    }
+
+    /**
+     * Selects the elements represented by the selector among candidates, given in document order.
+     */
+    public static <E> LazySelection<E> among(NodeModel<E> model, Iterator<E> candidates, CompiledSelector selector) {
+        return among(model, candidates, selector, null);
+    }
+
+    /**
+     * Selects the elements represented by the selector among candidates, given in document order, keeping only
+     * those matched by the filter. Elements the filter rejects are never kept.
+     */
+    public static <E> LazySelection<E> among(NodeModel<E> model, Iterator<E> candidates, CompiledSelector selector,
+                                             Matcher<? super E> filter) {
+        return new LazySelection<>(new Matching<>(model, candidates, selector, filter));
+    }
+
+    /**
+     * Keeps the elements matched by the filter among elements already known to be represented by a selector,
+     * given in document order.
+     */
+    public static <E> LazySelection<E> of(NodeModel<E> model, Iterator<E> selected, Matcher<? super E> filter) {
+        return new LazySelection<>(new Matching<>(model, selected, null, filter));
+    }
+
+    /**
+     * Selects the elements represented by the selector in the tree under the root element, root included.
+     */
+    public static <E> LazySelection<E> within(NodeModel<E> model, E root, CompiledSelector selector) {
+        return within(model, root, selector, null);
+    }
+
+    /**
+     * Selects the elements represented by the selector in the tree under the root element, root included,
+     * keeping only those matched by the filter.
+     */
+    public static <E> LazySelection<E> within(NodeModel<E> model, E root, CompiledSelector selector, Matcher<? super E> filter) {
+        return among(model, new Traversal<>(model, root), selector, filter);
+    }
+
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int position;
+
+            public boolean hasNext() {
+                return position < selected.size() || selectNext();
+            }
+
+            public E next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return selected.get(position++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Returns the number of elements matched against the selector so far.
+     */
+    public int visited() {
+        return source.visited;
+    }
+
+    /**
+     * Returns the number of elements selected so far.
+     */
+    public int size() {
+        return selected.size() + counted;
+    }
+
+    /**
+     * Counts the elements of the selection up to the specified limit, selecting further elements without keeping
+     * them. Once elements have been counted without being kept, the selection can still be counted, but it can no
+     * longer be iterated past the elements kept before.
+     */
+    public int count(int limit) {
+        while (size() < limit && source.hasNext()) {
+            source.next();
+            counted++;
+        }
+        return Math.min(size(), limit);
+    }
+
+    private boolean selectNext() {
+        if (counted > 0) throw new IllegalStateException("Selection was counted without keeping elements");
+        if (!source.hasNext()) return false;
+        selected.add(source.next());
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        if (counted > 0) return size() + " element(s)";
+        while (selectNext()) {
+            // Describe the whole selection
+        }
+        return selected.toString();
+    }
+
+    /**
+     * Skips over candidates that are not represented by the selector, if any, or that the filter rejects, if any.
+     */
+    private static class Matching<E> implements Iterator<E> {
+        private final NodeModel<E> model;
+        private final Iterator<E> candidates;
+        private final CompiledSelector selector;
+        private final Matcher<? super E> filter;
+        private E next;
+        private int visited;
+
+        Matching(NodeModel<E> model, Iterator<E> candidates, CompiledSelector selector, Matcher<? super E> filter) {
+            this.model = model;
+            this.candidates = candidates;
+            this.selector = selector;
+            this.filter = filter;
+        }
+
+        public boolean hasNext() {
+            while (next == null && candidates.hasNext()) {
+                E candidate = candidates.next();
+                visited++;
+                if ((selector == null || selector.matches(model, candidate)) && (filter == null || filter.matches(candidate))) next = candidate;
+            }
+            return next != null;
+        }
+
+        public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            E current = next;
+            next = null;
+            return current;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Walks the elements of a subtree in document order, moving to the next element only when asked for it.
+     */
+    private static class Traversal<E> implements Iterator<E> {
+        private final NodeModel<E> model;
+        private final E root;
+        private E previous;
+        private E next;
+        private boolean exhausted;
+
+        Traversal(NodeModel<E> model, E root) {
+            this.model = model;
+            this.root = root;
+        }
+
+        public boolean hasNext() {
+            if (next == null && !exhausted) {
+                next = previous == null ? root : following(previous);
+                exhausted = next == null;
+            }
+            return next != null;
+        }
+
+        public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            previous = next;
+            next = null;
+            return previous;
+        }
+
+        private E following(E element) {
+            E child = model.firstChild(element);
+            if (child != null) return child;
+            while (element != root) {
+                E sibling = model.nextSibling(element);
+                if (sibling != null) return sibling;
+                element = model.parent(element);
+            }
+            return null;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+/**
+ * What was learnt matching an element against a selector matcher: the selected elements and the outcome of
+ * each {@link #remember(Matcher) remembered} matcher for each item it was given. This is what describing
+ * a mismatch needs, so it can be done without selecting or matching subjects again.
+ * <p>
+ * A memo is current while its selector matcher evaluates the selection, and remembered matchers only
+ * record and replay outcomes within the current memo. They behave as usual outside of one.
+ * Memos are never shared between threads.
+ * </p>
+ */
+final class MatchMemo<E> {
+    private static final ThreadLocal<MatchMemo<?>> current = new ThreadLocal<>();
+
+    private final E actual;
+    private final Iterable<E> selected;
+    // Outcomes by (matcher, item) pairs of identities, in an open addressing table allocated on first use
+    private Object[] keys;
+    private boolean[] outcomes;
+    private int size;
+
+    MatchMemo(E actual, Iterable<E> selected) {
+        this.actual = actual;
+        this.selected = selected;
+    }
+
+    public boolean isAbout(Object element) {
+        return actual == element;
+    }
+
+    public Iterable<E> selected() {
+        return selected;
+    }
+
+    /**
+     * Makes this memo current, until the specified outer memo is {@link #restore(MatchMemo) restored}.
+     *
+     * @return the memo that was current until now, if any
+     */
+    public MatchMemo<?> enter() {
+        MatchMemo<?> outer = current.get();
+        current.set(this);
+        return outer;
+    }
+
+    public static void restore(MatchMemo<?> outer) {
+        current.set(outer);
+    }
+
+    private Boolean outcome(Matcher<?> matcher, Object item) {
+        if (keys == null) return null;
+        int slot = slotOf(keys, matcher, item);
+        return keys[2 * slot] != null ? outcomes[slot] : null;
+    }
+
+    private void record(Matcher<?> matcher, Object item, boolean outcome) {
+        if (keys == null) {
+            keys = new Object[16];
+            outcomes = new boolean[8];
+        } else if (2 * (size + 1) > outcomes.length) {
+            grow();
+        }
+        int slot = slotOf(keys, matcher, item);
+        if (keys[2 * slot] == null) {
+            keys[2 * slot] = matcher;
+            keys[2 * slot + 1] = item;
+            size++;
+        }
+        outcomes[slot] = outcome;
+    }
+
+    private void grow() {
+        Object[] oldKeys = keys;
+        boolean[] oldOutcomes = outcomes;
+        keys = new Object[2 * oldKeys.length];
+        outcomes = new boolean[2 * oldOutcomes.length];
+        for (int i = 0; i < oldOutcomes.length; i++) {
+            if (oldKeys[2 * i] == null) continue;
+            int slot = slotOf(keys, oldKeys[2 * i], oldKeys[2 * i + 1]);
+            keys[2 * slot] = oldKeys[2 * i];
+            keys[2 * slot + 1] = oldKeys[2 * i + 1];
+            outcomes[slot] = oldOutcomes[i];
+        }
+    }
+
+    // Finds the slot of the pair, or the free slot where it belongs
+    private static int slotOf(Object[] keys, Object matcher, Object item) {
+        int mask = keys.length / 2 - 1;
+        int slot = (31 * System.identityHashCode(matcher) + System.identityHashCode(item)) & mask;
+        while (keys[2 * slot] != null && (keys[2 * slot] != matcher || keys[2 * slot + 1] != item)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Wraps a matcher so its outcomes are recorded in the current memo, and replayed from it.
+     */
+    public static <T> Matcher<T> remember(Matcher<T> matcher) {
+        return matcher instanceof Remembered ? matcher : new Remembered<>(matcher);
+    }
+
+    /**
+     * Returns a copy of an array of matchers, with each of them wrapped by {@link #remember(Matcher)}.
+     */
+    public static <T> Matcher<? super T>[] rememberAll(Matcher<? super T>[] matchers) {
+        Matcher<? super T>[] remembered = matchers.clone();
+        for (int i = 0; i < matchers.length; i++) remembered[i] = remember(matchers[i]);
+        return remembered;
+    }
+
+    private static class Remembered<T> extends BaseMatcher<T> {
+        private final Matcher<T> matcher;
+
+        Remembered(Matcher<T> matcher) {
+            this.matcher = matcher;
+        }
+
+        public boolean matches(Object item) {
+            MatchMemo<?> memo = current.get();
+            if (memo == null) return matcher.matches(item);
+
+            Boolean known = memo.outcome(this, item);
+            if (known != null) return known;
+            boolean outcome = matcher.matches(item);
+            memo.record(this, item, outcome);
+            return outcome;
+        }
+
+        @Override
+        public void describeMismatch(Object item, Description mismatchDescription) {
+            matcher.describeMismatch(item, mismatchDescription);
+        }
+
+        public void describeTo(Description description) {
+            matcher.describeTo(description);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * A collection of hamcrest matchers to make assertions on the elements of any document tree, described by
+ * a {@link NodeModel}. Trees built by other parsers can be matched as they are, without converting them
+ * to <code>org.w3c.dom</code> first.
+ * <p>
+ * The matchers behave and describe themselves exactly like their {@link DomMatchers} counterparts.
+ * </p>
+ */
+public class NodeMatchers {
+
+    private NodeMatchers() {}
+
+    /**
+     * Checks that an element contains at least one element represented by a CSS3 selector.
+     *
+     * @param model the model of the tree
+     * @param selector the CSS3 selector expression
+     */
+    public static <E> Matcher<E> hasSelector(NodeModel<E> model, String selector) {
+        return hasSelector(model, Selector.compile(selector));
+    }
+
+    /**
+     * Checks that an element matches a CSS3 selector with the specified matchers matching the subjects of the
+     * selector in any order.
+     *
+     * @param model the model of the tree
+     * @param selector the CSS3 selector expression
+     * @param subjectsMatchers matchers to match the elements represented by the selector
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <E> Matcher<E> hasSelector(NodeModel<E> model, String selector, Matcher<? super E>... subjectsMatchers) {
+        return hasSelector(model, Selector.compile(selector), subjectsMatchers);
+    }
+
+    /**
+     * Checks that an element matches a CSS3 selector with the specified matcher matching the subjects of the selector.
+     *
+     * @param model the model of the tree
+     * @param selector the CSS3 selector expression
+     * @param subjectsMatcher matcher to match the elements represented by the selector
+     */
+    public static <E> Matcher<E> hasSelector(NodeModel<E> model, String selector, Matcher<Iterable<E>> subjectsMatcher) {
+        return hasSelector(model, Selector.compile(selector), subjectsMatcher);
+    }
+
+    /**
+     * Checks that an element contains at least one element represented by a compiled CSS3 selector.
+     */
+    public static <E> Matcher<E> hasSelector(NodeModel<E> model, CompiledSelector selector) {
+        return HasSelector.hasSelector(model, selector);
+    }
+
+    /**
+     * Checks that an element matches a compiled CSS3 selector with the specified matchers matching the subjects of the
+     * selector in any order.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <E> Matcher<E> hasSelector(NodeModel<E> model, CompiledSelector selector, Matcher<? super E>... subjectsMatchers) {
+        return HasSelector.hasSelector(model, selector, subjectsMatchers);
+    }
+
+    /**
+     * Checks that an element matches a compiled CSS3 selector with the specified matcher matching the subjects of the
+     * selector.
+     */
+    public static <E> Matcher<E> hasSelector(NodeModel<E> model, CompiledSelector selector, Matcher<Iterable<E>> subjectsMatcher) {
+        return HasSelector.hasSelector(model, selector, subjectsMatcher);
+    }
+
+    /**
+     * Checks that an element contains exactly one element represented by a CSS3 selector.
+     */
+    public static <E> Matcher<E> hasUniqueSelector(NodeModel<E> model, String selector) {
+        return hasUniqueSelector(model, Selector.compile(selector));
+    }
+
+    /**
+     * Checks that an element contains exactly one element represented by a CSS3 selector
+     * and that this element matches all the specified matchers.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <E> Matcher<E> hasUniqueSelector(NodeModel<E> model, String selector, Matcher<? super E>... subjectMatchers) {
+        return hasUniqueSelector(model, Selector.compile(selector), subjectMatchers);
+    }
+
+    /**
+     * Checks that an element contains exactly one element represented by a CSS3 selector
+     * and that this element matches the specified matcher.
+     */
+    public static <E> Matcher<E> hasUniqueSelector(NodeModel<E> model, String selector, Matcher<? super E> subjectMatcher) {
+        return hasUniqueSelector(model, Selector.compile(selector), subjectMatcher);
+    }
+
+    /**
+     * Checks that an element contains exactly one element represented by a compiled CSS3 selector.
+     */
+    public static <E> Matcher<E> hasUniqueSelector(NodeModel<E> model, CompiledSelector selector) {
+        return HasUniqueSelector.hasUniqueSelector(model, selector);
+    }
+
+    /**
+     * Checks that an element contains exactly one element represented by a compiled CSS3 selector
+     * and that this element matches all the specified matchers.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <E> Matcher<E> hasUniqueSelector(NodeModel<E> model, CompiledSelector selector, Matcher<? super E>... subjectMatchers) {
+        return HasUniqueSelector.hasUniqueSelector(model, selector, subjectMatchers);
+    }
+
+    /**
+     * Checks that an element contains exactly one element represented by a compiled CSS3 selector
+     * and that this element matches the specified matcher.
+     */
+    public static <E> Matcher<E> hasUniqueSelector(NodeModel<E> model, CompiledSelector selector, Matcher<? super E> subjectMatcher) {
+        return HasUniqueSelector.hasUniqueSelector(model, selector, subjectMatcher);
+    }
+
+    /**
+     * Checks that the number of elements represented by a CSS3 selector matches the specified matcher.
+     */
+    public static <E> Matcher<E> hasSelectorCount(NodeModel<E> model, String selector, Matcher<? super Integer> countMatcher) {
+        return hasSelectorCount(model, Selector.compile(selector), countMatcher);
+    }
+
+    /**
+     * Checks that the number of elements represented by a compiled CSS3 selector matches the specified matcher.
+     */
+    public static <E> Matcher<E> hasSelectorCount(NodeModel<E> model, CompiledSelector selector, Matcher<? super Integer> countMatcher) {
+        return HasSelectorCount.hasSelectorCount(model, selector, countMatcher);
+    }
+
+    /**
+     * Checks that an element contains no element represented by a CSS3 selector.
+     */
+    public static <E> Matcher<E> hasNoSelector(NodeModel<E> model, String selector) {
+        return hasNoSelector(model, Selector.compile(selector));
+    }
+
+    /**
+     * Checks that an element contains no element represented by a compiled CSS3 selector.
+     */
+    public static <E> Matcher<E> hasNoSelector(NodeModel<E> model, CompiledSelector selector) {
+        return HasNoSelector.hasNoSelector(model, selector);
+    }
+
+    /**
+     * Checks that an element has the specified tag.
+     */
+    public static <E> Matcher<E> hasTag(NodeModel<E> model, String tagName) {
+        return HasTag.hasTag(model, tagName);
+    }
+
+    /**
+     * Checks that an element content is equal to the specified text.
+     */
+    public static <E> Matcher<E> hasText(NodeModel<E> model, String contentText) {
+        return HasStreamedContentText.hasContent(model, contentText);
+    }
+
+    /**
+     * Checks that an element content text matches the specified matcher.
+     */
+    public static <E> Matcher<E> hasText(NodeModel<E> model, Matcher<? super String> contentMatcher) {
+        return HasContentText.hasContent(model, contentMatcher);
+    }
+
+    /**
+     * Checks that an element content starts with the specified text.
+     */
+    public static <E> Matcher<E> hasTextStartingWith(NodeModel<E> model, String prefix) {
+        return HasStreamedContentText.hasContentStartingWith(model, prefix);
+    }
+
+    /**
+     * Checks that an element content contains the specified text.
+     */
+    public static <E> Matcher<E> hasTextContaining(NodeModel<E> model, String substring) {
+        return HasStreamedContentText.hasContentContaining(model, substring);
+    }
+
+    /**
+     * Checks that an element content is equal to the specified text, ignoring differences in white space.
+     */
+    public static <E> Matcher<E> hasTextCompressingWhiteSpace(NodeModel<E> model, String contentText) {
+        return HasStreamedContentText.hasContentCompressingWhiteSpace(model, contentText);
+    }
+
+    /**
+     * Checks that an element content contains only blank characters.
+     */
+    public static <E> Matcher<E> hasBlankText(NodeModel<E> model) {
+        return HasStreamedContentText.hasBlankContent(model);
+    }
+
+    /**
+     * Checks for the presence of the specified attribute on an element.
+     */
+    public static <E> Matcher<E> hasAttribute(NodeModel<E> model, String name) {
+        return HasAttribute.hasAttribute(model, name);
+    }
+
+    /**
+     * Checks that an element has an attribute with the specified value.
+     */
+    public static <E> Matcher<E> hasAttribute(NodeModel<E> model, String name, String value) {
+        return HasAttributeValue.hasAttribute(model, name, equalTo(value));
+    }
+
+    /**
+     * Checks that an element has an attribute whose value matches the specified matcher.
+     */
+    public static <E> Matcher<E> hasAttribute(NodeModel<E> model, String name, Matcher<? super String> valueMatcher) {
+        return HasAttributeValue.hasAttribute(model, name, valueMatcher);
+    }
+
+    /**
+     * Checks that an element has the specified name attribute.
+     */
+    public static <E> Matcher<E> hasName(NodeModel<E> model, String name) {
+        return hasAttribute(model, "name", name);
+    }
+
+    /**
+     * Checks that an element has an id attribute with the specified value.
+     */
+    public static <E> Matcher<E> hasId(NodeModel<E> model, String id) {
+        return hasAttribute(model, "id", id);
+    }
+
+    /**
+     * Checks that an element has the specified CSS class. Note that the element can have other classes as well.
+     */
+    public static <E> Matcher<E> hasClassName(NodeModel<E> model, String className) {
+        return HasClassName.hasClassName(model, className);
+    }
+
+    /**
+     * Checks that an element has all the specified CSS classes, in any order.
+     * Note that the element can have other classes as well.
+     */
+    public static <E> Matcher<E> hasClassNames(NodeModel<E> model, String... classNames) {
+        return HasClassName.hasClassNames(model, classNames);
+    }
+
+    /**
+     * Checks that children of an element match in order the specified matchers.
+     * The number of matchers must be the same as the number of children.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <E> Matcher<E> hasChildren(NodeModel<E> model, Matcher<? super E>... childrenMatchers) {
+        return HasChildren.hasChildren(model, childrenMatchers);
+    }
+
+    /**
+     * Checks that children of an element match the specified matcher.
+     */
+    public static <E> Matcher<E> hasChildren(NodeModel<E> model, Matcher<Iterable<E>> childrenMatcher) {
+        return HasChildren.hasChildren(model, childrenMatcher);
+    }
+
+    /**
+     * Checks that at least one child of an element is matched against the given matcher.
+     */
+    public static <E> Matcher<E> hasChild(NodeModel<E> model, Matcher<? super E> childMatcher) {
+        return HasChildren.hasChild(model, childMatcher);
+    }
+}
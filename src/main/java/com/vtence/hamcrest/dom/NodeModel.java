@@ -0,0 +1,64 @@
+package com.vtence.hamcrest.dom;
+
+/**
+ * Gives matchers and selectors access to the elements of a document tree, whatever classes represent it.
+ * <p>
+ * A node model only deals with elements: their tag, attributes, text and their place in the tree. Implement it
+ * to match trees built by another parser without converting them to <code>org.w3c.dom</code> first,
+ * then use {@link NodeMatchers} to create matchers for these trees. {@link W3cNodeModel} is the model used by
+ * {@link DomMatchers}.
+ * </p>
+ * <p>
+ * Models must be stateless or thread-safe, as a single model is shared by all matchers created from it.
+ * </p>
+ *
+ * @param <E> the type of elements in the tree
+ */
+public interface NodeModel<E> {
+
+    /**
+     * Returns the type of elements in the tree. Matchers only match objects of this type.
+     */
+    Class<E> elementType();
+
+    /**
+     * Returns the tag name of an element, as it appears in the document.
+     */
+    String tagName(E element);
+
+    /**
+     * Returns the value of the specified attribute of an element, or <code>null</code> if the element
+     * does not have that attribute.
+     */
+    String attribute(E element, String name);
+
+    /**
+     * Returns the text content of an element, i.e. the text of all its descendants, in document order.
+     */
+    CharSequence text(E element);
+
+    /**
+     * Returns the parent of an element, or <code>null</code> if the element is at the top of its tree.
+     */
+    E parent(E element);
+
+    /**
+     * Tells whether an element is the root element of a document, as opposed to the top of a detached tree.
+     */
+    boolean isRoot(E element);
+
+    /**
+     * Returns the first child element of an element, or <code>null</code> if it has no children elements.
+     */
+    E firstChild(E element);
+
+    /**
+     * Returns the element that immediately follows an element in its parent, or <code>null</code> if it is the last.
+     */
+    E nextSibling(E element);
+
+    /**
+     * Returns the element that immediately precedes an element in its parent, or <code>null</code> if it is the first.
+     */
+    E previousSibling(E element);
+}
@@ -0,0 +1,106 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+import org.w3c.dom.Element;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Selects the elements represented by CSS3 selectors in a tree of any {@link NodeModel}.
+ * <p>
+ * Elements are visited in document order, starting with the root element. On <code>org.w3c.dom</code> trees,
+ * selection is left to {@link Selector}, which narrows down candidates using the index of the document.
+ * </p>
+ *
+ * @param <E> the type of elements in the tree
+ */
+public class NodeSelector<E> {
+    private final NodeModel<E> model;
+    private final E root;
+
+    private NodeSelector(NodeModel<E> model, E root) {
+        this.model = model;
+        this.root = root;
+    }
+
+    public static <E> NodeSelector<E> from(NodeModel<E> model, E root) {
+        return new NodeSelector<>(model, root);
+    }
+
+    public List<E> selectAll(String selector) {
+        return selectAll(Selector.compile(selector));
+    }
+
+    public List<E> selectAll(CompiledSelector selector) {
+        return select(selector, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the elements represented by the selector in document order, up to the specified limit.
+     * The traversal stops as soon as the limit is reached.
+     */
+    public List<E> select(String selector, int limit) {
+        return select(Selector.compile(selector), limit);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<E> select(CompiledSelector selector, int limit) {
+        // Selected nodes are all elements
+        if (model == W3cNodeModel.w3c()) return (List<E>) (List<?>) Selector.from((Element) root).select(selector, limit);
+
+        List<E> selected = new ArrayList<>();
+        Iterator<E> elements = LazySelection.within(model, root, selector).iterator();
+        while (selected.size() < limit && elements.hasNext()) selected.add(elements.next());
+        return selected;
+    }
+
+    /**
+     * Returns the elements represented by the selector in document order, selecting them as they are iterated.
+     * The traversal goes no further than the last element asked for. Selected elements are kept, so the selection
+     * can be iterated again.
+     */
+    public Iterable<E> selectLazily(String selector) {
+        return selectLazily(Selector.compile(selector));
+    }
+
+    public Iterable<E> selectLazily(CompiledSelector selector) {
+        return selectLazily(selector, null);
+    }
+
+    /**
+     * Returns the elements represented by the selector and matched by the filter in document order, selecting them
+     * as they are iterated. Elements the filter rejects are never kept.
+     *
+     * @param filter a cheap matcher without side effects, or <code>null</code> to keep all elements
+     */
+    @SuppressWarnings("unchecked")
+    public Iterable<E> selectLazily(CompiledSelector selector, Matcher<? super E> filter) {
+        if (model == W3cNodeModel.w3c()) {
+            return (Iterable<E>) Selector.from((Element) root).selectLazily(selector, (Matcher<? super Element>) filter);
+        }
+        return LazySelection.within(model, root, selector, filter);
+    }
+
+    /**
+     * Returns the first element, in document order, represented by the selector or <code>null</code> if there's none.
+     * The traversal stops as soon as an element is selected.
+     */
+    public E selectFirst(String selector) {
+        return selectFirst(Selector.compile(selector));
+    }
+
+    public E selectFirst(CompiledSelector selector) {
+        List<E> selected = select(selector, 1);
+        return selected.isEmpty() ? null : selected.get(0);
+    }
+
+    public boolean exists(String selector) {
+        return exists(Selector.compile(selector));
+    }
+
+    public boolean exists(CompiledSelector selector) {
+        return selectFirst(selector) != null;
+    }
+}
@@ -0,0 +1,201 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.Element;
+import se.fishtank.css.selectors.selector.Combinator;
+import se.fishtank.css.selectors.selector.CompoundSelector;
+import se.fishtank.css.selectors.selector.Selector;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of the elements of an indexed document, kept as a bitset of their ordinals in document order.
+ * <p>
+ * Node sets evaluate selectors from left to right. They start with the elements represented by the leftmost compound
+ * selector. Then they follow each combinator from all those elements at once, and narrow the elements reached down
+ * to those represented by the next compound selector. Following a combinator is linear in the number of elements
+ * involved, because the parent and last descendant of each element are known by ordinal. Elements come out in
+ * document order without duplicates, so a selector group is a union of bitsets.
+ * </p>
+ * <p>
+ * Later sibling combinators benefit the most. Matched right to left on each element, <code>li:first-child ~ li</code>
+ * walks back over the previous siblings of every item. Node sets walk each list of siblings once. Other combinators
+ * lead right to left to a single parent or sibling, or to ancestors that are usually few, and are cheaper to match
+ * on each candidate.
+ * </p>
+ */
+final class NodeSet implements Iterable<Element> {
+
+    private final ElementIndex index;
+    private final BitSet ordinals;
+    private final int visited;
+
+    private NodeSet(ElementIndex index, BitSet ordinals, int visited) {
+        this.index = index;
+        this.ordinals = ordinals;
+        this.visited = visited;
+    }
+
+    /**
+     * Selects the elements represented by the selector within the subtree of the root element, root included, or
+     * returns <code>null</code> if the root element is not indexed or too far into its document.
+     * <p>
+     * Compound selectors to the left can be matched anywhere before the root element, so the evaluation covers all
+     * elements from the start of the document up to the end of the subtree. It is only worth it when the subtree
+     * holds at least half of these elements.
+     * </p>
+     */
+    public static NodeSet select(ElementIndex index, Element root, CompiledSelector selector) {
+        int rootOrdinal = index.ordinalOf(root);
+        if (rootOrdinal == ElementIndex.NONE || rootOrdinal > index.size(root)) return null;
+
+        Evaluation evaluation = new Evaluation(index, index.lastDescendant(rootOrdinal));
+        BitSet selected = new BitSet();
+        for (Selector chain : selector.group()) {
+            // Pseudo-elements never represent elements
+            if (chain.pseudoElement == null) selected.or(evaluation.select(chain));
+        }
+        selected.clear(0, rootOrdinal);
+        return new NodeSet(index, selected, evaluation.visited);
+    }
+
+    /**
+     * Tells whether any selector of the group has a later sibling or descendant combinator.
+     */
+    static boolean hasLaterSiblingsOrDescendants(CompiledSelector selector) {
+        for (Selector chain : selector.group()) {
+            for (CompoundSelector compound = chain.compoundSelector; compound.previous != null; compound = compound.previous.second) {
+                Combinator combinator = compound.previous.first;
+                if (combinator == Combinator.LATER_SIBLING || combinator == Combinator.DESCENDANT) return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return ordinals.cardinality();
+    }
+
+    /**
+     * Returns the number of elements matched against compound selectors during the evaluation.
+     */
+    public int visited() {
+        return visited;
+    }
+
+    public Iterator<Element> iterator() {
+        return new Iterator<Element>() {
+            private int next = ordinals.nextSetBit(0);
+
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            public Element next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Element element = index.element(next);
+                next = ordinals.nextSetBit(next + 1);
+                return element;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Evaluates the selectors of a group over the elements of a document up to the last ordinal.
+     */
+    private static class Evaluation {
+        private final ElementIndex index;
+        private final int last;
+        private int visited;
+
+        Evaluation(ElementIndex index, int last) {
+            this.index = index;
+            this.last = last;
+        }
+
+        BitSet select(Selector chain) {
+            BitSet selected = null;
+            for (CompoundSelector compound : SelectorPlan.leftToRight(chain.compoundSelector)) {
+                BitSet reached = selected != null ? follow(selected, compound.previous.first) : null;
+                selected = narrow(reached, compound);
+                if (selected.isEmpty()) break;
+            }
+            return selected;
+        }
+
+        // Keeps the elements reached, or all elements if none were, that the compound selector represents
+        private BitSet narrow(BitSet reached, CompoundSelector compound) {
+            SelectorEngine.Condition condition = SelectorEngine.compound(compound.simpleSelectors);
+            BitSet narrowed = new BitSet(last + 1);
+            ElementIndex.Ordinals seed = index.seed(compound.simpleSelectors);
+            if (seed != null && (reached == null || seed.size < reached.cardinality())) {
+                for (int i = 0; i < seed.size && seed.values[i] <= last; i++) {
+                    int ordinal = seed.values[i];
+                    if (reached == null || reached.get(ordinal)) test(condition, ordinal, narrowed);
+                }
+            } else if (reached != null) {
+                for (int ordinal = reached.nextSetBit(0); ordinal >= 0; ordinal = reached.nextSetBit(ordinal + 1)) {
+                    test(condition, ordinal, narrowed);
+                }
+            } else {
+                for (int ordinal = 0; ordinal <= last; ordinal++) test(condition, ordinal, narrowed);
+            }
+            return narrowed;
+        }
+
+        private void test(SelectorEngine.Condition condition, int ordinal, BitSet narrowed) {
+            if (!index.isElement(ordinal)) return;
+            visited++;
+            if (condition.test(W3cNodeModel.w3c(), index.element(ordinal))) narrowed.set(ordinal);
+        }
+
+        // The elements the combinator leads to from the selected elements
+        private BitSet follow(BitSet selected, Combinator combinator) {
+            BitSet reached = new BitSet(last + 1);
+            switch (combinator) {
+                case DESCENDANT:
+                    // Descendants of a selected element nested in another one are already reached
+                    for (int ordinal = selected.nextSetBit(0); ordinal >= 0; ordinal = selected.nextSetBit(index.lastDescendant(ordinal) + 1)) {
+                        reached.set(ordinal + 1, Math.min(index.lastDescendant(ordinal), last) + 1);
+                    }
+                    break;
+                case CHILD:
+                    for (int ordinal = selected.nextSetBit(0); ordinal >= 0; ordinal = selected.nextSetBit(ordinal + 1)) {
+                        for (int child = ordinal + 1; child <= Math.min(index.lastDescendant(ordinal), last); child = index.lastDescendant(child) + 1) {
+                            reached.set(child);
+                        }
+                    }
+                    break;
+                case NEXT_SIBLING:
+                    for (int ordinal = selected.nextSetBit(0); ordinal >= 0; ordinal = selected.nextSetBit(ordinal + 1)) {
+                        int sibling = index.lastDescendant(ordinal) + 1;
+                        while (isSibling(sibling, ordinal) && !index.isElement(sibling)) sibling = index.lastDescendant(sibling) + 1;
+                        if (isSibling(sibling, ordinal)) reached.set(sibling);
+                    }
+                    break;
+                case LATER_SIBLING:
+                    for (int ordinal = selected.nextSetBit(0); ordinal >= 0; ordinal = selected.nextSetBit(ordinal + 1)) {
+                        // Siblings already reached from an earlier sibling are followed by reached siblings only
+                        int sibling = index.lastDescendant(ordinal) + 1;
+                        while (isSibling(sibling, ordinal) && !reached.get(sibling)) {
+                            reached.set(sibling);
+                            sibling = index.lastDescendant(sibling) + 1;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return reached;
+        }
+
+        private boolean isSibling(int ordinal, int of) {
+            return ordinal <= last && index.parent(ordinal) == index.parent(of);
+        }
+    }
+}
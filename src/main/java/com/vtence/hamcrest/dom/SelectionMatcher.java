@@ -0,0 +1,26 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Description;
+
+
+/**
+ * A matcher that makes its assertion on the elements represented by a selector. Separating the selection from the
+ * assertion lets the elements be selected together with those of other matchers, in a single pass.
+ */
+interface SelectionMatcher<E> {
+
+    NodeModel<E> model();
+
+    CompiledSelector selector();
+
+    /**
+     * Returns the number of selected elements, in document order, the matcher needs to look at.
+     */
+    int limit();
+
+    /**
+     * Makes the assertion on the selected elements, in document order. Elements may be selected lazily, so the
+     * matcher should look no further than it needs to.
+     */
+    boolean matchesSelection(Iterable<E> selected, Description mismatchDescription);
+}
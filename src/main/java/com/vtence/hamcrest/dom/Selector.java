@@ -1,16 +1,22 @@
 package com.vtence.hamcrest.dom;
 
+import org.hamcrest.Matcher;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
-import se.fishtank.css.selectors.Selectors;
-import se.fishtank.css.selectors.dom.W3CNode;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Selector {
-    private Node root;
+    private static final SelectorCache cache = new SelectorCache();
 
-    private Selector(Node root) {
+    private final Element root;
+
+    private Selector(Element root) {
         this.root = root;
     }
 
@@ -18,7 +24,252 @@ public class Selector {
         return new Selector(root);
     }
 
+    /**
+     * Compiles a CSS3 selector expression for later use. Compilation fails immediately if the expression is invalid,
+     * so compiled selectors can be kept as constants and checked once, when the class is loaded.
+     *
+     * @param selector the CSS3 selector expression
+     */
+    public static CompiledSelector compile(String selector) {
+        return cache.compile(selector);
+    }
+
+    /**
+     * Gives access to the cache of compiled selectors shared by all DOM matchers, e.g. to read its hit,
+     * miss and eviction counts.
+     */
+    public static SelectorCache cache() {
+        return cache;
+    }
+
+    /**
+     * Indexes the elements of a live document by id, class and tag name, so that selectors look up their
+     * candidates rather than walk the whole tree. The index is kept with the document, for as long as the
+     * document lives, and is worth it when many selectors are run against the same document.
+     * <p>
+     * The index does not follow changes to the document: the document must not change while it is indexed.
+     * Call {@link #unindex(Document)} before changing it. {@link DomSnapshot}s cannot change and are always indexed.
+     * </p>
+     */
+    public static void index(Document document) {
+        ElementIndex.keep(document);
+    }
+
+    /**
+     * Discards the index of a live document, e.g. before changing it. Selectors walk the tree again afterwards.
+     */
+    public static void unindex(Document document) {
+        ElementIndex.discard(document);
+    }
+
     public List<Node> selectAll(String selector) {
-        return new Selectors<>(new W3CNode(root)).querySelectorAll(selector);
+        return selectAll(compile(selector));
+    }
+
+    public List<Node> selectAll(CompiledSelector selector) {
+        return select(selector, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the nodes represented by the selector in document order, up to the specified limit.
+     * The traversal stops as soon as the limit is reached.
+     */
+    public List<Node> select(String selector, int limit) {
+        return select(compile(selector), limit);
+    }
+
+    public List<Node> select(CompiledSelector selector, int limit) {
+        // The selectors of a group can share steps, a single selector has nothing to plan
+        if (selector.group().size() > 1) return selectEach(Collections.singletonMap(selector, limit)).get(selector);
+
+        boolean timed = DomMetrics.enabled();
+        long start = timed ? System.nanoTime() : 0L;
+        List<Node> selected = new ArrayList<>();
+        int visited = limit > 0 ? select(selector, limit, selected) : 0;
+        if (timed) DomMetrics.recordSelector(selector, System.nanoTime() - start, visited, selected.size());
+        return selected;
+    }
+
+    /**
+     * Returns the elements represented by the selector in document order, selecting them as they are iterated.
+     * The traversal goes no further than the last element asked for. Selected elements are kept, so the selection
+     * can be iterated again.
+     */
+    public Iterable<Element> selectLazily(String selector) {
+        return selectLazily(compile(selector));
+    }
+
+    public Iterable<Element> selectLazily(CompiledSelector selector) {
+        return selectLazily(selector, null);
+    }
+
+    /**
+     * Returns the elements represented by the selector and matched by the filter in document order, selecting them
+     * as they are iterated. Elements the filter rejects are never kept. When the filter tells the tag name or the
+     * id of the elements it matches, the document index may look up candidates by that tag name or id instead.
+     *
+     * @param filter a cheap matcher without side effects, or <code>null</code> to keep all elements
+     */
+    public Iterable<Element> selectLazily(CompiledSelector selector, Matcher<? super Element> filter) {
+        ElementIndex index = ElementIndex.of(root.getOwnerDocument());
+        List<Element> candidates = index != null ? index.candidates(root, selector) : null;
+        List<Element> keyed = filter != null ? candidates(index, ElementKey.of(filter)) : null;
+        if (keyed != null && (candidates == null || keyed.size() < candidates.size())) candidates = keyed;
+        NodeSet set = selectAsSet(index, selector, candidates);
+        if (set != null) return LazySelection.of(W3cNodeModel.w3c(), set.iterator(), filter);
+        if (candidates != null) return LazySelection.among(W3cNodeModel.w3c(), candidates.iterator(), selector, filter);
+        return LazySelection.within(W3cNodeModel.w3c(), root, selector, filter);
+    }
+
+    /**
+     * Selects the nodes represented by several selectors at once, each up to its own limit.
+     * <p>
+     * Selectors that can be narrowed down using the document index are matched against their candidates only. All
+     * others are matched together in a single traversal of the tree, which stops as soon as every limit is reached.
+     * Selectors, and selectors of a group, that start with the same compound selectors are planned to share them,
+     * so their common part is matched once per element. Such selectors are matched in the traversal rather than
+     * against their candidates, unless they have few candidates. Selectors with later sibling or descendant
+     * combinators are evaluated on sets of elements instead, unless they have few candidates.
+     * </p>
+     *
+     * @param limits the maximum number of nodes to select for each selector
+     * @return the selected nodes of each selector, in document order
+     */
+    public Map<CompiledSelector, List<Node>> selectEach(Map<CompiledSelector, Integer> limits) {
+        boolean timed = DomMetrics.enabled();
+        long start = timed ? System.nanoTime() : 0L;
+        Map<CompiledSelector, List<Node>> selection = new HashMap<>();
+        Map<CompiledSelector, Integer> visits = timed ? new HashMap<>() : null;
+        List<CompiledSelector> remaining = new ArrayList<>();
+        // Selectors selected on their own are left out of the traversal, by leaving them nothing to select
+        Map<CompiledSelector, Integer> traversed = new HashMap<>(limits);
+        ElementIndex index = ElementIndex.of(root.getOwnerDocument());
+        SelectorPlan plan = SelectorPlan.of(selectable(limits));
+
+        for (CompiledSelector selector : limits.keySet()) {
+            List<Node> selected = new ArrayList<>();
+            selection.put(selector, selected);
+            int limit = limits.get(selector);
+            if (limit <= 0) continue;
+
+            List<Element> candidates = index != null ? index.candidates(root, selector) : null;
+            NodeSet set = selectAsSet(index, selector, candidates);
+            if (set != null) {
+                traversed.put(selector, 0);
+                selectAmong(set, null, limit, selected);
+                if (timed) visits.put(selector, set.visited());
+                continue;
+            }
+            // Checking many candidates against the ancestors they share costs more than a shared traversal
+            if (candidates == null || plan.plans(selector) && !hasFewCandidates(index, candidates)) {
+                remaining.add(selector);
+                continue;
+            }
+            traversed.put(selector, 0);
+            int visited = selectAmong(candidates, selector, limit, selected);
+            if (timed) visits.put(selector, visited);
+        }
+
+        int visited = remaining.isEmpty() ? 0 : plan.select(root, traversed, selection);
+        if (timed) {
+            for (CompiledSelector selector : remaining) visits.put(selector, visited);
+            long nanos = (System.nanoTime() - start) / Math.max(1, limits.size());
+            for (CompiledSelector selector : limits.keySet()) {
+                Integer visitedBySelector = visits.get(selector);
+                DomMetrics.recordSelector(selector, nanos, visitedBySelector != null ? visitedBySelector : 0, selection.get(selector).size());
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * Returns the first node, in document order, represented by the selector or <code>null</code> if there's none.
+     * The traversal stops as soon as a node is selected.
+     */
+    public Node selectFirst(String selector) {
+        return selectFirst(compile(selector));
+    }
+
+    public Node selectFirst(CompiledSelector selector) {
+        List<Node> selected = select(selector, 1);
+        return selected.isEmpty() ? null : selected.get(0);
+    }
+
+    public boolean exists(String selector) {
+        return exists(compile(selector));
+    }
+
+    public boolean exists(CompiledSelector selector) {
+        return selectFirst(selector) != null;
+    }
+
+    // Selects the nodes of a single selector, from its candidates or in a traversal, and returns the number of elements visited
+    private int select(CompiledSelector selector, int limit, List<Node> selected) {
+        ElementIndex index = ElementIndex.of(root.getOwnerDocument());
+        List<Element> candidates = index != null ? index.candidates(root, selector) : null;
+        NodeSet set = selectAsSet(index, selector, candidates);
+        if (set != null) {
+            selectAmong(set, null, limit, selected);
+            return set.visited();
+        }
+        if (candidates != null) return selectAmong(candidates, selector, limit, selected);
+
+        int visited = 0;
+        for (Node node = root; node != null; node = following(node)) {
+            if (node.getNodeType() != Node.ELEMENT_NODE) continue;
+            visited++;
+            if (selector.matches((Element) node)) {
+                selected.add(node);
+                if (selected.size() == limit) break;
+            }
+        }
+        return visited;
+    }
+
+    // Selects the elements represented by the selector, or all elements without a selector, and returns the number of elements visited
+    private static int selectAmong(Iterable<Element> elements, CompiledSelector selector, int limit, List<Node> selected) {
+        int visited = 0;
+        for (Element element : elements) {
+            visited++;
+            if (selector == null || selector.matches(element)) {
+                selected.add(element);
+                if (selected.size() == limit) break;
+            }
+        }
+        return visited;
+    }
+
+    // The node that follows in document order within the tree under the root, or null at the end of the tree
+    private Node following(Node node) {
+        if (node.getFirstChild() != null) return node.getFirstChild();
+        while (node != root) {
+            if (node.getNextSibling() != null) return node.getNextSibling();
+            node = node.getParentNode();
+        }
+        return null;
+    }
+
+    private static List<CompiledSelector> selectable(Map<CompiledSelector, Integer> limits) {
+        List<CompiledSelector> selectable = new ArrayList<>();
+        for (Map.Entry<CompiledSelector, Integer> limit : limits.entrySet()) {
+            if (limit.getValue() > 0) selectable.add(limit.getKey());
+        }
+        return selectable;
+    }
+
+    // Matched right to left, later sibling and descendant combinators walk back the siblings or ancestors of every candidate
+    private NodeSet selectAsSet(ElementIndex index, CompiledSelector selector, List<Element> candidates) {
+        if (index == null || !NodeSet.hasLaterSiblingsOrDescendants(selector)) return null;
+        if (candidates != null && hasFewCandidates(index, candidates)) return null;
+        return NodeSet.select(index, root, selector);
+    }
+
+    // Few candidates are cheaper to match one by one than all elements of the subtree at once
+    private boolean hasFewCandidates(ElementIndex index, List<Element> candidates) {
+        return 4 * candidates.size() <= index.size(root);
+    }
+
+    private List<Element> candidates(ElementIndex index, ElementKey key) {
+        return index != null && key != null ? index.candidates(root, key) : null;
     }
-}
+}
\ No newline at end of file
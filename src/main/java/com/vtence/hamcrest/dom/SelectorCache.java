@@ -0,0 +1,114 @@
+package com.vtence.hamcrest.dom;
+
+import se.fishtank.css.selectors.Selectors;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of compiled CSS3 selectors, keyed by selector text.
+ * <p>
+ * Once full, the least recently used selector is evicted. The cache is safe to use from multiple threads
+ * and keeps hit, miss and eviction counts that can be read at any time.
+ * </p>
+ * <p>
+ * The cache takes no lock: lookups read a concurrent map and stamp the entry with a logical clock, so
+ * threads compiling cached selectors do not wait for each other. Only misses scan the cache for the
+ * least recently used entry. When several threads compile the same selector at once, they may all parse
+ * it, but they all get the same compiled selector back.
+ * </p>
+ */
+public class SelectorCache {
+
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private final int capacity;
+    private final ConcurrentMap<String, Entry> selectors = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SelectorCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SelectorCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the compiled form of the specified CSS3 selector expression,
+     * parsing it only if it is not already cached.
+     *
+     * @param selector the CSS3 selector expression
+     */
+    public CompiledSelector compile(String selector) {
+        Entry entry = selectors.get(selector);
+        if (entry != null) {
+            hits.increment();
+            touch(entry);
+            return entry.compiled;
+        }
+        misses.increment();
+        // Parse outside of the map, so a slow parse does not hold back other threads
+        Entry parsed = new Entry(new CompiledSelector(selector, Collections.unmodifiableList(Selectors.parse(selector))));
+        touch(parsed);
+        Entry cached = selectors.putIfAbsent(selector, parsed);
+        if (cached != null) return cached.compiled;
+        while (selectors.size() > capacity) evictLeastRecentlyUsed();
+        return parsed.compiled;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return selectors.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public void clear() {
+        selectors.clear();
+    }
+
+    private void touch(Entry entry) {
+        // Only move the clock if the entry is not already the most recently used one
+        if (entry.lastUsed != clock.get()) entry.lastUsed = clock.incrementAndGet();
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Map.Entry<String, Entry> eldest = null;
+        for (Map.Entry<String, Entry> each : selectors.entrySet()) {
+            if (eldest == null || each.getValue().lastUsed < eldest.getValue().lastUsed) eldest = each;
+        }
+        if (eldest != null && selectors.remove(eldest.getKey(), eldest.getValue())) evictions.increment();
+    }
+
+    private static class Entry {
+        final CompiledSelector compiled;
+        volatile long lastUsed = -1;
+
+        Entry(CompiledSelector compiled) {
+            this.compiled = compiled;
+        }
+    }
+}
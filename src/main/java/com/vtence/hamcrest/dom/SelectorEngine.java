@@ -0,0 +1,372 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.Element;
+import se.fishtank.css.selectors.selector.AttributeSelector;
+import se.fishtank.css.selectors.selector.Combinator;
+import se.fishtank.css.selectors.selector.CompoundSelector;
+import se.fishtank.css.selectors.selector.LocalNameSelector;
+import se.fishtank.css.selectors.selector.PseudoClassSelector;
+import se.fishtank.css.selectors.selector.PseudoNegationSelector;
+import se.fishtank.css.selectors.selector.PseudoNthSelector;
+import se.fishtank.css.selectors.selector.Selector;
+import se.fishtank.css.selectors.selector.SimpleSelector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Matches elements against a group of parsed CSS3 selectors.
+ * <p>
+ * Each selector is compiled into a chain of compound selectors, from the subject to the leftmost compound, each
+ * holding the conditions an element must meet. Elements are matched right to left: the element itself first, then
+ * its ancestors or previous siblings, following the combinators. When a compound cannot be matched, the search
+ * restarts from the closest element that can still lead to a match, rather than backtracking through every
+ * alternative.
+ * </p>
+ * <p>
+ * Matching works directly on the elements of any {@link NodeModel}, without wrapping them or copying their attributes.
+ * On <code>org.w3c.dom</code> trees, it gives the same results as the <code>css-selectors</code> matcher.
+ * </p>
+ */
+class SelectorEngine {
+
+    private final Compound[] selectors;
+
+    private SelectorEngine(Compound[] selectors) {
+        this.selectors = selectors;
+    }
+
+    public static SelectorEngine compile(List<Selector> group) {
+        List<Compound> selectors = new ArrayList<>();
+        for (Selector selector : group) {
+            // Pseudo-elements never represent elements
+            if (selector.pseudoElement == null) selectors.add(compile(selector.compoundSelector));
+        }
+        return new SelectorEngine(selectors.toArray(new Compound[0]));
+    }
+
+    /**
+     * Tells whether the element is represented by any of the selectors in the group.
+     */
+    public boolean matches(Element element) {
+        return matches(W3cNodeModel.w3c(), element);
+    }
+
+    /**
+     * Tells whether the element of a tree of the specified model is represented by any of the selectors in the group.
+     */
+    public <E> boolean matches(NodeModel<E> model, E element) {
+        for (Compound selector : selectors) {
+            if (selector.match(model, element) == Result.MATCHED) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Compiles the conditions an element must meet to be represented by a compound selector, ignoring its combinator.
+     */
+    static Condition compound(List<SimpleSelector> simpleSelectors) {
+        return new All(conditions(simpleSelectors));
+    }
+
+    private static Compound compile(CompoundSelector compound) {
+        Condition[] conditions = conditions(compound.simpleSelectors);
+        if (compound.previous == null) return new Compound(conditions, null, null);
+        return new Compound(conditions, compound.previous.first, compile(compound.previous.second));
+    }
+
+    private static Condition[] conditions(List<SimpleSelector> simpleSelectors) {
+        Condition[] conditions = new Condition[simpleSelectors.size()];
+        for (int i = 0; i < conditions.length; i++) {
+            conditions[i] = compile(simpleSelectors.get(i));
+        }
+        return conditions;
+    }
+
+    private static Condition compile(SimpleSelector simple) {
+        if (simple instanceof LocalNameSelector) {
+            return new TagName(((LocalNameSelector) simple).name);
+        }
+        if (simple instanceof AttributeSelector) {
+            return new AttributeValue((AttributeSelector) simple);
+        }
+        if (simple instanceof PseudoNegationSelector) {
+            return new Negation(compile(((PseudoNegationSelector) simple).selector));
+        }
+        if (simple instanceof PseudoClassSelector) {
+            return pseudoClass(((PseudoClassSelector) simple).value);
+        }
+        if (simple instanceof PseudoNthSelector) {
+            return nthPseudoClass((PseudoNthSelector) simple);
+        }
+        // Other functional pseudo-classes are not supported and never match
+        return Never.INSTANCE;
+    }
+
+    private static Condition pseudoClass(String name) {
+        switch (name) {
+            case "first-child":
+                return new FirstChild();
+            case "last-child":
+                return new LastChild();
+            case "only-child":
+                return new Both(new FirstChild(), new LastChild());
+            case "first-of-type":
+                return new NthChild(0, 1, true, false);
+            case "last-of-type":
+                return new NthChild(0, 1, true, true);
+            case "only-of-type":
+                return new Both(new NthChild(0, 1, true, false), new NthChild(0, 1, true, true));
+            case "root":
+                return new Root();
+            case "empty":
+                return new Empty();
+            default:
+                return Never.INSTANCE;
+        }
+    }
+
+    private static Condition nthPseudoClass(PseudoNthSelector nth) {
+        switch (nth.name) {
+            case "nth-child":
+                return new NthChild(nth.a, nth.b, false, false);
+            case "nth-last-child":
+                return new NthChild(nth.a, nth.b, false, true);
+            case "nth-of-type":
+                return new NthChild(nth.a, nth.b, true, false);
+            case "nth-last-of-type":
+                return new NthChild(nth.a, nth.b, true, true);
+            default:
+                return Never.INSTANCE;
+        }
+    }
+
+    private enum Result {
+        MATCHED,
+        NOT_MATCHED,
+        RESTART_FROM_CLOSEST_DESCENDANT,
+        RESTART_FROM_CLOSEST_LATER_SIBLING
+    }
+
+    /**
+     * A compound selector, along with the combinator and compound selector to its left, if any.
+     */
+    private static class Compound {
+        private final Condition[] conditions;
+        private final Combinator combinator;
+        private final Compound previous;
+
+        Compound(Condition[] conditions, Combinator combinator, Compound previous) {
+            this.conditions = conditions;
+            this.combinator = combinator;
+            this.previous = previous;
+        }
+
+        <E> Result match(NodeModel<E> model, E element) {
+            for (Condition condition : conditions) {
+                if (!condition.test(model, element)) return Result.RESTART_FROM_CLOSEST_LATER_SIBLING;
+            }
+            if (previous == null) return Result.MATCHED;
+
+            boolean siblings = combinator == Combinator.NEXT_SIBLING || combinator == Combinator.LATER_SIBLING;
+            // If there's no candidate sibling, a match can still be found for another ancestor
+            Result candidateNotFound = siblings ? Result.RESTART_FROM_CLOSEST_DESCENDANT : Result.NOT_MATCHED;
+
+            E node = element;
+            while ((node = siblings ? model.previousSibling(node) : model.parent(node)) != null) {
+                Result result = previous.match(model, node);
+                if (result == Result.MATCHED || result == Result.NOT_MATCHED) return result;
+
+                switch (combinator) {
+                    case CHILD:
+                        return Result.RESTART_FROM_CLOSEST_DESCENDANT;
+                    case NEXT_SIBLING:
+                        return result;
+                    case LATER_SIBLING:
+                        if (result == Result.RESTART_FROM_CLOSEST_DESCENDANT) return result;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return candidateNotFound;
+        }
+    }
+
+    interface Condition {
+        <E> boolean test(NodeModel<E> model, E element);
+    }
+
+    private static class All implements Condition {
+        private final Condition[] conditions;
+
+        All(Condition[] conditions) {
+            this.conditions = conditions;
+        }
+
+        public <E> boolean test(NodeModel<E> model, E element) {
+            for (Condition condition : conditions) {
+                if (!condition.test(model, element)) return false;
+            }
+            return true;
+        }
+    }
+
+    private static class Never implements Condition {
+        static final Never INSTANCE = new Never();
+
+        public <E> boolean test(NodeModel<E> model, E element) {
+            return false;
+        }
+    }
+
+    private static class Both implements Condition {
+        private final Condition first;
+        private final Condition second;
+
+        Both(Condition first, Condition second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        public <E> boolean test(NodeModel<E> model, E element) {
+            return first.test(model, element) && second.test(model, element);
+        }
+    }
+
+    private static class Negation implements Condition {
+        private final Condition condition;
+
+        Negation(Condition condition) {
+            this.condition = condition;
+        }
+
+        public <E> boolean test(NodeModel<E> model, E element) {
+            return !condition.test(model, element);
+        }
+    }
+
+    private static class TagName implements Condition {
+        private final String name;
+
+        TagName(String name) {
+            this.name = name;
+        }
+
+        public <E> boolean test(NodeModel<E> model, E element) {
+            return model.tagName(element).equalsIgnoreCase(name);
+        }
+    }
+
+    private static class AttributeValue implements Condition {
+        private final String name;
+        private final AttributeSelector.Match match;
+        private final String value;
+        private final String hyphenated;
+
+        AttributeValue(AttributeSelector selector) {
+            this.name = selector.name;
+            this.match = selector.match;
+            this.value = selector.value;
+            this.hyphenated = selector.value + "-";
+        }
+
+        public <E> boolean test(NodeModel<E> model, E element) {
+            String actual = model.attribute(element, name);
+            if (actual == null) return false;
+            switch (match) {
+                case EXISTS:
+                    return true;
+                case EQUALS:
+                    return actual.equals(value);
+                case INCLUDES:
+                    return includes(actual, value);
+                case BEGINS:
+                    return actual.startsWith(value);
+                case ENDS:
+                    return actual.endsWith(value);
+                case CONTAINS:
+                    return actual.contains(value);
+                case HYPHENS:
+                    return actual.equals(value) || actual.startsWith(hyphenated);
+                default:
+                    return false;
+            }
+        }
+
+        // Whether the word is one of the white space separated words of the list
+        private static boolean includes(String list, String word) {
+            // Like splitting the list, an empty word is found before leading white space or in an empty list
+            if (word.isEmpty()) return list.isEmpty() || isSpace(list.charAt(0));
+
+            for (int start = list.indexOf(word); start >= 0; start = list.indexOf(word, start + 1)) {
+                int end = start + word.length();
+                if ((start == 0 || isSpace(list.charAt(start - 1))) && (end == list.length() || isSpace(list.charAt(end)))) return true;
+            }
+            return false;
+        }
+
+        private static boolean isSpace(char c) {
+            return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f';
+        }
+    }
+
+    private static class Root implements Condition {
+        public <E> boolean test(NodeModel<E> model, E element) {
+            return model.isRoot(element);
+        }
+    }
+
+    private static class Empty implements Condition {
+        public <E> boolean test(NodeModel<E> model, E element) {
+            return model.firstChild(element) == null && model.text(element).length() == 0;
+        }
+    }
+
+    // The document element is not considered a child
+    private static <E> boolean isChild(NodeModel<E> model, E element) {
+        return model.parent(element) != null;
+    }
+
+    private static class FirstChild implements Condition {
+        public <E> boolean test(NodeModel<E> model, E element) {
+            return model.previousSibling(element) == null && isChild(model, element);
+        }
+    }
+
+    private static class LastChild implements Condition {
+        public <E> boolean test(NodeModel<E> model, E element) {
+            return model.nextSibling(element) == null && isChild(model, element);
+        }
+    }
+
+    /**
+     * Matches elements at position <code>an+b</code> among their siblings,
+     * counting from the last sibling or only counting siblings of the same type, if asked to.
+     */
+    private static class NthChild implements Condition {
+        private final int a;
+        private final int b;
+        private final boolean ofType;
+        private final boolean fromEnd;
+
+        NthChild(int a, int b, boolean ofType, boolean fromEnd) {
+            this.a = a;
+            this.b = b;
+            this.ofType = ofType;
+            this.fromEnd = fromEnd;
+        }
+
+        public <E> boolean test(NodeModel<E> model, E element) {
+            if (!isChild(model, element)) return false;
+
+            int position = 1;
+            E sibling = element;
+            while ((sibling = fromEnd ? model.nextSibling(sibling) : model.previousSibling(sibling)) != null) {
+                if (!ofType || model.tagName(element).equals(model.tagName(sibling))) position++;
+            }
+            if (a == 0) return position == b;
+            return (position - b) / a >= 0 && (position - b) % a == 0;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import se.fishtank.css.selectors.selector.Combinator;
+import se.fishtank.css.selectors.selector.CompoundSelector;
+import se.fishtank.css.selectors.selector.Selector;
+import se.fishtank.css.selectors.selector.SimpleSelector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A plan to select the subjects of several selectors, and of the selectors of their groups, in a single
+ * top-down traversal of a tree.
+ * <p>
+ * Each selector is broken down, from left to right, into steps: a compound selector along with the combinator that
+ * relates it to the previous step. Selectors that start with the same steps share them, so a common prefix such as
+ * <code>#grid tr</code> in <code>#grid tr.odd, #grid tr.even</code> is matched once per element, however many
+ * selectors it leads to. As the tree is traversed, the plan remembers on which ancestors each step was matched, and
+ * only tries the steps that follow a step matched higher up. An element is selected once for a selector, even if
+ * several selectors of its group represent it, and elements are selected in document order, so the union of a group
+ * needs no deduplication.
+ * </p>
+ * <p>
+ * Only descendant and child combinators can be followed top-down. Selectors with sibling combinators, and all
+ * selectors when they have no step in common, are matched right to left on each element instead.
+ * </p>
+ */
+final class SelectorPlan {
+
+    private static final int NOT_MATCHED = -1;
+
+    // Planned selectors come first, followed by the selectors matched right to left
+    private final CompiledSelector[] selectors;
+    private final int planned;
+    private final Step[] steps;
+
+    private SelectorPlan(List<CompiledSelector> planned, Step[] steps, List<CompiledSelector> unplanned) {
+        this.selectors = new CompiledSelector[planned.size() + unplanned.size()];
+        for (int i = 0; i < planned.size(); i++) selectors[i] = planned.get(i);
+        for (int i = 0; i < unplanned.size(); i++) selectors[planned.size() + i] = unplanned.get(i);
+        this.planned = planned.size();
+        this.steps = steps;
+    }
+
+    public static SelectorPlan of(Collection<CompiledSelector> selectors) {
+        List<CompiledSelector> planned = new ArrayList<>();
+        List<CompiledSelector> unplanned = new ArrayList<>();
+        // A single selector has nothing to share
+        if (selectors.size() == 1 && selectors.iterator().next().group().size() == 1) {
+            return new SelectorPlan(planned, new Step[0], new ArrayList<>(selectors));
+        }
+        for (CompiledSelector selector : selectors) {
+            if (plannable(selector)) planned.add(selector);
+            else unplanned.add(selector);
+        }
+
+        List<Step> steps = new ArrayList<>();
+        Map<StepKey, Step> shared = new HashMap<>();
+        int compounds = 0;
+        for (int index = 0; index < planned.size(); index++) {
+            for (Selector chain : planned.get(index).group()) {
+                if (chain.pseudoElement != null) continue;
+                Step step = null;
+                for (CompoundSelector compound : leftToRight(chain.compoundSelector)) {
+                    compounds++;
+                    Combinator combinator = compound.previous != null ? compound.previous.first : null;
+                    StepKey key = new StepKey(step, combinator, compound.simpleSelectors);
+                    Step next = shared.get(key);
+                    if (next == null) {
+                        next = new Step(steps.size(), step, combinator, SelectorEngine.compound(compound.simpleSelectors));
+                        shared.put(key, next);
+                        steps.add(next);
+                    }
+                    step = next;
+                }
+                if (step != null) step.addSubject(index);
+            }
+        }
+
+        // Without a step in common, matching right to left is cheaper
+        if (steps.size() == compounds) return new SelectorPlan(new ArrayList<>(), new Step[0], new ArrayList<>(selectors));
+        return new SelectorPlan(planned, steps.toArray(new Step[0]), unplanned);
+    }
+
+    /**
+     * Tells whether the selector can be matched top-down, i.e. only has descendant and child combinators.
+     */
+    static boolean plannable(CompiledSelector selector) {
+        for (Selector chain : selector.group()) {
+            for (CompoundSelector compound = chain.compoundSelector; compound.previous != null; compound = compound.previous.second) {
+                Combinator combinator = compound.previous.first;
+                if (combinator != Combinator.DESCENDANT && combinator != Combinator.CHILD) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether the selector is matched top-down, sharing steps with other selectors or selectors of its group.
+     */
+    boolean plans(CompiledSelector selector) {
+        for (int i = 0; i < planned; i++) {
+            if (selectors[i].equals(selector)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of steps of the plan, or zero if no selector is planned.
+     */
+    int steps() {
+        return steps.length;
+    }
+
+    /**
+     * Selects the subjects of each selector in document order within the subtree of the root element, adding them
+     * to the selection until the limit of the selector is reached. The traversal stops once every limit is reached.
+     *
+     * @return the number of elements visited
+     */
+    public int select(Element root, Map<CompiledSelector, Integer> limits, Map<CompiledSelector, List<Node>> selection) {
+        Traversal traversal = new Traversal(limits, selection);
+        // Steps can be matched on the ancestors of the root, but nothing is selected above the root
+        List<Element> ancestors = new ArrayList<>();
+        for (Element ancestor = W3cNodeModel.w3c().parent(root); ancestor != null; ancestor = W3cNodeModel.w3c().parent(ancestor)) {
+            ancestors.add(ancestor);
+        }
+        for (int i = ancestors.size() - 1; i >= 0; i--) traversal.enter(ancestors.get(i), false);
+
+        int visited = 0;
+        Node node = root;
+        while (true) {
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                visited++;
+                traversal.enter((Element) node, true);
+                if (traversal.done()) return visited;
+            }
+            if (node.getFirstChild() != null) {
+                node = node.getFirstChild();
+                continue;
+            }
+            while (true) {
+                if (node.getNodeType() == Node.ELEMENT_NODE) traversal.leave();
+                if (node == root) return visited;
+                if (node.getNextSibling() != null) break;
+                node = node.getParentNode();
+            }
+            node = node.getNextSibling();
+        }
+    }
+
+    static List<CompoundSelector> leftToRight(CompoundSelector subject) {
+        List<CompoundSelector> compounds = new ArrayList<>();
+        for (CompoundSelector compound = subject; compound != null; compound = compound.previous != null ? compound.previous.second : null) {
+            compounds.add(0, compound);
+        }
+        return compounds;
+    }
+
+    /**
+     * The state of a traversal: for each step, the depth of the closest element on the path to the current
+     * element where the step was matched.
+     */
+    private class Traversal {
+        private final int[] remaining = new int[selectors.length];
+        private final List<List<Node>> selected = new ArrayList<>();
+        private final int[] lastSelected = new int[selectors.length];
+        private final int[] closest = new int[steps.length];
+        private int[] matched = new int[16];
+        private int[] previous = new int[16];
+        private int[] frames = new int[16];
+        private int top;
+        private int depth;
+        private int elements;
+        private int pending;
+
+        Traversal(Map<CompiledSelector, Integer> limits, Map<CompiledSelector, List<Node>> selection) {
+            Arrays.fill(closest, NOT_MATCHED);
+            for (int i = 0; i < selectors.length; i++) {
+                remaining[i] = Math.max(0, limits.get(selectors[i]) - selection.get(selectors[i]).size());
+                selected.add(selection.get(selectors[i]));
+                if (remaining[i] > 0) pending++;
+            }
+        }
+
+        void enter(Element element, boolean selecting) {
+            elements++;
+            if (depth == frames.length) frames = Arrays.copyOf(frames, 2 * depth);
+            frames[depth] = top;
+            int count = 0;
+            for (Step step : steps) {
+                if (!reachable(step)) continue;
+                if (!step.condition.test(W3cNodeModel.w3c(), element)) continue;
+                push(step.id);
+                count++;
+                if (selecting) selectFor(step, element);
+            }
+            // Steps matched on this element only lead to steps matched on its descendants
+            for (int i = top - count; i < top; i++) closest[matched[i]] = depth;
+            depth++;
+            if (selecting) selectUnplanned(element);
+        }
+
+        void leave() {
+            depth--;
+            while (top > frames[depth]) {
+                top--;
+                closest[matched[top]] = previous[top];
+            }
+        }
+
+        boolean done() {
+            return pending == 0;
+        }
+
+        private boolean reachable(Step step) {
+            if (step.previous == null) return true;
+            int at = closest[step.previous.id];
+            if (at == NOT_MATCHED) return false;
+            return step.combinator == Combinator.DESCENDANT || at == depth - 1;
+        }
+
+        private void push(int step) {
+            if (top == matched.length) {
+                matched = Arrays.copyOf(matched, 2 * top);
+                previous = Arrays.copyOf(previous, 2 * top);
+            }
+            matched[top] = step;
+            previous[top] = closest[step];
+            top++;
+        }
+
+        private void selectFor(Step step, Element element) {
+            for (int index : step.subjects) {
+                if (lastSelected[index] == elements) continue;
+                lastSelected[index] = elements;
+                select(index, element);
+            }
+        }
+
+        private void selectUnplanned(Element element) {
+            for (int index = planned; index < selectors.length; index++) {
+                if (remaining[index] > 0 && selectors[index].matches(element)) select(index, element);
+            }
+        }
+
+        private void select(int index, Element element) {
+            if (remaining[index] == 0) return;
+            selected.get(index).add(element);
+            if (--remaining[index] == 0) pending--;
+        }
+    }
+
+    /**
+     * A compound selector to match after a previous step, along with the selectors it is the subject of, if any.
+     */
+    private static class Step {
+        final int id;
+        final Step previous;
+        final Combinator combinator;
+        final SelectorEngine.Condition condition;
+        int[] subjects = new int[0];
+
+        Step(int id, Step previous, Combinator combinator, SelectorEngine.Condition condition) {
+            this.id = id;
+            this.previous = previous;
+            this.combinator = combinator;
+            this.condition = condition;
+        }
+
+        void addSubject(int selector) {
+            for (int subject : subjects) {
+                if (subject == selector) return;
+            }
+            subjects = Arrays.copyOf(subjects, subjects.length + 1);
+            subjects[subjects.length - 1] = selector;
+        }
+    }
+
+    private static class StepKey {
+        private final Step previous;
+        private final Combinator combinator;
+        private final List<SimpleSelector> compound;
+
+        StepKey(Step previous, Combinator combinator, List<SimpleSelector> compound) {
+            this.previous = previous;
+            this.combinator = combinator;
+            this.compound = compound;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StepKey)) return false;
+            StepKey other = (StepKey) o;
+            return previous == other.previous && combinator == other.combinator && compound.equals(other.compound);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(previous) + (combinator != null ? combinator.hashCode() : 0)) + compound.hashCode();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.TypeInfo;
+import org.w3c.dom.UserDataHandler;
+
+import java.util.Collections;
+
+import static com.vtence.hamcrest.dom.SnapshotNode.notSupported;
+import static com.vtence.hamcrest.dom.SnapshotNode.readOnly;
+
+/**
+ * A read-only view of an attribute of a {@link DomSnapshot}. Attributes are not part of the tree,
+ * so they have no parent, siblings or children.
+ */
+class SnapshotAttr implements Attr {
+    private final DomSnapshot snapshot;
+    private final int number;
+
+    SnapshotAttr(DomSnapshot snapshot, int number) {
+        this.snapshot = snapshot;
+        this.number = number;
+    }
+
+    public String getName() {
+        return snapshot.strings[snapshot.attributeNames[number]];
+    }
+
+    public String getValue() {
+        return snapshot.strings[snapshot.attributeValues[number]];
+    }
+
+    public boolean getSpecified() {
+        return true;
+    }
+
+    public Element getOwnerElement() {
+        return (Element) snapshot.node(snapshot.ownerOf(number));
+    }
+
+    public TypeInfo getSchemaTypeInfo() {
+        return null;
+    }
+
+    public boolean isId() {
+        return snapshot.idAttributes.get(number);
+    }
+
+    public String getNodeName() {
+        return getName();
+    }
+
+    public String getNodeValue() {
+        return getValue();
+    }
+
+    public String getTextContent() {
+        return getValue();
+    }
+
+    public short getNodeType() {
+        return ATTRIBUTE_NODE;
+    }
+
+    public String getNamespaceURI() {
+        return snapshot.string(snapshot.attributeNamespaces[number]);
+    }
+
+    public String getLocalName() {
+        return snapshot.string(snapshot.attributeLocalNames[number]);
+    }
+
+    public String getPrefix() {
+        return SnapshotElement.prefixOf(getName(), getLocalName());
+    }
+
+    public Node getParentNode() {
+        return null;
+    }
+
+    public NodeList getChildNodes() {
+        return new SnapshotElement.NodeListOf(Collections.<Node>emptyList());
+    }
+
+    public Node getFirstChild() {
+        return null;
+    }
+
+    public Node getLastChild() {
+        return null;
+    }
+
+    public Node getPreviousSibling() {
+        return null;
+    }
+
+    public Node getNextSibling() {
+        return null;
+    }
+
+    public NamedNodeMap getAttributes() {
+        return null;
+    }
+
+    public Document getOwnerDocument() {
+        return snapshot.document();
+    }
+
+    public boolean hasChildNodes() {
+        return false;
+    }
+
+    public boolean hasAttributes() {
+        return false;
+    }
+
+    public String getBaseURI() {
+        return null;
+    }
+
+    public short compareDocumentPosition(Node other) throws DOMException {
+        throw notSupported("compareDocumentPosition");
+    }
+
+    public boolean isSameNode(Node other) {
+        return other == this;
+    }
+
+    public boolean isEqualNode(Node other) {
+        return SnapshotNode.equalNodes(this, other);
+    }
+
+    public Node cloneNode(boolean deep) {
+        throw notSupported("cloneNode");
+    }
+
+    public boolean isSupported(String feature, String version) {
+        return false;
+    }
+
+    public Object getFeature(String feature, String version) {
+        return null;
+    }
+
+    public String lookupPrefix(String namespaceURI) {
+        return snapshot.lookupPrefix(snapshot.ownerOf(number), namespaceURI);
+    }
+
+    public boolean isDefaultNamespace(String namespaceURI) {
+        return snapshot.isDefaultNamespace(snapshot.ownerOf(number), namespaceURI);
+    }
+
+    public String lookupNamespaceURI(String prefix) {
+        return snapshot.lookupNamespaceURI(snapshot.ownerOf(number), prefix);
+    }
+
+    public Object getUserData(String key) {
+        return null;
+    }
+
+    public Object setUserData(String key, Object data, UserDataHandler handler) {
+        throw readOnly();
+    }
+
+    public void setValue(String value) {
+        throw readOnly();
+    }
+
+    public void setNodeValue(String nodeValue) {
+        throw readOnly();
+    }
+
+    public void setTextContent(String textContent) {
+        throw readOnly();
+    }
+
+    public void setPrefix(String prefix) {
+        throw readOnly();
+    }
+
+    public Node insertBefore(Node newChild, Node refChild) {
+        throw readOnly();
+    }
+
+    public Node replaceChild(Node newChild, Node oldChild) {
+        throw readOnly();
+    }
+
+    public Node removeChild(Node oldChild) {
+        throw readOnly();
+    }
+
+    public Node appendChild(Node newChild) {
+        throw readOnly();
+    }
+
+    public void normalize() {
+        throw readOnly();
+    }
+
+    @Override
+    public String toString() {
+        return getName() + "=\"" + getValue() + "\"";
+    }
+}
@@ -0,0 +1,122 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.CharacterData;
+import org.w3c.dom.DOMException;
+
+/**
+ * A read-only view of a text node, CDATA section or comment of a {@link DomSnapshot}.
+ */
+abstract class SnapshotCharacterData extends SnapshotNode implements CharacterData {
+
+    SnapshotCharacterData(DomSnapshot snapshot, int number) {
+        super(snapshot, number);
+    }
+
+    @Override
+    public String getNodeValue() {
+        return getData();
+    }
+
+    public String getTextContent() {
+        return getData();
+    }
+
+    public int getLength() {
+        return getData().length();
+    }
+
+    public String substringData(int offset, int count) {
+        String data = getData();
+        if (offset < 0 || offset > data.length() || count < 0) {
+            throw new DOMException(DOMException.INDEX_SIZE_ERR, "offset " + offset + ", count " + count);
+        }
+        return data.substring(offset, Math.min(data.length(), offset + count));
+    }
+
+    public void setData(String data) {
+        throw readOnly();
+    }
+
+    public void appendData(String arg) {
+        throw readOnly();
+    }
+
+    public void insertData(int offset, String arg) {
+        throw readOnly();
+    }
+
+    public void deleteData(int offset, int count) {
+        throw readOnly();
+    }
+
+    public void replaceData(int offset, int count, String arg) {
+        throw readOnly();
+    }
+
+    static class Text extends SnapshotCharacterData implements org.w3c.dom.Text {
+
+        Text(DomSnapshot snapshot, int number) {
+            super(snapshot, number);
+        }
+
+        public String getNodeName() {
+            return "#text";
+        }
+
+        public String getData() {
+            return snapshot.textContentOf(number);
+        }
+
+        public boolean isElementContentWhitespace() {
+            return false;
+        }
+
+        public String getWholeText() {
+            int first = number;
+            while (isText(snapshot.previousSiblings[first])) first = snapshot.previousSiblings[first];
+            int last = number;
+            while (isText(snapshot.nextSiblings[last])) last = snapshot.nextSiblings[last];
+            return new String(snapshot.text, snapshot.textStarts[first], snapshot.textEnds[last] - snapshot.textStarts[first]);
+        }
+
+        private boolean isText(int node) {
+            return node != DomSnapshot.NONE
+                    && (snapshot.types[node] == TEXT_NODE || snapshot.types[node] == CDATA_SECTION_NODE);
+        }
+
+        public org.w3c.dom.Text splitText(int offset) {
+            throw readOnly();
+        }
+
+        public org.w3c.dom.Text replaceWholeText(String content) {
+            throw readOnly();
+        }
+    }
+
+    static class CDATASection extends Text implements org.w3c.dom.CDATASection {
+
+        CDATASection(DomSnapshot snapshot, int number) {
+            super(snapshot, number);
+        }
+
+        @Override
+        public String getNodeName() {
+            return "#cdata-section";
+        }
+    }
+
+    static class Comment extends SnapshotCharacterData implements org.w3c.dom.Comment {
+
+        Comment(DomSnapshot snapshot, int number) {
+            super(snapshot, number);
+        }
+
+        public String getNodeName() {
+            return "#comment";
+        }
+
+        public String getData() {
+            return snapshot.strings[snapshot.values[number]];
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.CDATASection;
+import org.w3c.dom.Comment;
+import org.w3c.dom.DOMConfiguration;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentFragment;
+import org.w3c.dom.DocumentType;
+import org.w3c.dom.Element;
+import org.w3c.dom.EntityReference;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.ProcessingInstruction;
+import org.w3c.dom.Text;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.util.Collections;
+
+/**
+ * A read-only view of the document node of a {@link DomSnapshot}. Nodes cannot be created, imported or adopted.
+ */
+class SnapshotDocument extends SnapshotNode implements Document {
+
+    SnapshotDocument(DomSnapshot snapshot, int number) {
+        super(snapshot, number);
+    }
+
+    public String getNodeName() {
+        return "#document";
+    }
+
+    public String getTextContent() {
+        return null;
+    }
+
+    @Override
+    public Document getOwnerDocument() {
+        return null;
+    }
+
+    @Override
+    public String getBaseURI() {
+        return getDocumentURI();
+    }
+
+    @Override
+    int namespaceScope() {
+        Element root = getDocumentElement();
+        return root != null ? ((SnapshotElement) root).number : DomSnapshot.NONE;
+    }
+
+    public Element getDocumentElement() {
+        for (Node child = getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) return (Element) child;
+        }
+        return null;
+    }
+
+    public NodeList getElementsByTagName(String tagname) {
+        Element root = getDocumentElement();
+        if (root == null) return new SnapshotElement.NodeListOf(Collections.<Node>emptyList());
+        return new WithDocumentElement(root, root.getElementsByTagName(tagname), tagname.equals("*") || tagname.equals(root.getTagName()));
+    }
+
+    public NodeList getElementsByTagNameNS(String namespaceURI, String localName) {
+        Element root = getDocumentElement();
+        if (root == null) return new SnapshotElement.NodeListOf(Collections.<Node>emptyList());
+        boolean matches = (namespaceURI.equals("*") || namespaceURI.equals(root.getNamespaceURI()))
+                && (localName.equals("*") || localName.equals(root.getLocalName()));
+        return new WithDocumentElement(root, root.getElementsByTagNameNS(namespaceURI, localName), matches);
+    }
+
+    public Element getElementById(String elementId) {
+        for (int attribute = snapshot.idAttributes.nextSetBit(0); attribute >= 0; attribute = snapshot.idAttributes.nextSetBit(attribute + 1)) {
+            if (snapshot.strings[snapshot.attributeValues[attribute]].equals(elementId)) {
+                return (Element) snapshot.node(snapshot.ownerOf(attribute));
+            }
+        }
+        return null;
+    }
+
+    public DocumentType getDoctype() {
+        return null;
+    }
+
+    /**
+     * Returns the implementation of regular documents, since snapshots cannot create any node of their own.
+     */
+    public DOMImplementation getImplementation() {
+        return RegularDocuments.implementation;
+    }
+
+    public String getInputEncoding() {
+        return snapshot.inputEncoding;
+    }
+
+    public String getXmlEncoding() {
+        return snapshot.xmlEncoding;
+    }
+
+    public boolean getXmlStandalone() {
+        return snapshot.xmlStandalone;
+    }
+
+    public String getXmlVersion() {
+        return snapshot.xmlVersion != null ? snapshot.xmlVersion : "1.0";
+    }
+
+    public boolean getStrictErrorChecking() {
+        return true;
+    }
+
+    public String getDocumentURI() {
+        return snapshot.documentURI;
+    }
+
+    public DOMConfiguration getDomConfig() {
+        throw notSupported("getDomConfig");
+    }
+
+    public Element createElement(String tagName) {
+        throw readOnly();
+    }
+
+    public DocumentFragment createDocumentFragment() {
+        throw readOnly();
+    }
+
+    public Text createTextNode(String data) {
+        throw readOnly();
+    }
+
+    public Comment createComment(String data) {
+        throw readOnly();
+    }
+
+    public CDATASection createCDATASection(String data) {
+        throw readOnly();
+    }
+
+    public ProcessingInstruction createProcessingInstruction(String target, String data) {
+        throw readOnly();
+    }
+
+    public Attr createAttribute(String name) {
+        throw readOnly();
+    }
+
+    public EntityReference createEntityReference(String name) {
+        throw readOnly();
+    }
+
+    public Node importNode(Node importedNode, boolean deep) {
+        throw readOnly();
+    }
+
+    public Element createElementNS(String namespaceURI, String qualifiedName) {
+        throw readOnly();
+    }
+
+    public Attr createAttributeNS(String namespaceURI, String qualifiedName) {
+        throw readOnly();
+    }
+
+    public void setXmlStandalone(boolean xmlStandalone) {
+        throw readOnly();
+    }
+
+    public void setXmlVersion(String xmlVersion) {
+        throw readOnly();
+    }
+
+    public void setStrictErrorChecking(boolean strictErrorChecking) {
+        throw readOnly();
+    }
+
+    public void setDocumentURI(String documentURI) {
+        throw readOnly();
+    }
+
+    public Node adoptNode(Node source) {
+        throw readOnly();
+    }
+
+    public void normalizeDocument() {
+        throw readOnly();
+    }
+
+    public Node renameNode(Node n, String namespaceURI, String qualifiedName) {
+        throw readOnly();
+    }
+
+    /**
+     * The elements found under the document element, preceded by the document element itself if it matches.
+     */
+    private static class WithDocumentElement implements NodeList {
+        private final Element root;
+        private final NodeList descendants;
+        private final int offset;
+
+        WithDocumentElement(Element root, NodeList descendants, boolean includesRoot) {
+            this.root = root;
+            this.descendants = descendants;
+            this.offset = includesRoot ? 1 : 0;
+        }
+
+        public Node item(int index) {
+            if (offset == 1 && index == 0) return root;
+            return descendants.item(index - offset);
+        }
+
+        public int getLength() {
+            return descendants.getLength() + offset;
+        }
+    }
+
+    private static class RegularDocuments {
+        static final DOMImplementation implementation = implementation();
+
+        private static DOMImplementation implementation() {
+            try {
+                return DocumentBuilderFactory.newInstance().newDocumentBuilder().getDOMImplementation();
+            } catch (ParserConfigurationException e) {
+                throw new IllegalStateException("No DOM implementation available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.TypeInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A read-only view of an element of a {@link DomSnapshot}.
+ */
+class SnapshotElement extends SnapshotNode implements Element {
+
+    SnapshotElement(DomSnapshot snapshot, int number) {
+        super(snapshot, number);
+    }
+
+    public String getNodeName() {
+        return snapshot.strings[snapshot.names[number]];
+    }
+
+    public String getTagName() {
+        return getNodeName();
+    }
+
+    @Override
+    public String getNamespaceURI() {
+        return snapshot.string(snapshot.namespaces[number]);
+    }
+
+    @Override
+    public String getPrefix() {
+        return prefixOf(getNodeName(), getLocalName());
+    }
+
+    @Override
+    public String getLocalName() {
+        return snapshot.string(snapshot.localNames[number]);
+    }
+
+    public String getTextContent() {
+        return snapshot.textContentOf(number);
+    }
+
+    @Override
+    int namespaceScope() {
+        return number;
+    }
+
+    /**
+     * The text content of the element, read straight from the text buffer of the snapshot.
+     */
+    CharSequence textContent() {
+        return snapshot.textOf(number);
+    }
+
+    @Override
+    public boolean hasAttributes() {
+        return snapshot.attributeStarts[number] < snapshot.attributeEnds[number];
+    }
+
+    @Override
+    public NamedNodeMap getAttributes() {
+        return new Attributes();
+    }
+
+    public String getAttribute(String name) {
+        int attribute = snapshot.attributeNamed(number, name);
+        return attribute != DomSnapshot.NONE ? snapshot.strings[snapshot.attributeValues[attribute]] : "";
+    }
+
+    /**
+     * Returns the value of the attribute with the specified qualified name, or <code>null</code> if there's none.
+     */
+    String attributeValue(String name) {
+        int attribute = snapshot.attributeNamed(number, name);
+        return attribute != DomSnapshot.NONE ? snapshot.strings[snapshot.attributeValues[attribute]] : null;
+    }
+
+    public boolean hasAttribute(String name) {
+        return snapshot.attributeNamed(number, name) != DomSnapshot.NONE;
+    }
+
+    public Attr getAttributeNode(String name) {
+        int attribute = snapshot.attributeNamed(number, name);
+        return attribute != DomSnapshot.NONE ? snapshot.attribute(attribute) : null;
+    }
+
+    public String getAttributeNS(String namespaceURI, String localName) {
+        Attr attribute = getAttributeNodeNS(namespaceURI, localName);
+        return attribute != null ? attribute.getValue() : "";
+    }
+
+    public boolean hasAttributeNS(String namespaceURI, String localName) {
+        return getAttributeNodeNS(namespaceURI, localName) != null;
+    }
+
+    public Attr getAttributeNodeNS(String namespaceURI, String localName) {
+        for (int attribute = snapshot.attributeStarts[number]; attribute < snapshot.attributeEnds[number]; attribute++) {
+            if (equal(namespaceURI, snapshot.string(snapshot.attributeNamespaces[attribute]))
+                    && localName.equals(snapshot.string(snapshot.attributeLocalNames[attribute]))) {
+                return snapshot.attribute(attribute);
+            }
+        }
+        return null;
+    }
+
+    public NodeList getElementsByTagName(String name) {
+        List<Node> elements = new ArrayList<>();
+        for (int node = number + 1; node <= snapshot.lastDescendants[number]; node++) {
+            if (snapshot.types[node] != ELEMENT_NODE) continue;
+            if (name.equals("*") || name.equals(snapshot.strings[snapshot.names[node]])) elements.add(snapshot.node(node));
+        }
+        return new NodeListOf(elements);
+    }
+
+    public NodeList getElementsByTagNameNS(String namespaceURI, String localName) {
+        List<Node> elements = new ArrayList<>();
+        for (int node = number + 1; node <= snapshot.lastDescendants[number]; node++) {
+            if (snapshot.types[node] != ELEMENT_NODE) continue;
+            if ((namespaceURI.equals("*") || equal(namespaceURI, snapshot.string(snapshot.namespaces[node])))
+                    && (localName.equals("*") || localName.equals(snapshot.string(snapshot.localNames[node])))) {
+                elements.add(snapshot.node(node));
+            }
+        }
+        return new NodeListOf(elements);
+    }
+
+    public TypeInfo getSchemaTypeInfo() {
+        return null;
+    }
+
+    public void setAttribute(String name, String value) {
+        throw readOnly();
+    }
+
+    public void removeAttribute(String name) {
+        throw readOnly();
+    }
+
+    public Attr setAttributeNode(Attr newAttr) {
+        throw readOnly();
+    }
+
+    public Attr removeAttributeNode(Attr oldAttr) {
+        throw readOnly();
+    }
+
+    public void setAttributeNS(String namespaceURI, String qualifiedName, String value) {
+        throw readOnly();
+    }
+
+    public void removeAttributeNS(String namespaceURI, String localName) {
+        throw readOnly();
+    }
+
+    public Attr setAttributeNodeNS(Attr newAttr) {
+        throw readOnly();
+    }
+
+    public void setIdAttribute(String name, boolean isId) {
+        throw readOnly();
+    }
+
+    public void setIdAttributeNS(String namespaceURI, String localName, boolean isId) {
+        throw readOnly();
+    }
+
+    public void setIdAttributeNode(Attr idAttr, boolean isId) {
+        throw readOnly();
+    }
+
+    static String prefixOf(String qualifiedName, String localName) {
+        if (localName == null) return null;
+        int colon = qualifiedName.indexOf(':');
+        return colon > 0 ? qualifiedName.substring(0, colon) : null;
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private class Attributes implements NamedNodeMap {
+        public Node getNamedItem(String name) {
+            return getAttributeNode(name);
+        }
+
+        public Node getNamedItemNS(String namespaceURI, String localName) {
+            return getAttributeNodeNS(namespaceURI, localName);
+        }
+
+        public Node item(int index) {
+            if (index < 0 || index >= getLength()) return null;
+            return snapshot.attribute(snapshot.attributeStarts[number] + index);
+        }
+
+        public int getLength() {
+            return snapshot.attributeEnds[number] - snapshot.attributeStarts[number];
+        }
+
+        public Node setNamedItem(Node arg) {
+            throw readOnly();
+        }
+
+        public Node removeNamedItem(String name) {
+            throw readOnly();
+        }
+
+        public Node setNamedItemNS(Node arg) {
+            throw readOnly();
+        }
+
+        public Node removeNamedItemNS(String namespaceURI, String localName) {
+            throw readOnly();
+        }
+    }
+
+    static class NodeListOf implements NodeList {
+        private final List<Node> nodes;
+
+        NodeListOf(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        public Node item(int index) {
+            return index >= 0 && index < nodes.size() ? nodes.get(index) : null;
+        }
+
+        public int getLength() {
+            return nodes.size();
+        }
+    }
+}
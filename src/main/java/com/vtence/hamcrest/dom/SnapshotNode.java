@@ -0,0 +1,264 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.UserDataHandler;
+
+/**
+ * A read-only view of a node of a {@link DomSnapshot}. Each node has a single view, so views can be compared by identity.
+ */
+abstract class SnapshotNode implements Node {
+    final DomSnapshot snapshot;
+    final int number;
+
+    SnapshotNode(DomSnapshot snapshot, int number) {
+        this.snapshot = snapshot;
+        this.number = number;
+    }
+
+    public String getNodeValue() {
+        return null;
+    }
+
+    public short getNodeType() {
+        return snapshot.types[number];
+    }
+
+    public Node getParentNode() {
+        return snapshot.node(snapshot.parents[number]);
+    }
+
+    public NodeList getChildNodes() {
+        return new ChildNodes();
+    }
+
+    public Node getFirstChild() {
+        return snapshot.node(snapshot.firstChildren[number]);
+    }
+
+    public Node getLastChild() {
+        return snapshot.node(snapshot.lastChildren[number]);
+    }
+
+    public Node getPreviousSibling() {
+        return snapshot.node(snapshot.previousSiblings[number]);
+    }
+
+    public Node getNextSibling() {
+        return snapshot.node(snapshot.nextSiblings[number]);
+    }
+
+    public NamedNodeMap getAttributes() {
+        return null;
+    }
+
+    public Document getOwnerDocument() {
+        return snapshot.document();
+    }
+
+    public boolean hasChildNodes() {
+        return snapshot.firstChildren[number] != DomSnapshot.NONE;
+    }
+
+    public boolean hasAttributes() {
+        return false;
+    }
+
+    public String getNamespaceURI() {
+        return null;
+    }
+
+    public String getPrefix() {
+        return null;
+    }
+
+    public String getLocalName() {
+        return null;
+    }
+
+    public String getBaseURI() {
+        return null;
+    }
+
+    public short compareDocumentPosition(Node other) {
+        if (other == this) return 0;
+        if (!(other instanceof SnapshotNode) || ((SnapshotNode) other).snapshot != snapshot) {
+            throw new DOMException(DOMException.NOT_SUPPORTED_ERR, "cannot compare nodes of different snapshots");
+        }
+        int otherNumber = ((SnapshotNode) other).number;
+        if (contains(number, otherNumber)) return DOCUMENT_POSITION_CONTAINED_BY | DOCUMENT_POSITION_FOLLOWING;
+        if (contains(otherNumber, number)) return DOCUMENT_POSITION_CONTAINS | DOCUMENT_POSITION_PRECEDING;
+        return otherNumber > number ? DOCUMENT_POSITION_FOLLOWING : DOCUMENT_POSITION_PRECEDING;
+    }
+
+    private boolean contains(int ancestor, int descendant) {
+        return ancestor < descendant && descendant <= snapshot.lastDescendants[ancestor];
+    }
+
+    public boolean isSameNode(Node other) {
+        return other == this;
+    }
+
+    public boolean isEqualNode(Node other) {
+        return equalNodes(this, other);
+    }
+
+    public Node cloneNode(boolean deep) {
+        throw notSupported("cloneNode");
+    }
+
+    public boolean isSupported(String feature, String version) {
+        return false;
+    }
+
+    public Object getFeature(String feature, String version) {
+        return null;
+    }
+
+    public String lookupPrefix(String namespaceURI) {
+        return snapshot.lookupPrefix(namespaceScope(), namespaceURI);
+    }
+
+    public boolean isDefaultNamespace(String namespaceURI) {
+        return snapshot.isDefaultNamespace(namespaceScope(), namespaceURI);
+    }
+
+    public String lookupNamespaceURI(String prefix) {
+        return snapshot.lookupNamespaceURI(namespaceScope(), prefix);
+    }
+
+    /**
+     * Returns the number of the element whose namespace declarations are in scope of the node, which is its parent
+     * element unless the node is an element itself.
+     */
+    int namespaceScope() {
+        int parent = snapshot.parents[number];
+        return snapshot.isElement(parent) ? parent : DomSnapshot.NONE;
+    }
+
+    public Object getUserData(String key) {
+        return null;
+    }
+
+    public Object setUserData(String key, Object data, UserDataHandler handler) {
+        throw readOnly();
+    }
+
+    public void setNodeValue(String nodeValue) {
+        throw readOnly();
+    }
+
+    public Node insertBefore(Node newChild, Node refChild) {
+        throw readOnly();
+    }
+
+    public Node replaceChild(Node newChild, Node oldChild) {
+        throw readOnly();
+    }
+
+    public Node removeChild(Node oldChild) {
+        throw readOnly();
+    }
+
+    public Node appendChild(Node newChild) {
+        throw readOnly();
+    }
+
+    public void normalize() {
+        throw readOnly();
+    }
+
+    public void setPrefix(String prefix) {
+        throw readOnly();
+    }
+
+    public void setTextContent(String textContent) {
+        throw readOnly();
+    }
+
+    @Override
+    public String toString() {
+        return "[" + getNodeName() + ": " + getNodeValue() + "]";
+    }
+
+    /**
+     * Compares nodes as described by <code>Node.isEqualNode</code>, whatever DOM implementation they come from.
+     */
+    static boolean equalNodes(Node node, Node other) {
+        if (other == node) return true;
+        if (other == null || other.getNodeType() != node.getNodeType()) return false;
+        if (!equal(node.getNodeName(), other.getNodeName()) || !equal(node.getLocalName(), other.getLocalName())
+                || !equal(node.getNamespaceURI(), other.getNamespaceURI()) || !equal(node.getPrefix(), other.getPrefix())
+                || !equal(node.getNodeValue(), other.getNodeValue())) {
+            return false;
+        }
+        if (!equalAttributes(node.getAttributes(), other.getAttributes())) return false;
+        // The value of an attribute says it all, whether or not it is also kept as text children
+        if (node.getNodeType() == ATTRIBUTE_NODE) return true;
+
+        Node child = node.getFirstChild();
+        Node otherChild = other.getFirstChild();
+        while (child != null && otherChild != null) {
+            if (!equalNodes(child, otherChild)) return false;
+            child = child.getNextSibling();
+            otherChild = otherChild.getNextSibling();
+        }
+        return child == null && otherChild == null;
+    }
+
+    private static boolean equalAttributes(NamedNodeMap attributes, NamedNodeMap others) {
+        int length = attributes != null ? attributes.getLength() : 0;
+        if (length != (others != null ? others.getLength() : 0)) return false;
+        for (int i = 0; i < length; i++) {
+            Node attribute = attributes.item(i);
+            Node other = attribute.getLocalName() != null ?
+                    others.getNamedItemNS(attribute.getNamespaceURI(), attribute.getLocalName()) :
+                    others.getNamedItem(attribute.getNodeName());
+            if (!equalNodes(attribute, other)) return false;
+        }
+        return true;
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    static DOMException readOnly() {
+        return new DOMException(DOMException.NO_MODIFICATION_ALLOWED_ERR, "DOM snapshots are read-only");
+    }
+
+    static DOMException notSupported(String operation) {
+        return new DOMException(DOMException.NOT_SUPPORTED_ERR, operation + " is not supported by DOM snapshots");
+    }
+
+    /**
+     * The children of a node. The list counts the children once and walks to each item from the last one it returned,
+     * so looping over the children by index follows each sibling link once. Like the child lists of other DOM
+     * implementations, it is not meant to be shared between threads.
+     */
+    private class ChildNodes implements NodeList {
+        private int length = -1;
+        private int position = 0;
+        private int child = snapshot.firstChildren[number];
+
+        public Node item(int index) {
+            if (index < 0 || index >= getLength()) return null;
+            for (; position < index; position++) child = snapshot.nextSiblings[child];
+            for (; position > index; position--) child = snapshot.previousSiblings[child];
+            return snapshot.node(child);
+        }
+
+        public int getLength() {
+            if (length < 0) {
+                length = 0;
+                for (int child = snapshot.firstChildren[number]; child != DomSnapshot.NONE; child = snapshot.nextSiblings[child]) {
+                    length++;
+                }
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.ProcessingInstruction;
+
+/**
+ * A read-only view of a processing instruction of a {@link DomSnapshot}.
+ */
+class SnapshotProcessingInstruction extends SnapshotNode implements ProcessingInstruction {
+
+    SnapshotProcessingInstruction(DomSnapshot snapshot, int number) {
+        super(snapshot, number);
+    }
+
+    public String getNodeName() {
+        return getTarget();
+    }
+
+    @Override
+    public String getNodeValue() {
+        return getData();
+    }
+
+    public String getTextContent() {
+        return getData();
+    }
+
+    public String getTarget() {
+        return snapshot.strings[snapshot.names[number]];
+    }
+
+    public String getData() {
+        return snapshot.strings[snapshot.values[number]];
+    }
+
+    public void setData(String data) {
+        throw readOnly();
+    }
+}
@@ -0,0 +1,87 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+
+import java.io.InputStream;
+
+/**
+ * A collection of hamcrest matchers to make assertions on XML documents read from an {@link java.io.InputStream},
+ * without building a DOM.
+ * <p>
+ * Documents are read in a single forward-only pass, keeping in memory only the elements that enclose the current
+ * element. This makes it possible to check very large documents, but limits the CSS3 selectors that can be used:
+ * descendant and child combinators, tag names, ids, classes, attributes, negations and the <code>:root</code> and
+ * <code>:first-child</code> pseudo-classes are supported. Other selectors are rejected when the matcher is created.
+ * </p>
+ * <p>
+ * Matching reads the stream, so a stream can be matched only once. Documents may declare a document type, but
+ * external DTDs and entities are never fetched.
+ * </p>
+ */
+public class StreamMatchers {
+
+    private StreamMatchers() {}
+
+    /**
+     * Checks that an XML document contains at least one element represented by a CSS3 selector.
+     * Reading stops at the first element selected.
+     *
+     * @param selector the CSS3 selector expression
+     */
+    public static Matcher<InputStream> hasSelector(String selector) {
+        return HasStreamedSelector.hasSelector(selector);
+    }
+
+    /**
+     * Checks that an XML document contains at least one element represented by a compiled CSS3 selector.
+     * Reading stops at the first element selected.
+     *
+     * @param selector the compiled CSS3 selector
+     */
+    public static Matcher<InputStream> hasSelector(CompiledSelector selector) {
+        return HasStreamedSelector.hasSelector(selector);
+    }
+
+    /**
+     * Checks that an XML document contains no element represented by a CSS3 selector.
+     * Reading stops at the first element selected.
+     *
+     * @param selector the CSS3 selector expression
+     */
+    public static Matcher<InputStream> hasNoSelector(String selector) {
+        return HasStreamedSelector.hasNoSelector(selector);
+    }
+
+    /**
+     * Checks that an XML document contains no element represented by a compiled CSS3 selector.
+     * Reading stops at the first element selected.
+     *
+     * @param selector the compiled CSS3 selector
+     */
+    public static Matcher<InputStream> hasNoSelector(CompiledSelector selector) {
+        return HasStreamedSelector.hasNoSelector(selector);
+    }
+
+    /**
+     * Checks that the number of elements of an XML document represented by a CSS3 selector
+     * matches the specified matcher. When the count is checked against a range, e.g.
+     * {@link HasSelectorCount#atMost(int)}, reading stops as soon as the outcome is known.
+     *
+     * @param selector the CSS3 selector expression
+     * @param countMatcher the matcher to match the number of selected elements
+     */
+    public static Matcher<InputStream> hasSelectorCount(String selector, Matcher<? super Integer> countMatcher) {
+        return HasStreamedSelector.hasSelectorCount(selector, countMatcher);
+    }
+
+    /**
+     * Checks that the number of elements of an XML document represented by a compiled CSS3 selector
+     * matches the specified matcher.
+     *
+     * @param selector the compiled CSS3 selector
+     * @param countMatcher the matcher to match the number of selected elements
+     */
+    public static Matcher<InputStream> hasSelectorCount(CompiledSelector selector, Matcher<? super Integer> countMatcher) {
+        return HasStreamedSelector.hasSelectorCount(selector, countMatcher);
+    }
+}
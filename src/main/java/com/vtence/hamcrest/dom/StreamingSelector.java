@@ -0,0 +1,246 @@
+package com.vtence.hamcrest.dom;
+
+import se.fishtank.css.selectors.selector.AttributeSelector;
+import se.fishtank.css.selectors.selector.Combinator;
+import se.fishtank.css.selectors.selector.CompoundSelector;
+import se.fishtank.css.selectors.selector.LocalNameSelector;
+import se.fishtank.css.selectors.selector.PseudoClassSelector;
+import se.fishtank.css.selectors.selector.PseudoNegationSelector;
+import se.fishtank.css.selectors.selector.Selector;
+import se.fishtank.css.selectors.selector.SimpleSelector;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates a CSS3 selector over an XML stream in a single forward-only pass, without building a DOM.
+ * <p>
+ * Only the elements on the path from the document element to the current element are kept in memory,
+ * so memory use is bounded by the depth of the document rather than by its size. This restricts
+ * selectors to those that can be decided as soon as an element starts: descendant and child
+ * combinators, tag names, attributes (which includes ids and classes), negations and the
+ * <code>:root</code> and <code>:first-child</code> pseudo-classes.
+ * </p>
+ */
+class StreamingSelector {
+
+    private static final Pattern WHITESPACE = Pattern.compile("[ \\t\\r\\n\\f]+");
+    // Factories are not guaranteed to be thread-safe, so each thread creates its readers from its own factory
+    private static final ThreadLocal<XMLInputFactory> factory = ThreadLocal.withInitial(StreamingSelector::createInputFactory);
+
+    private final CompiledSelector selector;
+
+    private StreamingSelector(CompiledSelector selector) {
+        this.selector = selector;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the selector cannot be evaluated in a forward-only pass
+     */
+    public static StreamingSelector compile(CompiledSelector selector) {
+        for (Selector each : selector.group()) {
+            if (each.pseudoElement != null) throw unsupported(selector, "pseudo-elements");
+            for (CompoundSelector compound = each.compoundSelector; compound != null; compound = previous(compound)) {
+                for (SimpleSelector simple : compound.simpleSelectors) checkSupported(selector, simple);
+                if (compound.previous == null) continue;
+                Combinator combinator = compound.previous.first;
+                if (combinator != Combinator.DESCENDANT && combinator != Combinator.CHILD) {
+                    throw unsupported(selector, "sibling combinators");
+                }
+            }
+        }
+        return new StreamingSelector(selector);
+    }
+
+    public CompiledSelector selector() {
+        return selector;
+    }
+
+    /**
+     * Reads the stream until the specified number of elements have been selected, or until the end of the document.
+     */
+    public Selection select(InputStream xml, int limit) throws XMLStreamException {
+        Selection selection = new Selection();
+        if (limit <= 0) return selection;
+
+        XMLStreamReader reader = factory.get().createXMLStreamReader(xml);
+        try {
+            List<Frame> path = new ArrayList<>();
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    selection.visited++;
+                    Frame parent = path.isEmpty() ? null : path.get(path.size() - 1);
+                    path.add(new Frame(reader, parent == null || parent.children++ == 0));
+                    if (matches(path)) {
+                        selection.add(path.get(path.size() - 1).name);
+                        if (selection.count() == limit) break;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    path.remove(path.size() - 1);
+                }
+            }
+            return selection;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private boolean matches(List<Frame> path) {
+        for (Selector each : selector.group()) {
+            if (matches(each.compoundSelector, path, path.size() - 1)) return true;
+        }
+        return false;
+    }
+
+    private static boolean matches(CompoundSelector compound, List<Frame> path, int depth) {
+        for (SimpleSelector simple : compound.simpleSelectors) {
+            if (!matches(simple, path.get(depth), depth)) return false;
+        }
+        if (compound.previous == null) return true;
+
+        CompoundSelector ancestor = compound.previous.second;
+        if (compound.previous.first == Combinator.CHILD) {
+            return depth > 0 && matches(ancestor, path, depth - 1);
+        }
+        for (int i = depth - 1; i >= 0; i--) {
+            if (matches(ancestor, path, i)) return true;
+        }
+        return false;
+    }
+
+    private static boolean matches(SimpleSelector simple, Frame element, int depth) {
+        if (simple instanceof LocalNameSelector) {
+            String name = ((LocalNameSelector) simple).name;
+            return name.equals("*") || element.name.equalsIgnoreCase(name);
+        }
+        if (simple instanceof AttributeSelector) {
+            return matches((AttributeSelector) simple, element.attributes.get(((AttributeSelector) simple).name));
+        }
+        if (simple instanceof PseudoNegationSelector) {
+            return !matches(((PseudoNegationSelector) simple).selector, element, depth);
+        }
+        String pseudoClass = ((PseudoClassSelector) simple).value;
+        // Like in a DOM, the document element is the root, but is not considered a child
+        return pseudoClass.equals("root") ? depth == 0 : depth > 0 && element.firstChild;
+    }
+
+    private static boolean matches(AttributeSelector attribute, String value) {
+        if (value == null) return false;
+        switch (attribute.match) {
+            case EXISTS:
+                return true;
+            case EQUALS:
+                return value.equals(attribute.value);
+            case INCLUDES:
+                for (String word : WHITESPACE.split(value)) {
+                    if (word.equals(attribute.value)) return true;
+                }
+                return false;
+            case BEGINS:
+                return value.startsWith(attribute.value);
+            case ENDS:
+                return value.endsWith(attribute.value);
+            case CONTAINS:
+                return value.contains(attribute.value);
+            case HYPHENS:
+                return value.equals(attribute.value) || value.startsWith(attribute.value + "-");
+            default:
+                return false;
+        }
+    }
+
+    private static void checkSupported(CompiledSelector selector, SimpleSelector simple) {
+        if (simple instanceof LocalNameSelector || simple instanceof AttributeSelector) return;
+        if (simple instanceof PseudoNegationSelector) {
+            checkSupported(selector, ((PseudoNegationSelector) simple).selector);
+            return;
+        }
+        if (simple instanceof PseudoClassSelector) {
+            String pseudoClass = ((PseudoClassSelector) simple).value;
+            if (pseudoClass.equals("root") || pseudoClass.equals("first-child")) return;
+        }
+        throw unsupported(selector, "pseudo-classes other than :root and :first-child");
+    }
+
+    private static CompoundSelector previous(CompoundSelector compound) {
+        return compound.previous != null ? compound.previous.second : null;
+    }
+
+    private static IllegalArgumentException unsupported(CompiledSelector selector, String feature) {
+        return new IllegalArgumentException(
+                "Selector \"" + selector + "\" cannot be evaluated on a stream: " + feature + " are not supported");
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // Documents may declare a document type, as XHTML pages do, but nothing is ever fetched from outside the stream
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setXMLResolver((publicId, systemId, baseUri, namespace) -> new ByteArrayInputStream(new byte[0]));
+        return factory;
+    }
+
+    /**
+     * The open element at some depth of the document, as far as it has been read.
+     */
+    private static class Frame {
+        final String name;
+        final Map<String, String> attributes = new LinkedHashMap<>();
+        final boolean firstChild;
+        int children;
+
+        Frame(XMLStreamReader reader, boolean firstChild) {
+            this.name = qualifiedName(reader.getPrefix(), reader.getLocalName());
+            this.firstChild = firstChild;
+            // As in a DOM, namespace declarations are attributes too
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                String prefix = reader.getNamespacePrefix(i);
+                attributes.put(prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix, reader.getNamespaceURI(i));
+            }
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                attributes.put(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i));
+            }
+        }
+
+        private static String qualifiedName(String prefix, String localName) {
+            return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+        }
+    }
+
+    /**
+     * The outcome of a streaming selection: how many elements were selected and the name of the first one.
+     */
+    public static class Selection {
+        private int count;
+        private int visited;
+        private String first;
+
+        void add(String name) {
+            if (count++ == 0) first = name;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public String first() {
+            return first;
+        }
+
+        /**
+         * Returns the number of elements read from the stream.
+         */
+        public int visited() {
+            return visited;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Reads the text content of an element one character at a time. The text content of DOM elements is read
+ * walking their descendant text nodes in document order. This yields the same characters as {@link org.w3c.dom.Node#getTextContent()}, without concatenating
+ * them into a string.
+ */
+class TextContent {
+    public static final int END = -1;
+
+    private final Node root;
+    private Node node;
+    private CharSequence data;
+    private int index;
+
+    private TextContent(Element root, CharSequence data) {
+        this.root = root;
+        this.node = root;
+        this.data = data;
+    }
+
+    public static <E> TextContent of(NodeModel<E> model, E element) {
+        // Only DOM elements are worth walking, other models give their text as they store it
+        if (model == W3cNodeModel.w3c()) return of((Element) element);
+        return new TextContent(null, model.text(element));
+    }
+
+    public static TextContent of(Element element) {
+        // The text of a snapshot element is already in one piece
+        if (element instanceof SnapshotElement) return new TextContent(null, ((SnapshotElement) element).textContent());
+        return new TextContent(element, "");
+    }
+
+    /**
+     * Returns the next character of text or {@link #END} when all text has been read.
+     */
+    public int read() {
+        while (index == data.length()) {
+            if (!advance()) return END;
+        }
+        return data.charAt(index++);
+    }
+
+    private boolean advance() {
+        if (root == null) return false;
+        do {
+            node = following(node);
+            if (node == null) return false;
+        } while (node.getNodeType() != Node.TEXT_NODE && node.getNodeType() != Node.CDATA_SECTION_NODE);
+        data = node.getNodeValue();
+        index = 0;
+        return true;
+    }
+
+    private Node following(Node node) {
+        if (node.getFirstChild() != null) return node.getFirstChild();
+        while (node != root) {
+            if (node.getNextSibling() != null) return node.getNextSibling();
+            node = node.getParentNode();
+        }
+        return null;
+    }
+}
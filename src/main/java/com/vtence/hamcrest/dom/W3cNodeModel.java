@@ -0,0 +1,79 @@
+package com.vtence.hamcrest.dom;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * The model of <code>org.w3c.dom</code> trees, used by all DOM matchers.
+ * Text, comments and other nodes that are not elements are skipped when moving between elements.
+ */
+public final class W3cNodeModel implements NodeModel<Element> {
+
+    private static final W3cNodeModel w3c = new W3cNodeModel();
+
+    private W3cNodeModel() {}
+
+    public static W3cNodeModel w3c() {
+        return w3c;
+    }
+
+    public Class<Element> elementType() {
+        return Element.class;
+    }
+
+    public String tagName(Element element) {
+        return element.getTagName();
+    }
+
+    public String attribute(Element element, String name) {
+        if (element instanceof SnapshotElement) return ((SnapshotElement) element).attributeValue(name);
+        if (!element.hasAttributes()) return null;
+        // Elements have few attributes, scanning them is cheaper than the binary search of getAttributeNode
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Node attribute = attributes.item(i);
+            if (name.equals(attribute.getNodeName())) return attribute.getNodeValue();
+        }
+        return null;
+    }
+
+    public CharSequence text(Element element) {
+        return element.getTextContent();
+    }
+
+    public Element parent(Element element) {
+        Node parent = element.getParentNode();
+        return isElement(parent) ? (Element) parent : null;
+    }
+
+    public boolean isRoot(Element element) {
+        Node parent = element.getParentNode();
+        return parent != null && parent.getNodeType() == Node.DOCUMENT_NODE;
+    }
+
+    public Element firstChild(Element element) {
+        return elementFrom(element.getFirstChild());
+    }
+
+    public Element nextSibling(Element element) {
+        Node sibling = element.getNextSibling();
+        while (sibling != null && !isElement(sibling)) sibling = sibling.getNextSibling();
+        return (Element) sibling;
+    }
+
+    public Element previousSibling(Element element) {
+        Node sibling = element.getPreviousSibling();
+        while (sibling != null && !isElement(sibling)) sibling = sibling.getPreviousSibling();
+        return (Element) sibling;
+    }
+
+    private static Element elementFrom(Node node) {
+        while (node != null && !isElement(node)) node = node.getNextSibling();
+        return (Element) node;
+    }
+
+    private static boolean isElement(Node node) {
+        return node != null && node.getNodeType() == Node.ELEMENT_NODE;
+    }
+}
@@ -0,0 +1,132 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.After;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.vtence.hamcrest.dom.DomMatchers.hasAttribute;
+import static com.vtence.hamcrest.dom.DomMatchers.hasClassName;
+import static com.vtence.hamcrest.dom.DomMatchers.hasSelector;
+import static com.vtence.hamcrest.dom.DomMatchers.hasText;
+import static com.vtence.hamcrest.dom.DomMatchers.hasUniqueSelector;
+import static com.vtence.hamcrest.dom.HTML.html;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentMatchingTest {
+
+    static final int THREADS = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+    static final int ROUNDS = 200;
+
+    static final Matcher<Element> ITEMS = hasSelector("li", hasClassName("odd"), hasClassName("even"));
+    static final Matcher<Element> MISSING_ITEM = hasSelector("li", hasText("4"));
+    static final Matcher<Element> UNIQUE_ITEM = hasUniqueSelector("#second", hasAttribute("class", "even"));
+    static final Matcher<InputStream> STREAMED_ITEMS = StreamMatchers.hasSelectorCount("li", equalTo(3));
+
+    static final String LIST = "<ol><li id='first' class='odd'>1</li><li id='second' class='even'>2</li><li class='odd'>3</li></ol>";
+
+    ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+
+    @After
+    public void
+    stopWorkers() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void
+    sharesMatchersBetweenThreads() throws Exception {
+        final Element shared = DomSnapshot.freeze(html(LIST));
+        final String mismatch = mismatchOf(MISSING_ITEM, html(LIST));
+
+        runConcurrently(() -> {
+            for (int round = 0; round < ROUNDS; round++) {
+                Element own = html(LIST);
+                assertTrue("items", ITEMS.matches(shared) && ITEMS.matches(own));
+                assertTrue("unique item", UNIQUE_ITEM.matches(shared) && UNIQUE_ITEM.matches(own));
+                assertFalse("missing item", MISSING_ITEM.matches(shared) || MISSING_ITEM.matches(own));
+                assertEquals("mismatch", mismatch, mismatchOf(MISSING_ITEM, round % 2 == 0 ? shared : own));
+                assertTrue("streamed items", STREAMED_ITEMS.matches(xml("<html><body>" + LIST + "</body></html>")));
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void
+    sharesSelectorCacheBetweenThreads() throws Exception {
+        final SelectorCache cache = new SelectorCache(8);
+        final List<String> selectors = new ArrayList<>();
+        for (int i = 0; i < 32; i++) selectors.add("li.item-" + i);
+
+        runConcurrently(() -> {
+            for (int round = 0; round < ROUNDS; round++) {
+                String selector = selectors.get((round * 7 + (int) Thread.currentThread().getId()) % selectors.size());
+                assertEquals("compiled", selector, cache.compile(selector).text());
+            }
+            return null;
+        });
+
+        assertEquals("lookups", (long) THREADS * ROUNDS, cache.hitCount() + cache.missCount());
+        assertTrue("over capacity: " + cache.size(), cache.size() <= cache.capacity());
+    }
+
+    @Test
+    public void
+    compilesSelectorOnceForAllThreads() throws Exception {
+        final SelectorCache cache = new SelectorCache();
+        final CompiledSelector compiled = cache.compile("ol > li.odd");
+
+        runConcurrently(() -> {
+            for (int round = 0; round < ROUNDS; round++) assertSame("compiled again", compiled, cache.compile("ol > li.odd"));
+            return null;
+        });
+    }
+
+    private void runConcurrently(Callable<Void> task) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(workers.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        for (Future<Void> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error) throw (Error) e.getCause();
+                throw e;
+            }
+        }
+    }
+
+    private static <T> String mismatchOf(Matcher<? super T> matcher, T actual) {
+        StringDescription description = new StringDescription();
+        matcher.describeMismatch(actual, description);
+        return description.toString();
+    }
+
+    private static InputStream xml(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
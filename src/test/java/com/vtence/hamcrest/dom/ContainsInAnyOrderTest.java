@@ -0,0 +1,129 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.CustomMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.hamcrest.collection.IsIterableContainingInAnyOrder;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.vtence.hamcrest.dom.DomMatchers.anElement;
+import static com.vtence.hamcrest.dom.DomMatchers.containsInAnyOrder;
+import static com.vtence.hamcrest.dom.DomMatchers.hasAttribute;
+import static com.vtence.hamcrest.dom.DomMatchers.hasClassName;
+import static com.vtence.hamcrest.dom.DomMatchers.hasId;
+import static com.vtence.hamcrest.dom.DomMatchers.hasTag;
+import static com.vtence.hamcrest.dom.DomMatchers.hasText;
+import static com.vtence.hamcrest.dom.HTML.html;
+import static org.junit.Assert.assertEquals;
+
+public class ContainsInAnyOrderTest extends AbstractMatcherTest {
+
+    Element menu = html("<ul>" +
+                        "<li id='home' class='item'>Home</li>" +
+                        "<li id='about' class='item'>About</li>" +
+                        "<li id='blog' class='item active'>Blog</li>" +
+                        "<li class='item'>Contact</li>" +
+                        "</ul>");
+
+    @Override
+    protected Matcher<?> createMatcher() {
+        return containsInAnyOrder(hasTag("li"));
+    }
+
+    @Test
+    public void
+    matchesLikeHamcrest() {
+        assertSameOutcome(hasId("blog"), hasId("home"), hasText("Contact"), hasId("about"));
+        assertSameOutcome(hasTag("li"), hasId("home"), hasTag("li"), hasTag("li"));
+        assertSameOutcome(anElement(hasTag("li"), hasId("about")), hasClassName("active"), hasTag("li"), hasText("Home"));
+        assertSameOutcome(hasAttribute("class", "item"), hasAttribute("class", "item"), hasAttribute("class", "item"),
+                hasAttribute("class", "item active"));
+    }
+
+    @Test
+    public void
+    describesMismatchesLikeHamcrest() {
+        assertSameOutcome(hasId("blog"), hasId("home"), hasId("about"));
+        assertSameOutcome(hasId("blog"), hasId("home"), hasId("about"), hasId("missing"));
+        assertSameOutcome(hasId("blog"), hasId("home"), hasId("about"), hasText("Contact"), hasTag("li"));
+        assertSameOutcome(hasTag("p"), hasTag("li"), hasTag("li"), hasTag("li"));
+        assertSameOutcome(hasTag("li"), hasTag("li"), hasTag("li"), hasAttribute("class", ""));
+        assertSameOutcome();
+    }
+
+    @Test
+    public void
+    bucketsLargeListsOfMatchersLikeHamcrest() {
+        StringBuilder html = new StringBuilder("<ul>");
+        for (int i = 0; i < 24; i++) html.append("<li id='item-").append(i).append("' class='").append(i % 3 == 0 ? "first" : "other").append("'>").append(i).append("</li>");
+        List<Element> items = new ArrayList<>();
+        for (Element item : Selector.from(html(html.append("</ul>").toString())).selectLazily("li")) items.add(item);
+
+        List<Matcher<? super Element>> matchers = new ArrayList<>();
+        for (int i = 23; i >= 0; i--) {
+            if (i % 5 == 0) matchers.add(hasText(String.valueOf(i)));
+            else if (i % 3 == 0) matchers.add(anElement(hasTag("LI"), hasAttribute("class", "first")));
+            else matchers.add(anElement(hasTag("li"), hasId("item-" + i)));
+        }
+        assertSameOutcome(items, matchers);
+
+        matchers.set(4, hasId("item-missing"));
+        assertSameOutcome(items, matchers);
+
+        matchers.set(4, hasTag("li"));
+        assertSameOutcome(items.subList(1, items.size()), matchers);
+    }
+
+    @Test
+    public void
+    triesElementsAgainstMatchersOfTheirKeysOnly() {
+        AtomicInteger tries = new AtomicInteger();
+        List<Element> rows = new ArrayList<>();
+        List<Matcher<? super Element>> matchers = new ArrayList<>();
+        StringBuilder table = new StringBuilder("<table>");
+        for (int i = 0; i < 200; i++) table.append("<tr id='row-").append(i).append("'></tr>");
+        for (Element row : Selector.from(html(table.append("</table>").toString())).selectLazily("tr")) rows.add(row);
+        for (int i = 199; i >= 0; i--) matchers.add(anElement(hasId("row-" + i), counting(tries)));
+
+        assertMatches("does not match", containsInAnyOrder(matchers), rows);
+        assertEquals("tries", 200, tries.get());
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    private final void assertSameOutcome(Matcher<? super Element>... matchers) {
+        List<Element> items = new ArrayList<>();
+        for (Element item : Selector.from(menu).selectLazily("li")) items.add(item);
+        assertSameOutcome(items, Arrays.asList(matchers));
+    }
+
+    private void assertSameOutcome(List<Element> items, List<Matcher<? super Element>> matchers) {
+        Matcher<Iterable<? extends Element>> expected = new IsIterableContainingInAnyOrder<>(matchers);
+        Matcher<Iterable<Element>> actual = containsInAnyOrder(matchers);
+        assertEquals("outcome", expected.matches(items), actual.matches(items));
+        assertEquals("description", StringDescription.toString(expected), StringDescription.toString(actual));
+        assertEquals("mismatch", mismatchOf(expected, items), mismatchOf(actual, items));
+    }
+
+    private static String mismatchOf(Matcher<?> matcher, List<Element> items) {
+        Description description = new StringDescription();
+        matcher.describeMismatch(items, description);
+        return description.toString();
+    }
+
+    private static Matcher<Element> counting(AtomicInteger tries) {
+        return new CustomMatcher<Element>("counted") {
+            public boolean matches(Object item) {
+                tries.incrementAndGet();
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import static com.vtence.hamcrest.dom.DomAssertions.allAssertions;
+import static com.vtence.hamcrest.dom.DomMatchers.hasNoSelector;
+import static com.vtence.hamcrest.dom.DomMatchers.hasSize;
+import static com.vtence.hamcrest.dom.DomMatchers.hasTag;
+import static com.vtence.hamcrest.dom.DomMatchers.hasText;
+import static com.vtence.hamcrest.dom.DomMatchers.hasUniqueSelector;
+import static com.vtence.hamcrest.dom.HTML.html;
+import static com.vtence.hamcrest.dom.HasSelector.hasSelector;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DomAssertionsTest extends AbstractMatcherTest {
+
+    Element page = html("<h1>Title</h1><ol><li class='odd'>first</li><li class='even'>second</li><li class='odd'>third</li></ol>");
+
+    @Override
+    protected Matcher<?> createMatcher() {
+        return allAssertions(hasSelector("h1"), hasNoSelector("h2"));
+    }
+
+    @Test
+    public void
+    matchesWhenAllMatchersMatch() {
+        assertMatches("does not match all", allAssertions(hasSelector("li", hasText("second")), hasUniqueSelector("h1"), hasNoSelector("ul"), hasTag("html")), page);
+        assertDoesNotMatch("matches a failing matcher", allAssertions(hasSelector("li"), hasUniqueSelector("li")), page);
+    }
+
+    @Test
+    public void
+    letsMatchersShareTheSameSelection() {
+        assertMatches("does not match all", allAssertions(hasSelector("li.odd", hasSize(2)), hasNoSelector("li.odd + li.odd"), hasSelector("li.odd")), page);
+    }
+
+    @Test
+    public void
+    hasAReadableDescription() {
+        assertDescription("(has selector \"h1\" and has no selector \"h2\")", allAssertions(hasSelector("h1"), hasNoSelector("h2")));
+    }
+
+    @Test
+    public void
+    describesEachMismatchAsTheMatcherWouldOnItsOwn() {
+        assertMismatchDescription(
+                "has unique selector \"li\" ANYTHING 2 or more selector(s) \"li\"\n" +
+                "          has no selector \"ol\" found element \"ol\"",
+                allAssertions(hasSelector("h1"), hasUniqueSelector("li"), hasNoSelector("ol")), page);
+    }
+
+    @Test
+    public void
+    verifiesAllMatchersAtOnce() {
+        allAssertions(hasSelector("li", hasSize(3))).and(hasUniqueSelector("h1", hasText("Title"))).verify(page);
+        try {
+            allAssertions(hasSelector("h2")).and(hasUniqueSelector("li")).verify("page content", page);
+            fail("verification passed");
+        } catch (AssertionError expected) {
+            assertEquals("message",
+                    "page content\n" +
+                    "Expected: (has selector \"h2\" and has unique selector \"li\" ANYTHING)\n" +
+                    "     but: has selector \"h2\" no selector \"h2\"\n" +
+                    "          has unique selector \"li\" ANYTHING 2 or more selector(s) \"li\"", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void
+    leavesGroupUnchangedWhenAddingMatchers() {
+        DomAssertions headings = allAssertions(hasSelector("h1"));
+        DomAssertions more = headings.and(hasNoSelector("li"));
+
+        assertDescription("(has selector \"h1\")", headings);
+        assertMatches("does not match", headings, page);
+        assertDoesNotMatch("matches", more, page);
+    }
+}
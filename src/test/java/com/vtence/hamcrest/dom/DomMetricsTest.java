@@ -0,0 +1,121 @@
+package com.vtence.hamcrest.dom;
+
+import com.vtence.hamcrest.dom.DomMetrics.Metric;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static com.vtence.hamcrest.dom.AbstractMatcherTest.assertMismatchDescription;
+import static com.vtence.hamcrest.dom.HTML.html;
+import static com.vtence.hamcrest.dom.HasSelector.hasSelector;
+import static com.vtence.hamcrest.dom.HasTag.hasTag;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class DomMetricsTest {
+
+    Element list = html("<ol><li class='odd'>1</li><li class='even'>2</li><li class='odd'>3</li></ol>");
+
+    @Before
+    public void
+    enableMetrics() {
+        DomMetrics.reset();
+        DomMetrics.enable();
+    }
+
+    @After
+    public void
+    disableMetrics() {
+        DomMetrics.disable();
+        DomMetrics.reset();
+    }
+
+    @Test
+    public void
+    recordsSelectionMatchersUnderSelectorAndMatcherType() {
+        hasSelector("li.even").matches(list);
+        hasSelector("li.even").matches(list);
+
+        Metric selector = DomMetrics.selectors().get("li.even");
+        assertEquals("selector evaluations", 2, selector.count());
+        assertEquals("selected", 2, selector.selected());
+        assertTrue("no node visited", selector.nodesVisited() > 0);
+        assertTrue("not timed", selector.totalNanos() > 0);
+        assertEquals("matcher evaluations", 2, DomMetrics.matchers().get("HasSelector").count());
+    }
+
+    @Test
+    public void
+    recordsElementsVisitedAsFarAsMatchersLook() {
+        Selector.from(list).selectAll("li");
+        hasSelector("li").matches(list);
+
+        Metric selector = DomMetrics.selectors().get("li");
+        assertEquals("evaluations", 2, selector.count());
+        assertEquals("selected", 3 + 1, selector.selected());
+    }
+
+    @Test
+    public void
+    timesElementMatchersAsPartOfTheirSelection() {
+        hasSelector("li", hasTag("li")).matches(list);
+        assertEquals("evaluations", 1, DomMetrics.matchers().get("HasSelector").count());
+        assertTrue("element matcher recorded", !DomMetrics.matchers().containsKey("HasTag"));
+    }
+
+    @Test
+    public void
+    recordsStreamedSelectors() {
+        StreamMatchers.hasSelector("li").matches(new ByteArrayInputStream("<ol><li/><li/></ol>".getBytes(StandardCharsets.UTF_8)));
+
+        Metric selector = DomMetrics.selectors().get("li");
+        assertEquals("evaluations", 1, selector.count());
+        assertEquals("nodes visited", 2, selector.nodesVisited());
+        assertEquals("matcher evaluations", 1, DomMetrics.matchers().get("HasStreamedSelector$Exists").count());
+    }
+
+    @Test
+    public void
+    doesNotRecordMismatchDescriptions() {
+        assertMismatchDescription("no selector \"li.first\"", hasSelector("li.first"), list);
+        assertEquals("evaluations", 1, DomMetrics.selectors().get("li.first").count());
+    }
+
+    @Test
+    public void
+    recordsNothingWhenDisabled() {
+        DomMetrics.disable();
+        hasSelector("li.odd").matches(list);
+        Selector.from(list).selectFirst("li");
+        hasTag("li").matches(list);
+
+        assertTrue("selectors recorded", DomMetrics.selectors().isEmpty());
+        assertTrue("matchers recorded", DomMetrics.matchers().isEmpty());
+    }
+
+    @Test
+    public void
+    estimatesPercentilesToWithinAQuarter() {
+        for (long nanos : new long[] {0, 3, 4, 7, 8, 100, 1000, 123456789, Long.MAX_VALUE}) {
+            long estimate = DomMetrics.upperBoundOf(DomMetrics.bucketOf(nanos));
+            assertTrue(nanos + " estimated as " + estimate, estimate >= nanos && estimate - nanos <= nanos / 4);
+        }
+    }
+
+    @Test
+    public void
+    writesMetricsAsJson() {
+        hasSelector("li[title=\"a\"]").matches(list);
+
+        String json = DomMetrics.toJson();
+        assertThat(json, containsString("\"selectors\": {\n    \"li[title=\\\"a\\\"]\": {\"count\": 1, \"totalNanos\": "));
+        assertThat(json, containsString("\"nodesVisited\": 6, \"selected\": 0}"));
+        assertThat(json, containsString("\"matchers\": {\n    \"HasSelector\": {\"count\": 1"));
+    }
+}
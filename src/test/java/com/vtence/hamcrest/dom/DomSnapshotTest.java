@@ -0,0 +1,266 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.vtence.hamcrest.dom.DomMatchers.hasAttribute;
+import static com.vtence.hamcrest.dom.DomMatchers.hasBlankText;
+import static com.vtence.hamcrest.dom.DomMatchers.hasChild;
+import static com.vtence.hamcrest.dom.DomMatchers.hasClassName;
+import static com.vtence.hamcrest.dom.DomMatchers.hasId;
+import static com.vtence.hamcrest.dom.DomMatchers.hasNoSelector;
+import static com.vtence.hamcrest.dom.DomMatchers.hasSelector;
+import static com.vtence.hamcrest.dom.DomMatchers.hasTag;
+import static com.vtence.hamcrest.dom.DomMatchers.hasText;
+import static com.vtence.hamcrest.dom.DomMatchers.hasTextCompressingWhiteSpace;
+import static com.vtence.hamcrest.dom.DomMatchers.hasUniqueSelector;
+import static com.vtence.hamcrest.dom.Documents.from;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DomSnapshotTest {
+
+    Document page = from(
+            "<?xml version='1.0'?>" +
+            "<html><body>" +
+            "<div id='main' class='content wide'>" +
+            "  <h1>Title</h1>" +
+            "  <ul class='list'><li class='odd first'>one</li><li class='even'>two<b/></li><li class='odd'>three</li>" +
+            "    <li><ul><li>nested</li><li class='odd'><p/><p>deep <![CDATA[<cdata>]]></p><!-- comment --></li></ul></li></ul>" +
+            "  <p data-role='note'>first <em>note</em></p><p></p><p><!-- only a comment --><?pi data?></p>" +
+            "</div>" +
+            "<div class='footer'><p class='content'>footer</p></div>" +
+            "</body></html>");
+    Element original = (Element) page.getElementsByTagName("div").item(0);
+    Element snapshot = DomSnapshot.freeze(original);
+
+    @Test
+    public void
+    copiesTheWholeDocument() {
+        assertEquals("name", "div", snapshot.getTagName());
+        assertEquals("parent", "body", snapshot.getParentNode().getNodeName());
+        assertEquals("next sibling", "footer", ((Element) snapshot.getNextSibling()).getAttribute("class"));
+        assertEquals("document element", "html", snapshot.getOwnerDocument().getDocumentElement().getTagName());
+        assertSame("document", snapshot.getOwnerDocument(), snapshot.getOwnerDocument().getDocumentElement().getParentNode());
+        assertTrue("frozen", DomSnapshot.isFrozen(snapshot));
+    }
+
+    @Test
+    public void
+    copiesAllKindsOfNodes() {
+        Node paragraph = snapshot.getElementsByTagName("p").item(4);
+        assertEquals("comment", "#comment", paragraph.getFirstChild().getNodeName());
+        assertEquals("comment data", " only a comment ", paragraph.getFirstChild().getNodeValue());
+        assertEquals("processing instruction", "pi", paragraph.getLastChild().getNodeName());
+        assertEquals("instruction data", "data", paragraph.getLastChild().getNodeValue());
+
+        Node deep = snapshot.getElementsByTagName("p").item(1);
+        assertEquals("text", "deep ", deep.getFirstChild().getNodeValue());
+        assertEquals("cdata", Node.CDATA_SECTION_NODE, deep.getLastChild().getNodeType());
+        assertEquals("whole text", "deep <cdata>", ((org.w3c.dom.Text) deep.getFirstChild()).getWholeText());
+    }
+
+    @Test
+    public void
+    givesSameTextContentAndAttributes() {
+        List<Node> originals = elementsOf(original);
+        List<Node> copies = elementsOf(snapshot);
+        assertEquals("element count", originals.size(), copies.size());
+        for (int i = 0; i < originals.size(); i++) {
+            Element expected = (Element) originals.get(i);
+            Element actual = (Element) copies.get(i);
+            assertEquals("tag", expected.getTagName(), actual.getTagName());
+            assertEquals("text of " + expected.getTagName(), expected.getTextContent(), actual.getTextContent());
+            assertEquals("class of " + expected.getTagName(), expected.getAttribute("class"), actual.getAttribute("class"));
+            assertEquals("attributes of " + expected.getTagName(), expected.getAttributes().getLength(), actual.getAttributes().getLength());
+        }
+    }
+
+    @Test
+    public void
+    selectsSameElements() {
+        for (String selector : new String[] {
+                "li", "div li", "body > div ul > li", "ul li li.odd", "#main", ".odd", "li + li", "h1 ~ p", ":root",
+                "li:first-child", "p:empty", "li:nth-child(2n+1)", "p:last-of-type", ":not(li)", "[data-role]" }) {
+            assertEquals(selector, texts(Selector.from(original).selectAll(selector)), texts(Selector.from(snapshot).selectAll(selector)));
+        }
+    }
+
+    @Test
+    public void
+    isMatchedLikeTheOriginal() {
+        assertSameOutcome(hasTag("div"));
+        assertSameOutcome(hasId("main"));
+        assertSameOutcome(hasClassName("wide"));
+        assertSameOutcome(hasAttribute("class", containsString("content")));
+        assertSameOutcome(hasText(containsString("three")));
+        assertSameOutcome(hasText("Title"));
+        assertSameOutcome(hasTextCompressingWhiteSpace("Title onetwothree nesteddeep <cdata> first note"));
+        assertSameOutcome(hasBlankText());
+        assertSameOutcome(hasChild(hasTag("ul")));
+        assertSameOutcome(hasSelector("li.odd", hasText("one"), hasText("three"), hasText("deep <cdata>")));
+        assertSameOutcome(hasUniqueSelector("li.even", hasText("two")));
+        assertSameOutcome(hasNoSelector("p em"));
+        assertThat(snapshot, hasTextCompressingWhiteSpace("Title onetwothree nesteddeep <cdata> first note"));
+    }
+
+    @Test
+    public void
+    isReadOnly() {
+        try {
+            snapshot.setAttribute("class", "changed");
+            fail("modified");
+        } catch (DOMException expected) {
+            assertEquals("code", DOMException.NO_MODIFICATION_ALLOWED_ERR, expected.code);
+        }
+        try {
+            snapshot.appendChild(snapshot.getFirstChild());
+            fail("modified");
+        } catch (DOMException expected) {
+            assertEquals("code", DOMException.NO_MODIFICATION_ALLOWED_ERR, expected.code);
+        }
+    }
+
+    @Test
+    public void
+    keepsOneViewPerNode() {
+        assertSame("element", snapshot.getFirstChild().getNextSibling(), snapshot.getChildNodes().item(1));
+        assertSame("attribute", snapshot.getAttributeNode("id"), snapshot.getAttributes().getNamedItem("id"));
+        assertSame("owner", snapshot, snapshot.getAttributeNode("id").getOwnerElement());
+    }
+
+    @Test
+    public void
+    comparesPositionsInDocumentOrder() {
+        Node list = snapshot.getElementsByTagName("ul").item(0);
+        Node footer = snapshot.getNextSibling();
+        assertEquals("descendant", Node.DOCUMENT_POSITION_CONTAINED_BY | Node.DOCUMENT_POSITION_FOLLOWING, snapshot.compareDocumentPosition(list));
+        assertEquals("ancestor", Node.DOCUMENT_POSITION_CONTAINS | Node.DOCUMENT_POSITION_PRECEDING, list.compareDocumentPosition(snapshot));
+        assertEquals("following", Node.DOCUMENT_POSITION_FOLLOWING, list.compareDocumentPosition(footer));
+    }
+
+    @Test
+    public void
+    listsChildNodesByIndex() {
+        Node list = snapshot.getElementsByTagName("ul").item(0);
+        NodeList children = list.getChildNodes();
+        NodeList originalChildren = original.getElementsByTagName("ul").item(0).getChildNodes();
+        assertEquals("length", originalChildren.getLength(), children.getLength());
+        for (int i = 0; i < children.getLength(); i++) {
+            assertEquals("child " + i, originalChildren.item(i).getTextContent(), children.item(i).getTextContent());
+        }
+        for (int i = children.getLength() - 1; i >= 0; i--) {
+            assertSame("child " + i, i == 0 ? list.getFirstChild() : children.item(i - 1).getNextSibling(), children.item(i));
+        }
+        assertNull("past the end", children.item(children.getLength()));
+        assertNull("before the start", children.item(-1));
+    }
+
+    @Test
+    public void
+    comparesNodesWithOtherDocuments() {
+        assertTrue("original", snapshot.isEqualNode(original));
+        assertTrue("other snapshot", snapshot.isEqualNode(DomSnapshot.freeze(original)));
+        assertTrue("attribute", snapshot.getAttributeNode("class").isEqualNode(original.getAttributeNode("class")));
+        assertFalse("sibling", snapshot.isEqualNode(original.getNextSibling()));
+        assertFalse("attribute of sibling", snapshot.getAttributeNode("class").isEqualNode(
+                ((Element) original.getNextSibling()).getAttributeNode("class")));
+
+        Node copy = from("<copy/>").importNode(snapshot, true);
+        assertTrue("imported copy", copy.isEqualNode(original));
+    }
+
+    @Test
+    public void
+    looksUpNamespacesLikeTheOriginal() {
+        Document namespaced = fromNamespaced(
+                "<root xmlns='urn:default' xmlns:a='urn:a'><a:child xmlns:b='urn:b' b:attribute='value'>" +
+                "<plain xmlns=''>text</plain></a:child></root>");
+        Document copy = DomSnapshot.freeze(namespaced);
+        List<Node> originals = new ArrayList<>();
+        originals.add(namespaced);
+        originals.addAll(elementsOf(namespaced.getDocumentElement()));
+        originals.add(namespaced.getElementsByTagName("a:child").item(0).getAttributes().getNamedItem("b:attribute"));
+        originals.add(namespaced.getElementsByTagName("plain").item(0).getFirstChild());
+        List<Node> copies = new ArrayList<>();
+        copies.add(copy);
+        copies.addAll(elementsOf(copy.getDocumentElement()));
+        copies.add(copy.getElementsByTagName("a:child").item(0).getAttributes().getNamedItem("b:attribute"));
+        copies.add(copy.getElementsByTagName("plain").item(0).getFirstChild());
+
+        for (int i = 0; i < originals.size(); i++) {
+            Node node = originals.get(i);
+            Node frozen = copies.get(i);
+            for (String prefix : new String[] { null, "a", "b", "c" }) {
+                assertEquals(node + " namespace of " + prefix, node.lookupNamespaceURI(prefix), frozen.lookupNamespaceURI(prefix));
+            }
+            for (String namespace : new String[] { null, "urn:default", "urn:a", "urn:b", "urn:c" }) {
+                assertEquals(node + " prefix of " + namespace, node.lookupPrefix(namespace), frozen.lookupPrefix(namespace));
+                assertEquals(node + " default " + namespace, node.isDefaultNamespace(namespace), frozen.isDefaultNamespace(namespace));
+            }
+        }
+    }
+
+    @Test
+    public void
+    snapshotsDetachedElements() {
+        Element detached = page.createElement("section");
+        detached.appendChild(page.createElement("p")).appendChild(page.createTextNode("text"));
+        Element copy = DomSnapshot.freeze(detached);
+        assertNull("parent", copy.getParentNode());
+        assertEquals("text", "text", copy.getTextContent());
+        assertThat(copy, hasSelector("section > p"));
+    }
+
+    private void assertSameOutcome(Matcher<? super Element> matcher) {
+        assertEquals(StringDescription.toString(matcher), matcher.matches(original), matcher.matches(snapshot));
+        assertEquals(StringDescription.toString(matcher), mismatchOf(matcher, original), mismatchOf(matcher, snapshot));
+    }
+
+    private static String mismatchOf(Matcher<? super Element> matcher, Element element) {
+        StringDescription mismatch = new StringDescription();
+        matcher.describeMismatch(element, mismatch);
+        return mismatch.toString();
+    }
+
+    private static Document fromNamespaced(String dom) {
+        try {
+            DocumentBuilderFactory parserFactory = DocumentBuilderFactory.newInstance();
+            parserFactory.setNamespaceAware(true);
+            return parserFactory.newDocumentBuilder().parse(new InputSource(new StringReader(dom)));
+        } catch (Exception e) {
+            throw new AssertionError("Can't parse into a document:\n" + dom, e);
+        }
+    }
+
+    private static List<Node> elementsOf(Element root) {
+        List<Node> elements = new ArrayList<>();
+        elements.add(root);
+        for (int i = 0; i < root.getElementsByTagName("*").getLength(); i++) elements.add(root.getElementsByTagName("*").item(i));
+        return elements;
+    }
+
+    private static List<String> texts(List<Node> nodes) {
+        List<String> texts = new ArrayList<>();
+        for (Node node : nodes) texts.add(node.getNodeName() + ":" + node.getTextContent());
+        return texts;
+    }
+}
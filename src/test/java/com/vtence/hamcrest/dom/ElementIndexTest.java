@@ -0,0 +1,125 @@
+package com.vtence.hamcrest.dom;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.vtence.hamcrest.dom.HTML.html;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ElementIndexTest {
+
+    Element page = html(
+            "<ol id='menu'><li class='odd first'>first</li><li class='even'>second</li><li class='odd'>third</li></ol>" +
+            "<p class='odd'>text</p>");
+    ElementIndex index = ElementIndex.build(page.getOwnerDocument());
+
+    @Test
+    public void
+    onlyIndexesLiveDocumentsWhenAskedTo() {
+        Document document = page.getOwnerDocument();
+        assertNull("indexed", ElementIndex.of(document));
+
+        Selector.index(document);
+        ElementIndex index = ElementIndex.of(document);
+        assertNotNull("not indexed", index);
+        Selector.index(document);
+        assertSame("rebuilt", index, ElementIndex.of(document));
+    }
+
+    @Test
+    public void
+    alwaysIndexesSnapshots() {
+        Document snapshot = DomSnapshot.freeze(page).getOwnerDocument();
+        assertNotNull("not indexed", ElementIndex.of(snapshot));
+        assertSame("rebuilt", ElementIndex.of(snapshot), ElementIndex.of(snapshot));
+    }
+
+    @Test
+    public void
+    numbersSnapshotElementsWithTheirNodeNumbers() {
+        Element frozen = DomSnapshot.freeze(page);
+        ElementIndex index = ElementIndex.of(frozen.getOwnerDocument());
+        List<Element> items = index.candidates(frozen, Selector.compile("li"));
+        assertEquals("by tag", asList("first", "second", "third"), texts(items));
+        for (Element item : items) {
+            assertEquals("ordinal", ((SnapshotNode) item).number, index.ordinalOf(item));
+        }
+        assertEquals("not in snapshot", ElementIndex.NONE, index.ordinalOf(page));
+    }
+
+    @Test
+    public void
+    seedsCandidatesFromMostSelectiveIdClassOrTag() {
+        assertEquals("by id", asList("menu"), ids(index.candidates(page, Selector.compile("body > #menu"))));
+        assertEquals("by class", asList("first"), texts(index.candidates(page, Selector.compile("li.odd.first"))));
+        assertEquals("by tag", asList("first", "second", "third"), texts(index.candidates(page, Selector.compile("LI"))));
+    }
+
+    @Test
+    public void
+    intersectsCandidatesWithMuchLargerKeys() {
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < 20; i++) items.append("<li>item</li>");
+        Element list = html("<ul>" + items + "<li class='odd'>odd item</li></ul><p class='odd'>odd text</p>");
+
+        ElementIndex index = ElementIndex.build(list.getOwnerDocument());
+        assertEquals("candidates", asList("odd item"), texts(index.candidates(list, Selector.compile("li.odd"))));
+        assertEquals("candidates", asList(), texts(index.candidates(list, Selector.compile("li.even"))));
+    }
+
+    @Test
+    public void
+    mergesCandidatesOfSelectorGroupsInDocumentOrder() {
+        assertEquals("candidates", asList("first", "third", "text"), texts(index.candidates(page, Selector.compile("p, .odd"))));
+    }
+
+    @Test
+    public void
+    onlyConsidersCandidatesWithinRootElement() {
+        Element menu = (Element) Selector.from(page).selectFirst("#menu");
+        assertEquals("candidates", asList("first", "third"), texts(index.candidates(menu, Selector.compile(".odd"))));
+    }
+
+    @Test
+    public void
+    cannotNarrowDownSelectorsWithoutIdClassOrTag() {
+        assertNull("candidates", index.candidates(page, Selector.compile("li, :first-child")));
+    }
+
+    @Test
+    public void
+    isDiscardedWhenAskedTo() {
+        Document document = page.getOwnerDocument();
+        Selector.index(document);
+        Selector.unindex(document);
+        assertNull("indexed", ElementIndex.of(document));
+
+        Element item = document.createElement("li");
+        item.setAttribute("class", "odd");
+        item.setTextContent("fourth");
+        Selector.from(page).selectFirst("#menu").appendChild(item);
+
+        assertEquals("selected", asList("first", "third", "fourth"), texts(Selector.from(page).selectAll("li.odd")));
+    }
+
+    private static List<String> ids(List<? extends Node> elements) {
+        List<String> ids = new ArrayList<>();
+        for (Node element : elements) ids.add(((Element) element).getAttribute("id"));
+        return ids;
+    }
+
+    private static List<String> texts(List<? extends Node> elements) {
+        List<String> texts = new ArrayList<>();
+        for (Node element : elements) texts.add(element.getTextContent());
+        return texts;
+    }
+}
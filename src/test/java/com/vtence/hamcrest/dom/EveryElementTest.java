@@ -0,0 +1,125 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.CustomMatcher;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.vtence.hamcrest.dom.DomMatchers.anElement;
+import static com.vtence.hamcrest.dom.DomMatchers.everyElementInParallel;
+import static com.vtence.hamcrest.dom.DomMatchers.hasSelector;
+import static com.vtence.hamcrest.dom.EveryElement.everyElement;
+import static com.vtence.hamcrest.dom.HTML.html;
+import static com.vtence.hamcrest.dom.HasAttributeValue.hasAttribute;
+import static com.vtence.hamcrest.dom.HasClassName.hasClassName;
+import static com.vtence.hamcrest.dom.HasTag.hasTag;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EveryElementTest extends AbstractMatcherTest {
+
+    @Override
+    protected Matcher<?> createMatcher() {
+        return everyElement(hasTag("tr"));
+    }
+
+    @Test
+    public void
+    matchesWhenEveryElementMatches() {
+        assertMatches("does not match small grid", hasSelector("tr", everyElementInParallel(hasClassName("row"))), grid(10, -1));
+        assertMatches("does not match large grid", hasSelector("tr", everyElement(hasClassName("row"), 16)), grid(500, -1));
+    }
+
+    @Test
+    public void
+    doesNotMatchWhenAnElementFails() {
+        assertDoesNotMatch("matches small grid", hasSelector("tr", everyElementInParallel(hasClassName("row"))), grid(10, 3));
+        assertDoesNotMatch("matches large grid", hasSelector("tr", everyElement(hasClassName("row"), 16)), grid(500, 321));
+    }
+
+    @Test
+    public void
+    hasTheSameDescriptionAsEvery() {
+        assertDescription("every item is has tag a string equal to \"tr\" ignoring case", everyElement(hasTag("tr")));
+    }
+
+    @Test
+    public void
+    reportsFirstFailingElementInDocumentOrder() {
+        Element grid = grid(2000, 1500, 437, 1999);
+        List<Element> rows = new ArrayList<>();
+        for (Element row : Selector.from(grid).selectLazily("tr")) rows.add(row);
+
+        for (int round = 0; round < 20; round++) {
+            assertMismatchDescription("an item has attribute \"class\" with value \"row\" \"class\" value was \"odd-437\"",
+                    everyElement(anElement(hasTag("tr"), hasAttribute("class", "row")), 16), rows);
+        }
+    }
+
+    @Test
+    public void
+    stopsMatchingPastTheFirstFailure() {
+        AtomicInteger matched = new AtomicInteger();
+        Matcher<Element> firstRowOnly = new CustomMatcher<Element>("first row") {
+            public boolean matches(Object item) {
+                matched.incrementAndGet();
+                return false;
+            }
+        };
+
+        List<Element> rows = new ArrayList<>();
+        for (Element row : Selector.from(grid(5000, -1)).selectLazily("tr")) rows.add(row);
+        assertDoesNotMatch("matches", everyElement(firstRowOnly, 16), rows);
+        assertTrue("matched too many rows: " + matched.get(), matched.get() < rows.size());
+    }
+
+    @Test
+    public void
+    matchesInCallingThreadBelowThreshold() {
+        Thread caller = Thread.currentThread();
+        AtomicInteger elsewhere = new AtomicInteger();
+        Matcher<Element> sameThread = new CustomMatcher<Element>("in calling thread") {
+            public boolean matches(Object item) {
+                if (Thread.currentThread() != caller) elsewhere.incrementAndGet();
+                return true;
+            }
+        };
+
+        assertMatches("does not match", hasSelector("tr", everyElement(sameThread, 100)), grid(99, -1));
+        assertEquals("matched in other threads", 0, elsewhere.get());
+    }
+
+    @Test
+    public void
+    matchesLiveElementsInCallingThread() {
+        Thread caller = Thread.currentThread();
+        AtomicInteger elsewhere = new AtomicInteger();
+        Matcher<Element> sameThread = new CustomMatcher<Element>("in calling thread") {
+            public boolean matches(Object item) {
+                if (Thread.currentThread() != caller) elsewhere.incrementAndGet();
+                return true;
+            }
+        };
+
+        assertMatches("does not match", hasSelector("tr", everyElement(sameThread, 16)), html(table(500)));
+        assertEquals("matched in other threads", 0, elsewhere.get());
+    }
+
+    private static Element grid(int rows, int... oddRows) {
+        return DomSnapshot.freeze(html(table(rows, oddRows)));
+    }
+
+    private static String table(int rows, int... oddRows) {
+        StringBuilder html = new StringBuilder("<table>");
+        for (int i = 0; i < rows; i++) {
+            boolean odd = false;
+            for (int row : oddRows) odd |= row == i;
+            html.append("<tr class='").append(odd ? "odd-" + i : "row").append("'><td>").append(i).append("</td></tr>");
+        }
+        return html.append("</table>").toString();
+    }
+}
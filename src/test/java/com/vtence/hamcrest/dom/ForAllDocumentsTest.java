@@ -0,0 +1,132 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.CustomMatcher;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.vtence.hamcrest.dom.HasSelector.hasSelector;
+import static com.vtence.hamcrest.dom.ForAllDocuments.forAllDocuments;
+import static com.vtence.hamcrest.dom.HTML.html;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ForAllDocumentsTest extends AbstractMatcherTest {
+
+    @Override
+    protected Matcher<?> createMatcher() {
+        return forAllDocuments(hasSelector("h1"));
+    }
+
+    @Test
+    public void
+    matchesWhenEveryDocumentMatches() {
+        assertMatches("does not match all documents", forAllDocuments(hasSelector("h1")), pages(50, -1));
+        assertMatches("does not match no document", forAllDocuments(hasSelector("h1")), emptyList());
+    }
+
+    @Test
+    public void
+    doesNotMatchWhenAnyDocumentFails() {
+        assertDoesNotMatch("matches with a failing document", forAllDocuments(hasSelector("h1")), pages(50, 37));
+    }
+
+    @Test
+    public void
+    hasAReadableDescription() {
+        assertDescription("every document has selector \"h1\"", forAllDocuments(hasSelector("h1")));
+    }
+
+    @Test
+    public void
+    reportsMismatchesInDocumentOrder() {
+        List<Element> pages = asList(html("<h1>one</h1>"), html("<p>two</p>"), html("<h1>three</h1>"), html("<p>four</p>"));
+        assertMismatchDescription("2 of 4 document(s) did not match" +
+                                  "\n  document 1: no selector \"h1\"" +
+                                  "\n  document 3: no selector \"h1\"",
+                forAllDocuments(hasSelector("h1")), pages);
+    }
+
+    @Test
+    public void
+    describesFirstMismatchesOnly() {
+        List<Element> pages = new ArrayList<>();
+        for (int i = 0; i < ForAllDocuments.REPORTED_MISMATCHES + 5; i++) pages.add(html("<p>" + i + "</p>"));
+
+        ForAllDocuments matcher = new ForAllDocuments(hasSelector("h1"), null, 3);
+        assertMismatchDescription(String.join("", expectedMismatches(ForAllDocuments.REPORTED_MISMATCHES + 5)) + "\n  and 5 more",
+                matcher, pages);
+    }
+
+    @Test
+    public void
+    readsStreamsOfDocumentsOnce() {
+        Stream<Element> pages = IntStream.range(0, 10).mapToObj(i -> html(i == 4 ? "<p>missing</p>" : "<h1>" + i + "</h1>"));
+        Iterable<Element> crawl = pages::iterator;
+        assertMismatchDescription("1 of 10 document(s) did not match\n  document 4: no selector \"h1\"",
+                forAllDocuments(hasSelector("h1")), crawl);
+    }
+
+    @Test
+    public void
+    boundsDocumentsInFlight() {
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger matched = new AtomicInteger();
+        Iterable<Element> crawl = () -> new Iterator<Element>() {
+            public boolean hasNext() {
+                return read.get() < 100;
+            }
+
+            public Element next() {
+                assertTrue("too many documents in flight", read.get() - matched.get() <= 5);
+                read.incrementAndGet();
+                return html("<h1>page</h1>");
+            }
+        };
+        Matcher<Element> counting = new CustomMatcher<Element>("counted") {
+            public boolean matches(Object item) {
+                matched.incrementAndGet();
+                return true;
+            }
+        };
+
+        assertMatches("does not match", new ForAllDocuments(counting, null, 5), crawl);
+        assertEquals("matched", 100, matched.get());
+    }
+
+    @Test
+    public void
+    matchesUsingSpecifiedExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertMismatchDescription("1 of 30 document(s) did not match\n  document 12: no selector \"h1\"",
+                    forAllDocuments(hasSelector("h1"), executor), pages(30, 12));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<Element> pages(int count, int missingTitle) {
+        List<Element> pages = new ArrayList<>();
+        for (int i = 0; i < count; i++) pages.add(html(i == missingTitle ? "<p>" + i + "</p>" : "<h1>" + i + "</h1>"));
+        return pages;
+    }
+
+    private static List<String> expectedMismatches(int count) {
+        List<String> lines = new ArrayList<>();
+        lines.add(count + " of " + count + " document(s) did not match");
+        for (int i = 0; i < ForAllDocuments.REPORTED_MISMATCHES; i++) lines.add("\n  document " + i + ": no selector \"h1\"");
+        return lines;
+    }
+}
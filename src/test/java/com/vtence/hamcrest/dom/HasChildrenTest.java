@@ -38,6 +38,12 @@ public class HasChildrenTest extends AbstractMatcherTest {
         assertMatches("does not match child among many", hasChild(hasTag("span")), anElement("<div><p>won't match</p><span>should match</span></div>"));
     }
 
+    @Test
+    public void
+    skipsNodesThatAreNotElements() {
+        assertMatches("does not skip text and comments", hasChildren(hasTag("p"), hasTag("span")), anElement("<div>text<p/><!-- comment --> <span/>text</div>"));
+    }
+
     @Test
     public void
     hasAReadableDescription() {
@@ -48,6 +54,8 @@ public class HasChildrenTest extends AbstractMatcherTest {
     public void
     hasAReadableMismatchDescription() {
         assertMismatchDescription("children item 0: text was \"does not match\"", hasChildren(hasText("should not match")), anElement("<div><p>does not match</p></div>"));
+        assertMismatchDescription("children a collection containing has tag a string equal to \"span\" ignoring case mismatches were: [tag was \"p\", tag was \"em\"]", hasChild(hasTag("span")), anElement("<div><p/>text<em/></div>"));
+        assertMismatchDescription("children a collection containing has tag a string equal to \"span\" ignoring case was empty", hasChild(hasTag("span")), anElement("<div>text</div>"));
     }
 
     private Element anElement(String html) {
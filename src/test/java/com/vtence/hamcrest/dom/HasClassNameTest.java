@@ -0,0 +1,62 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import static com.vtence.hamcrest.dom.Documents.toElement;
+import static com.vtence.hamcrest.dom.HasClassName.hasClassName;
+import static com.vtence.hamcrest.dom.HasClassName.hasClassNames;
+
+public class HasClassNameTest extends AbstractMatcherTest {
+
+    @Override
+    protected Matcher<?> createMatcher() {
+        return hasClassName("text");
+    }
+
+    @Test
+    public void
+    matchesWhenElementHasClass() {
+        assertMatches("does not match class", hasClassName("text"), anElementWithClass("text"));
+        assertMatches("does not match first class", hasClassName("text"), anElementWithClass("text strong"));
+        assertMatches("does not match last class", hasClassName("text"), anElementWithClass("strong text"));
+        assertMatches("does not match center class", hasClassName("text"), anElementWithClass("bold text strong"));
+        assertDoesNotMatch("matches another class", hasClassName("text"), anElementWithClass("number"));
+        assertDoesNotMatch("matches look-alike class", hasClassName("text"), anElementWithClass("textlongtext"));
+        assertDoesNotMatch("matches prefix of class", hasClassName("text"), anElementWithClass("tex"));
+        assertDoesNotMatch("matches missing class", hasClassName("text"), toElement("<div></div>"));
+    }
+
+    @Test
+    public void
+    separatesClassesWithAnyHtmlWhitespace() {
+        assertMatches("does not match class after tab", hasClassName("text"), anElementWithClass("bold&#9;text"));
+        assertMatches("does not match class after newline", hasClassName("text"), anElementWithClass("bold&#10;text&#13;&#10;"));
+        assertMatches("does not match class surrounded by spaces", hasClassName("text"), anElementWithClass("  text  "));
+    }
+
+    @Test
+    public void
+    matchesSeveralClassesInAnyOrder() {
+        assertMatches("does not match classes", hasClassNames("strong", "text"), anElementWithClass("text bold strong"));
+        assertDoesNotMatch("matches some classes", hasClassNames("strong", "text"), anElementWithClass("text bold"));
+    }
+
+    @Test
+    public void
+    hasAReadableDescription() {
+        assertDescription("has class name \"text\"", hasClassName("text"));
+        assertDescription("has class names [\"text\", \"strong\"]", hasClassNames("text", "strong"));
+    }
+
+    @Test
+    public void
+    hasAReadableMismatchDescription() {
+        assertMismatchDescription("\"class\" value was \"number\"", hasClassName("text"), anElementWithClass("number"));
+    }
+
+    private Element anElementWithClass(String classes) {
+        return toElement(String.format("<div class=\"%s\"></div>", classes));
+    }
+}
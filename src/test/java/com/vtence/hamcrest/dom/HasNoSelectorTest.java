@@ -20,6 +20,13 @@ public class HasNoSelectorTest extends AbstractMatcherTest {
         assertDoesNotMatch("matches selected", hasNoSelector("#content"), html("<div id=\"content\">content</div>"));
     }
 
+    @Test
+    public void
+    acceptsCompiledSelectors() {
+        assertMatches("does not match unselected", hasNoSelector(Selector.compile("#unknown")), html("<div id='content'>content</div>"));
+        assertDescription("has no selector \"#unknown\"", hasNoSelector(Selector.compile("#unknown")));
+    }
+
     @Test
     public void
     hasAReadableDescription() {
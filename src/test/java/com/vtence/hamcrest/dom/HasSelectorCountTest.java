@@ -0,0 +1,77 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import static com.vtence.hamcrest.dom.HTML.html;
+import static com.vtence.hamcrest.dom.HasSelectorCount.atLeast;
+import static com.vtence.hamcrest.dom.HasSelectorCount.atMost;
+import static com.vtence.hamcrest.dom.HasSelectorCount.between;
+import static com.vtence.hamcrest.dom.HasSelectorCount.hasSelectorCount;
+import static org.hamcrest.Matchers.equalTo;
+
+public class HasSelectorCountTest extends AbstractMatcherTest {
+
+    Element table = html("<table><tr class='odd'/><tr class='even'/><tr class='odd'/><tr class='even'/><tr class='odd'/></table>");
+
+    @Override
+    protected Matcher<?> createMatcher() {
+        return hasSelectorCount("tr", equalTo(5));
+    }
+
+    @Test
+    public void
+    matchesNumberOfSelectedElements() {
+        assertMatches("does not match count", hasSelectorCount("tr", equalTo(5)), table);
+        assertMatches("does not match no element", hasSelectorCount("td", equalTo(0)), table);
+        assertDoesNotMatch("matches a different count", hasSelectorCount("tr.odd", equalTo(2)), table);
+    }
+
+    @Test
+    public void
+    matchesCountWithinRange() {
+        assertMatches("does not match lower bound", hasSelectorCount("tr", atLeast(5)), table);
+        assertMatches("does not match upper bound", hasSelectorCount("tr", atMost(5)), table);
+        assertMatches("does not match range", hasSelectorCount("tr.even", between(1, 2)), table);
+        assertMatches("does not match empty range", hasSelectorCount("td", atLeast(0)), table);
+        assertDoesNotMatch("matches below range", hasSelectorCount("tr", atLeast(6)), table);
+        assertDoesNotMatch("matches above range", hasSelectorCount("tr", atMost(4)), table);
+        assertDoesNotMatch("matches outside range", hasSelectorCount("tr.odd", between(1, 2)), table);
+    }
+
+    @Test
+    public void
+    acceptsCompiledSelectors() {
+        assertMatches("does not match compiled selector", hasSelectorCount(Selector.compile("tr.odd"), equalTo(3)), table);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void
+    rejectsEmptyRanges() {
+        between(3, 2);
+    }
+
+    @Test
+    public void
+    hasAReadableDescription() {
+        assertDescription("has selector \"tr\" with count <5>", hasSelectorCount("tr", equalTo(5)));
+        assertDescription("has selector \"tr\" with count at least 2", hasSelectorCount("tr", atLeast(2)));
+        assertDescription("has selector \"tr\" with count at most 2", hasSelectorCount("tr", atMost(2)));
+        assertDescription("has selector \"tr\" with count between 1 and 2", hasSelectorCount("tr", between(1, 2)));
+    }
+
+    @Test
+    public void
+    hasAReadableMismatchDescription() {
+        assertMismatchDescription("3 selector(s) \"tr.odd\"", hasSelectorCount("tr.odd", equalTo(2)), table);
+        assertMismatchDescription("0 selector(s) \"td\"", hasSelectorCount("td", atLeast(1)), table);
+    }
+
+    @Test
+    public void
+    describesActualCountOnceUpperBoundIsExceeded() {
+        assertMismatchDescription("5 selector(s) \"tr\"", hasSelectorCount("tr", atMost(1)), table);
+        assertMismatchDescription("has selector \"tr\" with count between 1 and 2 5 selector(s) \"tr\"", new DomAssertions(hasSelectorCount("tr", between(1, 2))), table);
+    }
+}
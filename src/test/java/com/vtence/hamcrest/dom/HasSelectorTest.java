@@ -2,9 +2,12 @@ package com.vtence.hamcrest.dom;
 
 import org.hamcrest.Matcher;
 import org.junit.Test;
+import org.w3c.dom.Element;
 
 import static com.vtence.hamcrest.dom.HTML.html;
+import static com.vtence.hamcrest.dom.HasAttribute.hasAttribute;
 import static com.vtence.hamcrest.dom.HasAttributeValue.hasClassName;
+import static com.vtence.hamcrest.dom.HasAttributeValue.hasId;
 import static com.vtence.hamcrest.dom.HasSelector.hasSelector;
 import static com.vtence.hamcrest.dom.HasTag.hasTag;
 import static org.hamcrest.Matchers.equalTo;
@@ -33,6 +36,24 @@ public class HasSelectorTest extends AbstractMatcherTest {
         assertDoesNotMatch("matches different element", hasSelector("#content", hasTag("div")), html("<span id='content'>content</span>"));
     }
 
+    @Test
+    public void
+    filtersSelectedElementsWithCheapSubjectMatchers() {
+        Element list = html("<ol><li id='first' class='odd'>first</li><li class='even'>second</li></ol>");
+        assertMatches("does not match filtered child", hasSelector("li", hasId("first")), list);
+        assertMatches("does not match some filtered children", hasSelector("li", hasTag("li"), hasClassName("even")), list);
+        assertDoesNotMatch("matches filtered out children", hasSelector("li", hasClassName("odd"), hasAttribute("title")), list);
+        assertMismatchDescription("li a collection containing has class name \"last\" mismatches were: [\"class\" value was \"odd\", \"class\" value was \"even\"]",
+                hasSelector("li", hasClassName("last")), list);
+    }
+
+    @Test
+    public void
+    acceptsCompiledSelectors() {
+        assertMatches("does not match compiled selector", hasSelector(Selector.compile("ol > li"), hasClassName("odd")), html("<ol><li class='odd'>first</li></ol>"));
+        assertDescription("has selector \"ol > li\"", hasSelector(Selector.compile("ol > li")));
+    }
+
     @Test
     public void
     hasAReadableDescription() {
@@ -0,0 +1,90 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import static com.vtence.hamcrest.dom.Documents.toElement;
+import static com.vtence.hamcrest.dom.HasStreamedContentText.hasBlankContent;
+import static com.vtence.hamcrest.dom.HasStreamedContentText.hasContent;
+import static com.vtence.hamcrest.dom.HasStreamedContentText.hasContentCompressingWhiteSpace;
+import static com.vtence.hamcrest.dom.HasStreamedContentText.hasContentContaining;
+import static com.vtence.hamcrest.dom.HasStreamedContentText.hasContentStartingWith;
+
+public class HasStreamedContentTextTest extends AbstractMatcherTest {
+
+    @Override
+    protected Matcher<?> createMatcher() {
+        return hasContent("text");
+    }
+
+    @Test
+    public void
+    readsTextOfAllDescendantsInDocumentOrder() {
+        Element element = toElement("<div>one <b>two <i>three</i></b><!-- not text --> <![CDATA[four]]></div>");
+        assertMatches("does not match content", hasContent("one two three four"), element);
+        assertDoesNotMatch("matches shorter content", hasContent("one two three"), element);
+        assertDoesNotMatch("matches longer content", hasContent("one two three four five"), element);
+    }
+
+    @Test
+    public void
+    matchesContentStartingWithPrefix() {
+        assertMatches("does not match prefix", hasContentStartingWith("one tw"), anElementWithText("one <b>two</b>"));
+        assertMatches("does not match empty prefix", hasContentStartingWith(""), anElementWithText(""));
+        assertDoesNotMatch("matches other prefix", hasContentStartingWith("two"), anElementWithText("one <b>two</b>"));
+        assertDoesNotMatch("matches longer prefix", hasContentStartingWith("one two"), anElementWithText("one"));
+    }
+
+    @Test
+    public void
+    matchesContentContainingSubstring() {
+        assertMatches("does not match across nodes", hasContentContaining("e tw"), anElementWithText("one <b>two</b>"));
+        assertMatches("does not match after partial match", hasContentContaining("aab"), anElementWithText("aaab"));
+        assertMatches("does not match overlapping pattern", hasContentContaining("abab"), anElementWithText("abaabab"));
+        assertDoesNotMatch("matches missing substring", hasContentContaining("three"), anElementWithText("one <b>two</b>"));
+    }
+
+    @Test
+    public void
+    matchesBlankContent() {
+        assertMatches("does not match empty content", hasBlankContent(), anElementWithText(""));
+        assertMatches("does not match white space", hasBlankContent(), anElementWithText(" \t<b>\n </b>\r"));
+        assertDoesNotMatch("matches text", hasBlankContent(), anElementWithText(" <b> . </b>"));
+    }
+
+    @Test
+    public void
+    matchesContentIgnoringDifferencesInWhiteSpace() {
+        assertMatches("does not match compressed white space",
+                hasContentCompressingWhiteSpace(" one   two\n three "), anElementWithText("\n one <b>two</b>\t\tthree  \n"));
+        assertMatches("does not match blank content", hasContentCompressingWhiteSpace("  "), anElementWithText("\n  "));
+        assertDoesNotMatch("matches missing white space",
+                hasContentCompressingWhiteSpace("one two"), anElementWithText("one<b>two</b>"));
+        assertDoesNotMatch("matches additional text",
+                hasContentCompressingWhiteSpace("one two"), anElementWithText("one two three"));
+    }
+
+    @Test
+    public void
+    hasReadableDescriptions() {
+        assertDescription("has content text \"expected\"", hasContent("expected"));
+        assertDescription("has content text a string starting with \"exp\"", hasContentStartingWith("exp"));
+        assertDescription("has content text a string containing \"pec\"", hasContentContaining("pec"));
+        assertDescription("has content text a blank string", hasBlankContent());
+        assertDescription("has content text a string equal to \"expected\" compressing white space",
+                hasContentCompressingWhiteSpace("expected"));
+    }
+
+    @Test
+    public void
+    hasReadableMismatchDescriptions() {
+        assertMismatchDescription("text was \"different\"", hasContent("expected"), anElementWithText("<b>diff</b>erent"));
+        assertMismatchDescription("text was \"different\"", hasContentContaining("pec"), anElementWithText("different"));
+        assertMismatchDescription("text was \" different \"", hasBlankContent(), anElementWithText(" different "));
+    }
+
+    private Element anElementWithText(String content) {
+        return toElement(String.format("<div>%s</div>", content));
+    }
+}
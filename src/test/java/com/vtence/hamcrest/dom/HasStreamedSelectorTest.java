@@ -0,0 +1,134 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static com.vtence.hamcrest.dom.HasStreamedSelector.hasNoSelector;
+import static com.vtence.hamcrest.dom.HasStreamedSelector.hasSelector;
+import static com.vtence.hamcrest.dom.HasSelectorCount.atLeast;
+import static com.vtence.hamcrest.dom.HasSelectorCount.atMost;
+import static com.vtence.hamcrest.dom.HasStreamedSelector.hasSelectorCount;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class HasStreamedSelectorTest extends AbstractMatcherTest {
+
+    String feed = "<feed xmlns:g='http://base.google.com/ns/1.0'>" +
+                  "  <item id='first' class='product new'><title>Bike</title><g:price currency='EUR'>100</g:price></item>" +
+                  "  <item id='second' class='product'><title>Helmet</title><g:price>20</g:price></item>" +
+                  "  <item id='third' class='service'><title>Repair</title></item>" +
+                  "</feed>";
+
+    @Override
+    protected Matcher<?> createMatcher() {
+        return hasSelector("item");
+    }
+
+    @Test
+    public void
+    matchesWhenAnElementIsSelected() {
+        assertMatches("does not match descendant", hasSelector("feed item title"), xml(feed));
+        assertMatches("does not match child", hasSelector("feed > item > [currency]"), xml(feed));
+        assertMatches("does not match class", hasSelector(".product.new"), xml(feed));
+        assertMatches("does not match id", hasSelector("#third"), xml(feed));
+        assertMatches("does not match attribute", hasSelector("[currency^=E]"), xml(feed));
+        assertDoesNotMatch("matches missing element", hasSelector("item > item"), xml(feed));
+    }
+
+    @Test
+    public void
+    matchesFirstChildAndRootPseudoClasses() {
+        assertMatches("does not match first child", hasSelector("#first:first-child"), xml(feed));
+        assertDoesNotMatch("matches non first child", hasSelector("#second:first-child"), xml(feed));
+        assertDoesNotMatch("matches document element as first child", hasSelector("feed:first-child"), xml(feed));
+        assertMatches("does not match root", hasSelector("feed:root > item:not(.product)"), xml(feed));
+    }
+
+    @Test
+    public void
+    matchesWhenNoElementIsSelected() {
+        assertMatches("does not match missing element", hasNoSelector("item.discontinued"), xml(feed));
+        assertDoesNotMatch("matches existing element", hasNoSelector(".product title"), xml(feed));
+    }
+
+    @Test
+    public void
+    countsSelectedElements() {
+        assertMatches("does not match count", hasSelectorCount("item.product", equalTo(2)), xml(feed));
+        assertDoesNotMatch("matches wrong count", hasSelectorCount("item", greaterThan(3)), xml(feed));
+    }
+
+    @Test
+    public void
+    selectsSameElementsAsDomSelector() {
+        for (String selector : new String[] { "*", "feed *", "item", ".product", "[id]", "[class|=product]", "[class~=new]",
+                "item > :first-child", ":first-child", ":root", "feed title", "item:not(#second) > *", "title, item" }) {
+            int count = Selector.from(Documents.toElement(feed)).selectAll(selector).size();
+            assertMatches(selector, hasSelectorCount(selector, equalTo(count)), xml(feed));
+        }
+    }
+
+    @Test
+    public void
+    stopsCountingOnceCountIsOutOfRange() {
+        InputStream truncated = xml("<feed><item/><item/><item/><item/><broken");
+        assertMismatchDescription("3 or more selector(s) \"item\"", hasSelectorCount("item", atMost(2)), truncated);
+        assertMatches("does not match", hasSelectorCount("item", atLeast(2)), xml("<feed><item/><item/><broken"));
+    }
+
+    @Test
+    public void
+    readsDocumentsWithADocumentType() {
+        String page = "<!DOCTYPE html PUBLIC '-//W3C//DTD XHTML 1.0 Strict//EN' 'http://www.w3.org/TR/xhtml1/DTD/xhtml1-strict.dtd'>" +
+                      "<html xmlns='http://www.w3.org/1999/xhtml'><body><p class='greeting'>Hello</p></body></html>";
+        assertMatches("does not match external document type", hasSelector("body > p.greeting"), xml(page));
+        assertMatches("does not match internal document type", hasSelector("feed > item[title='Acme bike']"),
+                xml("<!DOCTYPE feed [<!ENTITY brand 'Acme'>]><feed><item title='&brand; bike'/></feed>"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void
+    rejectsSelectorsThatCannotBeEvaluatedForwardOnly() {
+        hasSelector("item + item");
+    }
+
+    @Test
+    public void
+    hasAReadableDescription() {
+        assertDescription("has selector \"item\"", hasSelector("item"));
+        assertDescription("has no selector \"item\"", hasNoSelector("item"));
+        assertDescription("has selector \"item\" with count <3>", hasSelectorCount("item", equalTo(3)));
+    }
+
+    @Test
+    public void
+    hasAReadableMismatchDescription() {
+        assertMismatchDescription("no selector \"entry\"", hasSelector("entry"), xml(feed));
+        assertMismatchDescription("found element \"g:price\"", hasNoSelector("[currency]"), xml(feed));
+        assertMismatchDescription("3 selector(s) \"item\"", hasSelectorCount("item", equalTo(2)), xml(feed));
+    }
+
+    @Test
+    public void
+    reportsMalformedDocuments() {
+        Matcher<InputStream> hasItem = hasSelector("item");
+        InputStream malformed = xml("<feed><entry>");
+        assertDoesNotMatch("matches malformed document", hasItem, malformed);
+
+        Description mismatch = new StringDescription();
+        hasItem.describeMismatch(malformed, mismatch);
+        assertThat("mismatch description", mismatch.toString(), startsWith("could not read XML"));
+    }
+
+    private InputStream xml(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
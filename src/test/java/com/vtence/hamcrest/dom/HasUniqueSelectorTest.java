@@ -30,6 +30,13 @@ public class HasUniqueSelectorTest extends AbstractMatcherTest {
         assertDoesNotMatch("matches a different child", hasUniqueSelector("#content", hasTag("div")), html("<span id='content'>content</span>"));
     }
 
+    @Test
+    public void
+    acceptsCompiledSelectors() {
+        assertMatches("does not match compiled selector", hasUniqueSelector(Selector.compile("#content"), hasTag("div")), html("<div id='content'>content</div>"));
+        assertDoesNotMatch("matches subject several times", hasUniqueSelector(Selector.compile("li")), html("<ol><li>first</li><li>second</li></ol>"));
+    }
+
     @Test
     public void
     hasAReadableDescription() {
@@ -39,6 +46,7 @@ public class HasUniqueSelectorTest extends AbstractMatcherTest {
     @Test
     public void
     hasAReadableMismatchDescription() {
-        assertMismatchDescription("2 selector(s) \"li\"", hasUniqueSelector("li"), html("<ol><li>first</li><li>second</li></ol>"));
+        assertMismatchDescription("0 selector(s) \"li\"", hasUniqueSelector("li"), html("<ol></ol>"));
+        assertMismatchDescription("2 or more selector(s) \"li\"", hasUniqueSelector("li"), html("<ol><li>first</li><li>second</li><li>third</li></ol>"));
     }
 }
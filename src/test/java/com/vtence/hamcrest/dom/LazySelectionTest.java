@@ -0,0 +1,141 @@
+package com.vtence.hamcrest.dom;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.vtence.hamcrest.dom.HTML.html;
+import static com.vtence.hamcrest.dom.W3cNodeModel.w3c;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.junit.Assert.assertEquals;
+
+public class LazySelectionTest {
+
+    Element page = html("<ol><li class='odd'>1</li><li class='even'>2</li><li class='odd'>3</li><li class='even'>4</li>" +
+                        "<li class='odd'>5</li><li class='even'>6</li></ol>");
+
+    @Test
+    public void
+    selectsElementsInDocumentOrder() {
+        assertThat(texts(Selector.from(page).selectLazily("li.even")), contains("2", "4", "6"));
+        assertThat(texts(Selector.from(page).selectLazily("li:nth-child(2n+1)")), contains("1", "3", "5"));
+        assertThat(Selector.from(page).selectLazily("ul"), emptyIterable());
+    }
+
+    @Test
+    public void
+    walksTheTreeOnlyAsFarAsElementsAreAskedFor() {
+        CountingModel model = new CountingModel();
+        Iterable<Element> selection = LazySelection.within(model, page, Selector.compile("li.odd"));
+        selection.iterator().next();
+        // html, body, ol and the first item
+        assertEquals("elements visited", 4, model.visited);
+
+        selection.iterator().next();
+        assertEquals("elements visited again", 4, model.visited);
+    }
+
+    @Test
+    public void
+    replaysSelectedElementsBeforeResumingTraversal() {
+        CountingModel model = new CountingModel();
+        Iterable<Element> selection = LazySelection.within(model, page, Selector.compile("li.odd"));
+        selection.iterator().next();
+        assertThat(texts(selection), contains("1", "3", "5"));
+        assertThat(texts(selection), contains("1", "3", "5"));
+        assertEquals("elements visited", 9, model.visited);
+    }
+
+    @Test
+    public void
+    keepsOnlyElementsMatchedByFilter() {
+        LazySelection<Element> selection = LazySelection.within(w3c(), page, Selector.compile("li"), HasClassName.hasClassName("even"));
+        assertThat(texts(selection), contains("2", "4", "6"));
+        assertEquals("elements kept", 3, selection.size());
+    }
+
+    @Test
+    public void
+    countsElementsWithoutKeepingThem() {
+        CountingModel model = new CountingModel();
+        LazySelection<Element> selection = LazySelection.within(model, page, Selector.compile("li.odd"));
+        assertEquals("count", 2, selection.count(2));
+        // html, body, ol and the first three items
+        assertEquals("elements visited", 6, model.visited);
+        assertEquals("count", 3, selection.count(Integer.MAX_VALUE));
+        assertEquals("elements selected", 3, selection.size());
+    }
+
+    @Test
+    public void
+    stopsSelectingOnceSubjectsAreMatched() {
+        CountingModel model = new CountingModel();
+        assertThat(page, NodeMatchers.hasSelector(model, "li", NodeMatchers.hasText(model, "2")));
+        assertEquals("elements visited", 5, model.visited);
+    }
+
+    @Test
+    public void
+    describesAllSelectedElements() {
+        Iterable<Element> selection = LazySelection.within(w3c(), page, Selector.compile("li:nth-child(3n)"));
+        selection.iterator().next();
+        assertEquals("[" + page.getElementsByTagName("li").item(2) + ", " + page.getElementsByTagName("li").item(5) + "]",
+                selection.toString());
+    }
+
+    private static List<String> texts(Iterable<Element> elements) {
+        List<String> texts = new ArrayList<>();
+        for (Element element : elements) texts.add(element.getTextContent());
+        return texts;
+    }
+
+    // Counts the elements visited by traversing the DOM
+    private static class CountingModel implements NodeModel<Element> {
+        int visited = 1;
+
+        public Class<Element> elementType() {
+            return Element.class;
+        }
+
+        public String tagName(Element element) {
+            return w3c().tagName(element);
+        }
+
+        public String attribute(Element element, String name) {
+            return w3c().attribute(element, name);
+        }
+
+        public CharSequence text(Element element) {
+            return w3c().text(element);
+        }
+
+        public Element parent(Element element) {
+            return w3c().parent(element);
+        }
+
+        public boolean isRoot(Element element) {
+            return w3c().isRoot(element);
+        }
+
+        public Element firstChild(Element element) {
+            return counted(w3c().firstChild(element));
+        }
+
+        public Element nextSibling(Element element) {
+            return counted(w3c().nextSibling(element));
+        }
+
+        public Element previousSibling(Element element) {
+            return w3c().previousSibling(element);
+        }
+
+        private Element counted(Element element) {
+            if (element != null) visited++;
+            return element;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import java.lang.ref.WeakReference;
+
+import static com.vtence.hamcrest.dom.AbstractMatcherTest.assertMismatchDescription;
+import static com.vtence.hamcrest.dom.DomMatchers.hasSelector;
+import static com.vtence.hamcrest.dom.DomMatchers.hasUniqueSelector;
+import static com.vtence.hamcrest.dom.HTML.html;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MatchMemoTest {
+
+    Element page = html("<ol><li class='odd'>first</li><li class='even'>second</li><li class='odd'>third</li></ol>");
+
+    @Test
+    public void
+    matchesEachSubjectOnceWhenDescribingAFailedAssertion() {
+        CountingMatcher odd = new CountingMatcher("odd");
+        CountingMatcher missing = new CountingMatcher("missing");
+        try {
+            assertThat(page, hasSelector("li", odd, missing));
+            fail("matched");
+        } catch (AssertionError expected) {
+            assertTrue("description", expected.getMessage().contains("class \"missing\""));
+        }
+        assertEquals("odd subjects matched", 1, odd.count);
+        assertEquals("missing subjects matched", 3, missing.count);
+    }
+
+    @Test
+    public void
+    matchesUniqueSubjectOnceWhenDescribingAFailedAssertion() {
+        CountingMatcher even = new CountingMatcher("odd");
+        assertMismatchDescription("li.even was \"even\"", hasUniqueSelector("li.even", even), page);
+        assertEquals("subject matched", 1, even.count);
+    }
+
+    @Test
+    public void
+    alwaysMatchesAfresh() {
+        CountingMatcher odd = new CountingMatcher("odd");
+        Matcher<Element> matcher = hasUniqueSelector("li.even", odd);
+        assertFalse("matches", matcher.matches(page));
+
+        page.getElementsByTagName("li").item(1).getAttributes().getNamedItem("class").setNodeValue("odd");
+        page.getElementsByTagName("li").item(0).getAttributes().getNamedItem("class").setNodeValue("even");
+        assertFalse("matches", matcher.matches(page));
+        assertEquals("subject matched", 2, odd.count);
+    }
+
+    @Test
+    public void
+    describesSubjectsMatchedOnTheirOwn() {
+        CountingMatcher odd = new CountingMatcher("odd");
+        Matcher<Element> matcher = hasUniqueSelector("li.even", odd);
+        assertMismatchDescription("li.even was \"even\"", matcher, page);
+        assertFalse("matches on its own", odd.matches(page.getElementsByTagName("li").item(1)));
+        assertEquals("subject matched", 2, odd.count);
+    }
+
+    @Test
+    public void
+    keepsSelectionUntilDescribedWhateverTheGarbageCollection() {
+        CountingMatcher odd = new CountingMatcher("odd");
+        Matcher<Element> matcher = hasUniqueSelector("li.even", odd);
+        assertFalse("matches", matcher.matches(page));
+
+        for (int i = 0; i < 5; i++) System.gc();
+        matcher.describeMismatch(page, new StringDescription());
+        assertEquals("subject matched", 1, odd.count);
+    }
+
+    @Test
+    public void
+    releasesSelectionOnceDescribed() {
+        Matcher<Element> matcher = hasUniqueSelector("li.even", new CountingMatcher("odd"));
+        WeakReference<Element> mismatched = new WeakReference<>(html("<ol><li class='even'>even</li></ol>"));
+        assertFalse("matches", matcher.matches(mismatched.get()));
+        matcher.describeMismatch(mismatched.get(), new StringDescription());
+
+        for (int i = 0; i < 10 && mismatched.get() != null; i++) System.gc();
+        assertNull("kept in memory", mismatched.get());
+    }
+
+    private static class CountingMatcher extends TypeSafeMatcher<Element> {
+        private final String className;
+        int count;
+
+        CountingMatcher(String className) {
+            this.className = className;
+        }
+
+        protected boolean matchesSafely(Element element) {
+            count++;
+            return element.getAttribute("class").equals(className);
+        }
+
+        @Override
+        protected void describeMismatchSafely(Element element, Description mismatchDescription) {
+            mismatchDescription.appendText("was ").appendValue(element.getAttribute("class"));
+        }
+
+        public void describeTo(Description description) {
+            description.appendText("class ").appendValue(className);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.vtence.hamcrest.dom;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.vtence.hamcrest.dom.Documents.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class NodeMatchersTest {
+
+    Element page = toElement(
+            "<html><body>" +
+            "<div id='main' class='content wide' lang='en-US'>" +
+            "  <h1>Title</h1>" +
+            "  <ul class='list'><li class='odd first'>one</li><li class='even'>two<b/></li><li class='odd'>three</li>" +
+            "    <li class=' even'><ul><li>nested</li><li class='odd'><p/><p>deep</p></li></ul></li></ul>" +
+            "  <p data-role='note' title='a b  c'>first <em>note</em></p><p></p>" +
+            "  <span lang='en'/><SPAN lang='fr-CA'/><div><span>x</span><span>y</span><i/></div>" +
+            "</div>" +
+            "<div class='footer'><p class='content'>footer</p></div>" +
+            "</body></html>");
+    Tree tree = Tree.copyOf(page);
+    Tree main = tree.children.get(0).children.get(0);
+
+    @Test
+    public void
+    selectsSameElementsAsDomSelector() {
+        for (String selector : new String[] {
+                "*", "li", "LI", "div li", "div > ul > li", "ul li li", "html li.odd", "#main", ".odd.first",
+                "li.even ~ li", "li + li", "h1 + ul > li", "li:first-child", "li:last-child", "li:only-child",
+                "p:first-of-type", "span:only-of-type", ":root", "p:empty", "b:empty", "li:nth-child(2n+1)",
+                "li:nth-last-child(1)", "span:nth-of-type(2)", "li:not(.odd)", ":not(li)", "[lang|=en]",
+                "[class~=even]", "[title~=b]", "[title$=c]", "p[data-role='note'] em", "div p, li.odd, #main"
+        }) {
+            assertEquals(selector, texts(Selector.from(page).selectAll(selector)),
+                    texts(NodeSelector.from(Tree.MODEL, tree).selectAll(selector)));
+        }
+    }
+
+    @Test
+    public void
+    matchesLikeDomMatchers() {
+        assertSameOutcome(DomMatchers.hasTag("div"), NodeMatchers.hasTag(Tree.MODEL, "div"));
+        assertSameOutcome(DomMatchers.hasTag("span"), NodeMatchers.hasTag(Tree.MODEL, "span"));
+        assertSameOutcome(DomMatchers.hasId("main"), NodeMatchers.hasId(Tree.MODEL, "main"));
+        assertSameOutcome(DomMatchers.hasName("main"), NodeMatchers.hasName(Tree.MODEL, "main"));
+        assertSameOutcome(DomMatchers.hasAttribute("lang"), NodeMatchers.hasAttribute(Tree.MODEL, "lang"));
+        assertSameOutcome(DomMatchers.hasAttribute("title"), NodeMatchers.hasAttribute(Tree.MODEL, "title"));
+        assertSameOutcome(DomMatchers.hasAttribute("lang", containsString("fr")), NodeMatchers.hasAttribute(Tree.MODEL, "lang", containsString("fr")));
+        assertSameOutcome(DomMatchers.hasClassName("wide"), NodeMatchers.hasClassName(Tree.MODEL, "wide"));
+        assertSameOutcome(DomMatchers.hasClassNames("wide", "narrow"), NodeMatchers.hasClassNames(Tree.MODEL, "wide", "narrow"));
+        assertSameOutcome(DomMatchers.hasText(containsString("three")), NodeMatchers.hasText(Tree.MODEL, containsString("three")));
+        assertSameOutcome(DomMatchers.hasText("Title"), NodeMatchers.hasText(Tree.MODEL, "Title"));
+        assertSameOutcome(DomMatchers.hasTextStartingWith("  Title"), NodeMatchers.hasTextStartingWith(Tree.MODEL, "  Title"));
+        assertSameOutcome(DomMatchers.hasTextContaining("deep"), NodeMatchers.hasTextContaining(Tree.MODEL, "deep"));
+        assertSameOutcome(DomMatchers.hasTextCompressingWhiteSpace("Title"), NodeMatchers.hasTextCompressingWhiteSpace(Tree.MODEL, "Title"));
+        assertSameOutcome(DomMatchers.hasBlankText(), NodeMatchers.hasBlankText(Tree.MODEL));
+        assertSameOutcome(DomMatchers.hasChild(DomMatchers.hasTag("ul")), NodeMatchers.hasChild(Tree.MODEL, NodeMatchers.hasTag(Tree.MODEL, "ul")));
+        assertSameOutcome(DomMatchers.hasChildren(DomMatchers.hasTag("h1"), DomMatchers.hasTag("ul"), DomMatchers.hasTag("p"), DomMatchers.hasTag("p"),
+                DomMatchers.hasTag("span"), DomMatchers.hasTag("span"), DomMatchers.hasTag("div")),
+                NodeMatchers.hasChildren(Tree.MODEL, NodeMatchers.hasTag(Tree.MODEL, "h1"), NodeMatchers.hasTag(Tree.MODEL, "ul"), NodeMatchers.hasTag(Tree.MODEL, "p"),
+                        NodeMatchers.hasTag(Tree.MODEL, "p"), NodeMatchers.hasTag(Tree.MODEL, "span"), NodeMatchers.hasTag(Tree.MODEL, "span"),
+                        NodeMatchers.hasTag(Tree.MODEL, "div")));
+        assertSameOutcome(HasSelector.hasSelector("li.odd"), NodeMatchers.hasSelector(Tree.MODEL, "li.odd"));
+        assertSameOutcome(DomMatchers.hasSelector("li.odd", DomMatchers.hasText("one"), DomMatchers.hasText("four")),
+                NodeMatchers.hasSelector(Tree.MODEL, "li.odd", NodeMatchers.hasText(Tree.MODEL, "one"), NodeMatchers.hasText(Tree.MODEL, "four")));
+        assertSameOutcome(HasSelector.hasSelector("ol"), NodeMatchers.hasSelector(Tree.MODEL, "ol"));
+        assertSameOutcome(DomMatchers.hasUniqueSelector("li.first", DomMatchers.hasText("one")),
+                NodeMatchers.hasUniqueSelector(Tree.MODEL, "li.first", NodeMatchers.hasText(Tree.MODEL, "one")));
+        assertSameOutcome(DomMatchers.hasUniqueSelector("li.odd"), NodeMatchers.hasUniqueSelector(Tree.MODEL, "li.odd"));
+        assertSameOutcome(DomMatchers.hasNoSelector("p em"), NodeMatchers.hasNoSelector(Tree.MODEL, "p em"));
+        assertSameOutcome(DomMatchers.hasNoSelector("ol"), NodeMatchers.hasNoSelector(Tree.MODEL, "ol"));
+    }
+
+    @Test
+    public void
+    onlyMatchesElementsOfTheModel() {
+        assertThat(main, NodeMatchers.hasTag(Tree.MODEL, "div"));
+        assertFalse("dom element", ((Matcher<?>) NodeMatchers.hasTag(Tree.MODEL, "html")).matches(page));
+        assertFalse("tree element", ((Matcher<?>) DomMatchers.hasTag("html")).matches(tree));
+    }
+
+    @Test
+    public void
+    matchesDomElementsWithW3cMatchers() {
+        Element dom = (Element) page.getElementsByTagName("div").item(0);
+        assertThat(dom, new HasTag.W3c(equalTo("div")));
+        assertThat(dom, new HasAttribute.W3c("lang"));
+        assertThat(dom, new HasAttributeValue.W3c("id", equalTo("main")));
+        assertThat(dom, new HasContentText.W3c(containsString("nested")));
+        assertThat(dom, new HasChildren.W3c(DomMatchers.contains(DomMatchers.hasTag("h1"), DomMatchers.hasTag("ul"), DomMatchers.hasTag("p"),
+                DomMatchers.hasTag("p"), DomMatchers.hasTag("span"), DomMatchers.hasTag("span"), DomMatchers.hasTag("div"))));
+        assertThat(dom, new HasSelector.W3c("li.odd"));
+        assertThat(dom, new HasSelector.W3c("li.odd", DomMatchers.containsInAnyOrder(DomMatchers.hasText("one"), DomMatchers.hasText("three"), DomMatchers.hasText("deep"))));
+        assertThat(dom, new HasUniqueSelector.W3c("h1", DomMatchers.hasText("Title")));
+        assertThat(dom, new HasNoSelector.W3c("ol"));
+    }
+
+    private void assertSameOutcome(Matcher<Element> expected, Matcher<Tree> actual) {
+        Element dom = (Element) page.getElementsByTagName("div").item(0);
+        String description = StringDescription.toString(expected);
+        assertEquals("description", description, StringDescription.toString(actual));
+        assertEquals(description, expected.matches(dom), actual.matches(main));
+        assertEquals(description, mismatchOf(expected, dom), mismatchOf(actual, main));
+    }
+
+    private static <T> String mismatchOf(Matcher<T> matcher, T actual) {
+        StringDescription mismatch = new StringDescription();
+        matcher.describeMismatch(actual, mismatch);
+        return mismatch.toString();
+    }
+
+    private static List<String> texts(List<?> elements) {
+        List<String> texts = new ArrayList<>();
+        for (Object element : elements) {
+            texts.add(element instanceof Tree ? ((Tree) element).toString() : ((Node) element).getNodeName() + ":" + ((Node) element).getTextContent());
+        }
+        return texts;
+    }
+
+    /**
+     * A minimal tree of elements, to match something else than the DOM.
+     */
+    public static class Tree {
+        static final NodeModel<Tree> MODEL = new TreeModel();
+
+        final String tag;
+        final Map<String, String> attributes = new HashMap<>();
+        final List<Tree> children = new ArrayList<>();
+        final String text;
+        Tree parent;
+
+        Tree(String tag, String text) {
+            this.tag = tag;
+            this.text = text;
+        }
+
+        static Tree copyOf(Element element) {
+            Tree tree = new Tree(element.getTagName(), element.getTextContent());
+            NamedNodeMap attributes = element.getAttributes();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                Attr attribute = (Attr) attributes.item(i);
+                tree.attributes.put(attribute.getName(), attribute.getValue());
+            }
+            for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (!(child instanceof Element)) continue;
+                Tree copy = copyOf((Element) child);
+                copy.parent = tree;
+                tree.children.add(copy);
+            }
+            return tree;
+        }
+
+        Tree sibling(int offset) {
+            if (parent == null) return null;
+            int index = parent.children.indexOf(this) + offset;
+            return index >= 0 && index < parent.children.size() ? parent.children.get(index) : null;
+        }
+
+        public String toString() {
+            return tag + ":" + text;
+        }
+    }
+
+    private static class TreeModel implements NodeModel<Tree> {
+        public Class<Tree> elementType() {
+            return Tree.class;
+        }
+
+        public String tagName(Tree element) {
+            return element.tag;
+        }
+
+        public String attribute(Tree element, String name) {
+            return element.attributes.get(name);
+        }
+
+        public CharSequence text(Tree element) {
+            return element.text;
+        }
+
+        public Tree parent(Tree element) {
+            return element.parent;
+        }
+
+        public boolean isRoot(Tree element) {
+            return element.parent == null;
+        }
+
+        public Tree firstChild(Tree element) {
+            return element.children.isEmpty() ? null : element.children.get(0);
+        }
+
+        public Tree nextSibling(Tree element) {
+            return element.sibling(1);
+        }
+
+        public Tree previousSibling(Tree element) {
+            return element.sibling(-1);
+        }
+    }
+}
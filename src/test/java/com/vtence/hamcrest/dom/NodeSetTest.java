@@ -0,0 +1,92 @@
+package com.vtence.hamcrest.dom;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.vtence.hamcrest.dom.HTML.html;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NodeSetTest {
+
+    Element page = html(
+            "<div id='grid'>" +
+            "  <h2>Items</h2>" +
+            "  <ul><li class='odd'>1</li><li class='even'>2<ul><li>2.1</li><li class='odd'>2.2</li></ul></li>" +
+            "    <li class='odd'><p>3</p></li><li class='even'>4</li></ul>" +
+            "  <p>Total</p>" +
+            "</div>" +
+            "<div id='other'><h2>More</h2><ol><li class='odd'>5</li></ol><p>End</p></div>");
+    ElementIndex index = ElementIndex.build(page.getOwnerDocument());
+
+    @Test
+    public void
+    selectsSameElementsAsMatchingEachElement() {
+        assertSelectsLikeEngine(page, "li.odd + li", "li + li.even", "li:first-child ~ li", "h2 ~ p", "h2 + ul > li");
+        assertSelectsLikeEngine(page, "div > h2 ~ * li", "ul li ~ li > ul", "li.even ~ .odd p", "#grid h2 + * ~ *");
+        assertSelectsLikeEngine(page, "li ~ li, li + li, h2 ~ p", "div ~ div li:not(.even)", "li ~ :first-child", "ol + p");
+    }
+
+    @Test
+    public void
+    skipsOtherNodesOfSnapshots() {
+        Element frozen = DomSnapshot.freeze(page);
+        ElementIndex index = ElementIndex.of(frozen.getOwnerDocument());
+        for (String selector : new String[] {"li.odd + li", "h2 + ul > li", "li ~ li", "div > h2 ~ * li", "ol + p", "div li p"}) {
+            assertEquals(selector, matchingEachElement(frozen, Selector.compile(selector)), elements(NodeSet.select(index, frozen, Selector.compile(selector))));
+        }
+    }
+
+    @Test
+    public void
+    matchesLeftmostSelectorsOutsideOfRoot() {
+        Element list = (Element) page.getElementsByTagName("ul").item(0);
+        assertSelectsLikeEngine(list, "h2 ~ ul li", "h2 + ul > li + li", "#grid li.even ~ li", "div ~ div li");
+    }
+
+    @Test
+    public void
+    walksSiblingsOnce() {
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < 100; i++) items.append("<li>").append(i).append("</li>");
+        Element list = html("<ul>" + items + "</ul>");
+
+        NodeSet selected = NodeSet.select(ElementIndex.build(list.getOwnerDocument()), list, Selector.compile("li:first-child ~ li"));
+        assertEquals("selected", 99, selected.size());
+        assertTrue("visited " + selected.visited() + " elements", selected.visited() <= 2 * 100);
+    }
+
+    @Test
+    public void
+    leavesRootsFarIntoTheirDocumentToOtherStrategies() {
+        Element last = (Element) page.getElementsByTagName("p").item(2);
+        assertNull("node set", NodeSet.select(index, last, Selector.compile("h2 ~ p")));
+    }
+
+    private void assertSelectsLikeEngine(Element root, String... selectors) {
+        for (String selector : selectors) {
+            assertEquals(selector, matchingEachElement(root, Selector.compile(selector)), elements(NodeSet.select(index, root, Selector.compile(selector))));
+        }
+    }
+
+    private static List<Element> elements(NodeSet selected) {
+        List<Element> elements = new ArrayList<>();
+        for (Element element : selected) elements.add(element);
+        return elements;
+    }
+
+    private static List<Element> matchingEachElement(Element root, CompiledSelector selector) {
+        List<Element> selected = new ArrayList<>();
+        if (selector.matches(root)) selected.add(root);
+        NodeList descendants = root.getElementsByTagName("*");
+        for (int i = 0; i < descendants.getLength(); i++) {
+            if (selector.matches((Element) descendants.item(i))) selected.add((Element) descendants.item(i));
+        }
+        return selected;
+    }
+}
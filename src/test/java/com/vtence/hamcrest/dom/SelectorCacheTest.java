@@ -0,0 +1,55 @@
+package com.vtence.hamcrest.dom;
+
+import org.junit.Test;
+import se.fishtank.css.selectors.parser.ParserException;
+
+import static com.vtence.hamcrest.dom.HTML.html;
+import static com.vtence.hamcrest.dom.HasSelector.hasSelector;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SelectorCacheTest {
+
+    SelectorCache cache = new SelectorCache(2);
+
+    @Test
+    public void
+    compilesSelectorOnlyOnce() {
+        assertSame("compiled again", cache.compile("#content"), cache.compile("#content"));
+        assertEquals("misses", 1, cache.missCount());
+        assertEquals("hits", 1, cache.hitCount());
+    }
+
+    @Test
+    public void
+    evictsLeastRecentlyUsedSelectorWhenFull() {
+        cache.compile("ol");
+        cache.compile("ul");
+        cache.compile("ol");
+        cache.compile("li");
+
+        assertEquals("size", 2, cache.size());
+        assertEquals("evictions", 1, cache.evictionCount());
+
+        cache.compile("ol");
+        assertEquals("hits", 2, cache.hitCount());
+        cache.compile("ul");
+        assertEquals("misses", 4, cache.missCount());
+    }
+
+    @Test(expected = ParserException.class)
+    public void
+    rejectsInvalidSelectors() {
+        cache.compile("ul[");
+    }
+
+    @Test
+    public void
+    isSharedByDomMatchers() {
+        long hits = Selector.cache().hitCount();
+        hasSelector("#cached").matches(html("<div id='cached'></div>"));
+        hasSelector("#cached").matches(html("<div id='cached'></div>"));
+        assertTrue("cache not used", Selector.cache().hitCount() > hits);
+    }
+}
@@ -0,0 +1,90 @@
+package com.vtence.hamcrest.dom;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import se.fishtank.css.selectors.dom.W3CNode;
+import se.fishtank.css.selectors.matching.SelectorMatcher;
+
+import static com.vtence.hamcrest.dom.Documents.toElement;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SelectorEngineTest {
+
+    Element page = toElement(
+            "<html><body>" +
+            "<div id='main' class='content wide' lang='en-US'>" +
+            "  <h1>Title</h1>" +
+            "  <ul class='list'><li class='odd first'>one</li><li class='even'>two<b/></li><li class='odd'>three</li>" +
+            "    <li class=' even'><ul><li>nested</li><li class='odd'><p/><p>deep</p><!-- comment --></li></ul></li></ul>" +
+            "  <p data-role='note' title='a b  c'>first <em>note</em></p><p></p><p><!-- only a comment --></p>" +
+            "  <span lang='en'/><SPAN lang='fr-CA'/><div><span>x</span><span>y</span><i/></div>" +
+            "</div>" +
+            "<div class='footer'><p class='content'>footer</p></div>" +
+            "</body></html>");
+
+    @Test
+    public void
+    matchesSameElementsAsReferenceImplementation() {
+        for (String selector : new String[] {
+                "*", "li", "LI", "span", "div li", "div > ul > li", "ul li li", "html li.odd", "body > div p",
+                "#main", "div#main.content", ".odd", ".odd.first", "li.even ~ li", "li + li", "h1 ~ p", "h1 + ul > li",
+                "ul li:first-child", "li:last-child", "li:only-child", "p:first-of-type", "p:last-of-type",
+                "span:only-of-type", "p:only-of-type", ":root", "p:empty", "b:empty", "li:empty", "div:empty",
+                "li:nth-child(2)", "li:nth-child(odd)", "li:nth-child(2n+1)", "li:nth-child(-n+2)",
+                "li:nth-last-child(1)", "li:nth-last-child(2n)", "span:nth-of-type(2)", "p:nth-last-of-type(2)",
+                "li:not(.odd)", "li:not(:first-child)", ":not(li)", ":not(*)", "div :not(p)",
+                "[lang]", "[lang=en]", "[lang|=en]", "[class~=even]", "[class~='']", "[title~=b]", "[title^='a ']",
+                "[title$=c]", "[title*=' b ']", "[data-role]", "p[data-role='note'] em", "[class~=odd] p",
+                "li:hover", "p::first-line", "div p, li.odd, #main", "ul li ~ li > ul li + li", "div p ~ p + p"
+        }) {
+            assertSameSelection(selector);
+        }
+    }
+
+    @Test
+    public void
+    matchesElementsRightToLeft() {
+        Element nested = (Element) page.getElementsByTagName("li").item(5);
+        assertTrue("descendant", engine("div ul li li.odd").matches(nested));
+        assertTrue("child", engine("ul > li > ul > li.odd").matches(nested));
+        assertFalse("missing ancestor", engine("ol li.odd").matches(nested));
+    }
+
+    @Test
+    public void
+    doesNotConsiderDocumentElementAChild() {
+        assertFalse("first child", engine(":first-child").matches(page));
+        assertFalse("nth child", engine(":nth-child(1)").matches(page));
+        assertTrue("root", engine(":root").matches(page));
+    }
+
+    private void assertSameSelection(String selector) {
+        SelectorEngine engine = engine(selector);
+        SelectorMatcher<W3CNode> reference = new SelectorMatcher<>();
+        CompiledSelector compiled = Selector.compile(selector);
+        Node node = page;
+        while (node != null) {
+            if (node instanceof Element) {
+                assertEquals(selector + " on " + node.getNodeName() + " " + node.getTextContent(),
+                        reference.matchesSelectors(compiled.group(), new W3CNode(node)), engine.matches((Element) node));
+            }
+            node = following(node);
+        }
+    }
+
+    private static SelectorEngine engine(String selector) {
+        return SelectorEngine.compile(Selector.compile(selector).group());
+    }
+
+    private Node following(Node node) {
+        if (node.getFirstChild() != null) return node.getFirstChild();
+        while (node != page) {
+            if (node.getNextSibling() != null) return node.getNextSibling();
+            node = node.getParentNode();
+        }
+        return null;
+    }
+}
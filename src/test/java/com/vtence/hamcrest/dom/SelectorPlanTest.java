@@ -0,0 +1,127 @@
+package com.vtence.hamcrest.dom;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.vtence.hamcrest.dom.HTML.html;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SelectorPlanTest {
+
+    Element page = html(
+            "<div id='grid'>" +
+            "  <table><tr><th>Name</th></tr>" +
+            "    <tr class='odd'><td>1</td></tr>" +
+            "    <tr class='even'><td>2</td></tr>" +
+            "    <tr class='odd'><td><p>3</p></td></tr>" +
+            "  </table>" +
+            "</div>" +
+            "<div id='other'><table><tr class='odd'><td>4</td></tr></table></div>");
+
+    @Test
+    public void
+    sharesCommonPrefixOfSelectors() {
+        assertEquals("steps", 4, plan("#grid tr.odd", "#grid tr.even", "#grid th").steps());
+        assertEquals("steps", 3, plan("#grid tr.odd, #grid tr.even").steps());
+        assertEquals("steps", 4, plan("div > table td", "div > table th").steps());
+    }
+
+    @Test
+    public void
+    doesNotPlanSelectorsWithNothingInCommon() {
+        assertEquals("steps", 0, plan("#grid tr.odd").steps());
+        assertEquals("steps", 0, plan("tr.odd", "tr.even").steps());
+        assertEquals("steps", 0, plan("tr + tr", "tr ~ tr").steps());
+    }
+
+    @Test
+    public void
+    selectsSameElementsAsMatchingEachElement() {
+        assertSelectsLikeEngine(page, "#grid tr.odd", "#grid tr.even", "#grid th");
+        assertSelectsLikeEngine(page, "#grid tr.odd, #grid tr.even, tr.odd td");
+        assertSelectsLikeEngine(page, "div > table tr > td", "div table td > p", "div td", "table > td");
+        assertSelectsLikeEngine(page, "div tr:first-child th", "div tr:nth-child(2n) td", "div :not(tr) td");
+        assertSelectsLikeEngine(page, "div tr", "div tr + tr", "tr ~ tr.odd");
+    }
+
+    @Test
+    public void
+    matchesStepsOnAncestorsOfRoot() {
+        Element table = (Element) page.getElementsByTagName("table").item(0);
+        assertSelectsLikeEngine(table, "#grid tr.odd", "#grid tr.even", "#grid > table tr", "body > div td");
+    }
+
+    @Test
+    public void
+    selectsElementsOnceAndInDocumentOrder() {
+        List<Node> selected = select(page, "#grid tr.odd td, #grid tr td, #grid td").get(Selector.compile("#grid tr.odd td, #grid tr td, #grid td"));
+        assertEquals("selected", Arrays.asList("1", "2", "3"), texts(selected));
+    }
+
+    @Test
+    public void
+    stopsOnceEveryLimitIsReached() {
+        Map<CompiledSelector, Integer> limits = new HashMap<>();
+        limits.put(Selector.compile("#grid tr.odd"), 1);
+        limits.put(Selector.compile("#grid tr.even"), 1);
+        Map<CompiledSelector, List<Node>> selection = emptySelection(limits);
+
+        int visited = SelectorPlan.of(limits.keySet()).select(page, limits, selection);
+        assertTrue("visited all " + visited + " elements", visited < page.getElementsByTagName("*").getLength());
+        assertEquals("odd", 1, selection.get(Selector.compile("#grid tr.odd")).size());
+        assertEquals("even", 1, selection.get(Selector.compile("#grid tr.even")).size());
+    }
+
+    private void assertSelectsLikeEngine(Element root, String... selectors) {
+        Map<CompiledSelector, List<Node>> selection = select(root, selectors);
+        for (String selector : selectors) {
+            assertEquals(selector, matchingEachElement(root, Selector.compile(selector)), selection.get(Selector.compile(selector)));
+        }
+    }
+
+    private static Map<CompiledSelector, List<Node>> select(Element root, String... selectors) {
+        Map<CompiledSelector, Integer> limits = new LinkedHashMap<>();
+        for (String selector : selectors) limits.put(Selector.compile(selector), Integer.MAX_VALUE);
+        Map<CompiledSelector, List<Node>> selection = emptySelection(limits);
+        SelectorPlan.of(limits.keySet()).select(root, limits, selection);
+        return selection;
+    }
+
+    private static Map<CompiledSelector, List<Node>> emptySelection(Map<CompiledSelector, Integer> limits) {
+        Map<CompiledSelector, List<Node>> selection = new HashMap<>();
+        for (CompiledSelector selector : limits.keySet()) selection.put(selector, new ArrayList<>());
+        return selection;
+    }
+
+    private static List<Node> matchingEachElement(Element root, CompiledSelector selector) {
+        List<Node> selected = new ArrayList<>();
+        if (selector.matches(root)) selected.add(root);
+        NodeList descendants = root.getElementsByTagName("*");
+        for (int i = 0; i < descendants.getLength(); i++) {
+            if (selector.matches((Element) descendants.item(i))) selected.add(descendants.item(i));
+        }
+        return selected;
+    }
+
+    private static SelectorPlan plan(String... selectors) {
+        List<CompiledSelector> compiled = new ArrayList<>();
+        for (String selector : selectors) compiled.add(Selector.compile(selector));
+        return SelectorPlan.of(compiled);
+    }
+
+    private static List<String> texts(List<Node> nodes) {
+        List<String> texts = new ArrayList<>();
+        for (Node node : nodes) texts.add(node.getTextContent());
+        return texts;
+    }
+}
@@ -0,0 +1,117 @@
+package com.vtence.hamcrest.dom;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import se.fishtank.css.selectors.parser.ParserException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.vtence.hamcrest.dom.HTML.html;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SelectorTest {
+
+    Element page = html("<ol><li id='first'>first</li><li id='second'>second</li></ol>");
+
+    @Test
+    public void
+    compilesSelectorsOnceForReuse() {
+        CompiledSelector items = Selector.compile("ol > li");
+        assertEquals("text", "ol > li", items.text());
+        assertSame("compiled again", items, Selector.compile("ol > li"));
+        assertEquals("selected", 2, Selector.from(page).selectAll(items).size());
+    }
+
+    @Test
+    public void
+    selectsFirstNodeInDocumentOrder() {
+        assertEquals("first", "first", ((Element) Selector.from(page).selectFirst("li")).getAttribute("id"));
+        assertNull("selected", Selector.from(page).selectFirst("ul"));
+    }
+
+    @Test
+    public void
+    limitsNumberOfSelectedNodes() {
+        assertEquals("selected", 1, Selector.from(page).select("li", 1).size());
+        assertEquals("selected", 2, Selector.from(page).select("li", 5).size());
+        assertEquals("selected", 0, Selector.from(page).select("li", 0).size());
+    }
+
+    @Test
+    public void
+    selectsRootNodeLikeAnyOtherNode() {
+        assertEquals("selected", Selector.from(page).selectAll("html, li"), Selector.from(page).select("html, li", 3));
+    }
+
+    @Test
+    public void
+    checksForExistenceOfSelectedNodes() {
+        assertTrue("not found", Selector.from(page).exists("ol li"));
+        assertFalse("found", Selector.from(page).exists("ol > ul"));
+    }
+
+    @Test
+    public void
+    looksUpCandidatesByIdOfFilter() {
+        Element frozen = DomSnapshot.freeze(page);
+        LazySelection<?> selection = (LazySelection<?>) Selector.from(frozen).selectLazily(Selector.compile("li"), HasAttributeValue.hasId("second"));
+        assertTrue("selected", selection.iterator().hasNext());
+        assertEquals("visited", 1, selection.visited());
+    }
+
+    @Test
+    public void
+    looksUpCandidatesOfIndexedLiveDocuments() {
+        Selector.index(page.getOwnerDocument());
+        LazySelection<?> selection = (LazySelection<?>) Selector.from(page).selectLazily(Selector.compile("#second"));
+        assertTrue("selected", selection.iterator().hasNext());
+        assertEquals("visited", 1, selection.visited());
+        assertEquals("selected", 2, Selector.from(page).selectAll("ol > li").size());
+    }
+
+    @Test
+    public void
+    leavesSelectorsMatchedAgainstTheirCandidatesOutOfTraversal() {
+        Element frozen = DomSnapshot.freeze(page);
+        CompiledSelector children = Selector.compile("ol > *");
+        CompiledSelector first = Selector.compile("ol > #first");
+        Map<CompiledSelector, Integer> limits = new HashMap<>();
+        limits.put(children, 5);
+        limits.put(first, 5);
+
+        Map<CompiledSelector, List<Node>> selection = Selector.from(frozen).selectEach(limits);
+        assertEquals("children", 2, selection.get(children).size());
+        assertEquals("first", 1, selection.get(first).size());
+    }
+
+    @Test
+    public void
+    selectsSingleSelectorsLikeSelectorsSelectedTogether() {
+        Element list = html("<ol><li class='odd'>1</li><li>2<b>bold</b></li><li class='odd'><b>3</b></li><li>4</li></ol>");
+        for (Element root : new Element[] { list, DomSnapshot.freeze(list) }) {
+            for (String text : new String[] { "li", "li.odd", "ol b", "li ~ li", "li + li", "li:not(.odd) b", "#none", "li, b" }) {
+                CompiledSelector selector = Selector.compile(text);
+                for (int limit : new int[] { 0, 1, 2, Integer.MAX_VALUE }) {
+                    Map<CompiledSelector, Integer> limits = new HashMap<>();
+                    limits.put(selector, limit);
+                    limits.put(Selector.compile("ol"), 1);
+                    assertEquals(text + " up to " + limit, Selector.from(root).selectEach(limits).get(selector),
+                            Selector.from(root).select(selector, limit));
+                }
+            }
+        }
+    }
+
+    @Test(expected = ParserException.class)
+    public void
+    failsToCompileInvalidSelectors() {
+        Selector.compile("li:nth-child(x)");
+    }
+}